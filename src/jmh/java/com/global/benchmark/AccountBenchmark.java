@@ -0,0 +1,122 @@
+package com.global.benchmark;
+
+import com.global.account.AccountCache;
+import com.global.account.AccountRepository;
+import com.global.account.AccountService;
+import com.global.account.SignUpForm;
+import com.global.account.SignUpFormValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+  로그인(loadUserByUsername)과 회원 가입 검증(SignUpFormValidator) benchmark
+    ㄴ 내장 H2 DB 에 ACCOUNTS 개의 계정을 만들어 놓고 측정함
+    ㄴ *_cached     : AccountCache / AccountNameFilter 를 거치는 실제 경로
+       *_repository : cache 없이 AccountRepository 로 DB 를 조회하는 경로 (비교 기준)
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccountBenchmark {
+
+  private static final int ACCOUNTS = 1_000;
+
+  private ConfigurableApplicationContext context;
+  private AccountService accountService;
+  private AccountRepository accountRepository;
+  private AccountCache accountCache;
+  private SignUpFormValidator signUpFormValidator;
+
+  private SignUpForm takenForm;
+  private SignUpForm freeForm;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = BenchmarkApplication.start();
+    accountService = context.getBean(AccountService.class);
+    accountRepository = context.getBean(AccountRepository.class);
+    accountCache = context.getBean(AccountCache.class);
+    signUpFormValidator = context.getBean(SignUpFormValidator.class);
+
+    for (int i = 0; i < ACCOUNTS; i++) {
+      accountService.processNewAccount(signUpForm("bench" + i));
+    }
+    takenForm = signUpForm("bench0");
+    freeForm = signUpForm("nobody");
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public UserDetails loadUserByUsername_email_cached() {
+    return accountService.loadUserByUsername(randomName() + "@email.com");
+  }
+
+  @Benchmark
+  public UserDetails loadUserByUsername_nickName_cached() {
+    return accountService.loadUserByUsername(randomName());
+  }
+
+  // cache 를 비운 상태에서 조회함 : 매번 DB 를 조회하는 경우
+  @Benchmark
+  public UserDetails loadUserByUsername_cacheMiss() {
+    accountCache.clear();
+    return accountService.loadUserByUsername(randomName() + "@email.com");
+  }
+
+  @Benchmark
+  public Object findByEmail_repository() {
+    return accountRepository.findByEmail(randomName() + "@email.com");
+  }
+
+  @Benchmark
+  public Errors signUpFormValidator_taken() {
+    return validate(takenForm);
+  }
+
+  @Benchmark
+  public Errors signUpFormValidator_free() {
+    return validate(freeForm);
+  }
+
+  private Errors validate(SignUpForm form) {
+    Errors errors = new BeanPropertyBindingResult(form, "signUpForm");
+    signUpFormValidator.validate(form, errors);
+    return errors;
+  }
+
+  private static String randomName() {
+    return "bench" + ThreadLocalRandom.current().nextInt(ACCOUNTS);
+  }
+
+  private static SignUpForm signUpForm(String nickName) {
+    SignUpForm form = new SignUpForm();
+    form.setNickName(nickName);
+    form.setEmail(nickName + "@email.com");
+    form.setPassword("12345678");
+    return form;
+  }
+}
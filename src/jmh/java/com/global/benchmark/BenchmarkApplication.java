@@ -0,0 +1,30 @@
+package com.global.benchmark;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/*
+  benchmark 에서 사용하는 Spring Boot application
+    ㄴ com.global 아래의 Bean 을 그대로 사용하고, DB 만 내장 H2 로 바꿈 (application-benchmark.properties)
+    ㄴ web server 는 띄우지 않음 (ThreadModeBenchmark 는 properties 로 servlet web server 를 띄움)
+*/
+@SpringBootApplication(scanBasePackages = "com.global")
+@EntityScan("com.global.domain")
+@EnableJpaRepositories("com.global")
+public class BenchmarkApplication {
+
+  public static ConfigurableApplicationContext start() {
+    return start(new String[0]);
+  }
+
+  // properties : application-benchmark.properties 의 설정을 덮어쓸 값 (예: "--server.port=0")
+  public static ConfigurableApplicationContext start(String... properties) {
+    SpringApplication application = new SpringApplication(BenchmarkApplication.class);
+    // local : 메일은 보내지 않고 ConsoleMailSender 로 log 만 남김
+    application.setAdditionalProfiles("local", "benchmark");
+    return application.run(properties);
+  }
+}
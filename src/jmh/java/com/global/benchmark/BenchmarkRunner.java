@@ -0,0 +1,38 @@
+package com.global.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/*
+  모든 benchmark 를 실행하고 결과를 JSON 파일로 저장함
+    사용법) BenchmarkRunner [결과 파일] [benchmark 이름 정규식]
+      예) BenchmarkRunner build/jmh/results-$(git rev-parse --short HEAD).json
+          BenchmarkRunner build/jmh/mapping.json SettingsMappingBenchmark
+    ㄴ 결과 파일을 지정하지 않으면 build/jmh/results.json 에 저장함
+    ㄴ commit 마다 결과 파일을 남겨 두고 JMH Visualizer 등으로 비교함
+*/
+public class BenchmarkRunner {
+
+  public static void main(String[] args) throws RunnerException, IOException {
+    Path result = Paths.get(args.length > 0 ? args[0] : "build/jmh/results.json");
+    String include = args.length > 1 ? args[1] : "com\\.global\\..*Benchmark";
+    if (result.getParent() != null) {
+      Files.createDirectories(result.getParent());
+    }
+
+    Options options = new OptionsBuilder()
+      .include(include)
+      .resultFormat(ResultFormatType.JSON)
+      .result(result.toString())
+      .build();
+    new Runner(options).run();
+  }
+}
@@ -0,0 +1,59 @@
+package com.global.benchmark;
+
+import com.global.config.AppConfig;
+import com.global.config.BoundedPasswordEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+  AppConfig.passwordEncoder() 가 만드는 PasswordEncoder 의 비용
+    ㄴ strength(bcrypt cost) 별로 encode(회원 가입, 비밀번호 변경)와 matches(로그인) 시간을 측정함
+    ㄴ BoundedPasswordEncoder 의 thread pool 을 거치는 시간도 포함됨
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordEncoderBenchmark {
+
+  @Param({"4", "10", "12"})
+  public int strength;
+
+  private BoundedPasswordEncoder passwordEncoder;
+  private String encoded;
+
+  @Setup
+  public void setUp() {
+    passwordEncoder = new AppConfig().passwordEncoder(strength, 1, 100, 60_000, 5);
+    encoded = passwordEncoder.encode("12345678");
+  }
+
+  @TearDown
+  public void tearDown() {
+    passwordEncoder.destroy();
+  }
+
+  @Benchmark
+  public String encode() {
+    return passwordEncoder.encode("12345678");
+  }
+
+  @Benchmark
+  public boolean matches() {
+    return passwordEncoder.matches("12345678", encoded);
+  }
+}
@@ -0,0 +1,81 @@
+package com.global.benchmark;
+
+import com.global.domain.Account;
+import com.global.settings.SettingsFormMapper;
+import com.global.settings.form.Profile;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.convention.NameTokenizers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+  Settings 화면의 Form <-> Account mapping 비용
+    ㄴ modelMapper_* : 예전에 AppConfig 에 등록했던 ModelMapper 설정 그대로 (비교 기준)
+    ㄴ formMapper_*  : 지금 사용하는 SettingsFormMapper
+  Notifications 는 Account 가 아니라 NotificationChannel 의 bit mask 와 mapping 하므로 여기서 측정하지 않음
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SettingsMappingBenchmark {
+
+  private ModelMapper modelMapper;
+  private SettingsFormMapper formMapper;
+
+  private Account account;
+  private Profile profile;
+
+  @Setup
+  public void setUp() {
+    modelMapper = new ModelMapper();
+    modelMapper.getConfiguration()
+               .setDestinationNameTokenizer(NameTokenizers.UNDERSCORE)
+               .setSourceNameTokenizer(NameTokenizers.UNDERSCORE);
+    formMapper = new SettingsFormMapper();
+
+    account = Account.builder()
+                     .email("bench@email.com")
+                     .nickName("bench")
+                     .bio("자기소개")
+                     .url("https://example.com")
+                     .occupation("developer")
+                     .location("Seoul")
+                     .build();
+    profile = formMapper.toProfile(account);
+  }
+
+  @Benchmark
+  public Profile modelMapper_toProfile() {
+    return modelMapper.map(account, Profile.class);
+  }
+
+  @Benchmark
+  public Profile formMapper_toProfile() {
+    return formMapper.toProfile(account);
+  }
+
+  @Benchmark
+  public Account modelMapper_applyProfile() {
+    modelMapper.map(profile, account);
+    return account;
+  }
+
+  @Benchmark
+  public Account formMapper_applyProfile() {
+    formMapper.applyProfile(profile, account);
+    return account;
+  }
+}
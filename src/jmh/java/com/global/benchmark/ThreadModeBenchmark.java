@@ -0,0 +1,171 @@
+package com.global.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/*
+  platform thread 와 virtual thread (app.threads.mode) 의 요청 처리 성능 비교 benchmark
+    ㄴ mode 마다 내장 Tomcat 을 띄우고 THREADS 개의 JMH thread 가 동시에 HTTP 요청을 보냄
+       (JMH thread 마다 HttpClient 와 cookie(session)를 따로 가짐)
+    ㄴ signUp   : GET /sign-up -> POST /sign-up (bcrypt, INSERT, 인증 메일 저장)
+       settings : POST /settings/tags/add -> GET /settings/profile (로그인한 계정의 SELECT / UPDATE)
+    ㄴ virtual 은 JDK 21 이상에서만 실행할 수 있음
+    ㄴ 내장 H2 DB 를 사용하므로 PostgreSQL 에서의 결과와는 다름. 두 mode 의 상대적인 차이를 보는 용도
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(ThreadModeBenchmark.THREADS)
+@Fork(1)
+public class ThreadModeBenchmark {
+
+  static final int THREADS = 64;
+
+  private static final Pattern CSRF_INPUT = Pattern.compile("name=\"_csrf\"\\s+value=\"([^\"]+)\"");
+  private static final Pattern CSRF_SCRIPT = Pattern.compile("csrfToken\\s*=\\s*\"([^\"]+)\"");
+
+  private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+  @Param({"platform", "virtual"})
+  private String mode;
+
+  private ConfigurableApplicationContext context;
+  private String baseUrl;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = BenchmarkApplication.start("--spring.main.web-application-type=servlet",
+                                         "--server.port=0",
+                                         // 같은 IP 에서 회원 가입을 반복하므로
+                                         "--app.rate-limit.enabled=false",
+                                         "--app.threads.mode=" + mode);
+    int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+    baseUrl = "http://localhost:" + port;
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  // JMH thread 마다 하나씩 만들어지는 가상 사용자 : 회원 가입해서 로그인한 상태로 시작함
+  @State(Scope.Thread)
+  public static class User {
+    private HttpClient client;
+    private String csrfToken;
+
+    @Setup(Level.Trial)
+    public void setUp(ThreadModeBenchmark benchmark) throws IOException, InterruptedException {
+      client = newClient();
+      benchmark.signUp(client, "tm" + SEQUENCE.incrementAndGet());
+      csrfToken = csrf(benchmark.send(client, benchmark.get("/settings/tags")).body());
+    }
+  }
+
+  // 회원 가입하면 새 계정으로 로그인되므로 매번 새 client(session)로 보냄
+  @Benchmark
+  public int signUp() throws IOException, InterruptedException {
+    String nickName = "tm" + Integer.toString(SEQUENCE.incrementAndGet(), 36);
+    return signUp(newClient(), nickName);
+  }
+
+  @Benchmark
+  public int settings(User user) throws IOException, InterruptedException {
+    String body = "{\"tagTitle\":\"" + String.format("thread-%03d", ThreadLocalRandom.current().nextInt(100)) + "\"}";
+    HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/settings/tags/add"))
+                                     .header("Content-Type", "application/json")
+                                     .header("X-CSRF-TOKEN", user.csrfToken)
+                                     .POST(HttpRequest.BodyPublishers.ofString(body))
+                                     .build();
+    send(user.client, request);
+    return send(user.client, get("/settings/profile")).statusCode();
+  }
+
+  private int signUp(HttpClient client, String nickName) throws IOException, InterruptedException {
+    String page = send(client, get("/sign-up")).body();
+    Map<String, String> form = new LinkedHashMap<>();
+    form.put("nickName", nickName);
+    form.put("email", nickName + "@email.com");
+    form.put("password", "12345678");
+    form.put("_csrf", csrf(page));
+    return send(client, post("/sign-up", form)).statusCode();
+  }
+
+  private HttpResponse<String> send(HttpClient client, HttpRequest request) throws IOException, InterruptedException {
+    HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+    if (response.statusCode() >= 400) {
+      throw new IllegalStateException(request.method() + " " + request.uri() + " : " + response.statusCode());
+    }
+    return response;
+  }
+
+  private HttpRequest get(String path) {
+    return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+  }
+
+  private HttpRequest post(String path, Map<String, String> form) {
+    String body = form.entrySet().stream()
+                      .map(entry -> encode(entry.getKey()) + "=" + encode(entry.getValue()))
+                      .collect(Collectors.joining("&"));
+    return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                      .header("Content-Type", "application/x-www-form-urlencoded")
+                      .POST(HttpRequest.BodyPublishers.ofString(body))
+                      .build();
+  }
+
+  private static HttpClient newClient() {
+    return HttpClient.newBuilder()
+                     .cookieHandler(new CookieManager())
+                     .followRedirects(HttpClient.Redirect.NEVER)
+                     .connectTimeout(Duration.ofSeconds(5))
+                     .build();
+  }
+
+  private static String csrf(String page) {
+    for (Pattern pattern : new Pattern[]{CSRF_INPUT, CSRF_SCRIPT}) {
+      Matcher matcher = pattern.matcher(page);
+      if (matcher.find()) {
+        return matcher.group(1);
+      }
+    }
+    return "";
+  }
+
+  private static String encode(String value) {
+    return URLEncoder.encode(value, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,97 @@
+package com.global.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.global.domain.Zone;
+import com.global.zone.ZoneIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/*
+  활동 지역 설정 화면(updateZoneForm)에 필요한 Zone 목록을 만드는 비용
+    ㄴ allZonesJson : 예전 방식 - 전체 Zone 을 toString() 으로 바꾸고 JSON 으로 만들어서 view 에 전달함
+    ㄴ search       : 지금 방식 - ZoneIndex 에서 입력한 접두어로 찾은 Zone 만 toString() 으로 바꿈
+  zone_kr.csv 의 Zone 을 copies 배 만큼 복사해서 전체 Zone 개수를 늘려가며 측정함
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ZoneFormBenchmark {
+
+  @Param({"1", "100"})
+  public int copies;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private List<Zone> zones;
+  private ZoneIndex zoneIndex;
+
+  @Setup
+  public void setUp() {
+    List<Zone> source = readZones();
+    zones = new ArrayList<>(source.size() * copies);
+    for (int i = 0; i < copies; i++) {
+      for (Zone zone : source) {
+        zones.add(Zone.builder()
+                      .id((long) zones.size())
+                      .city(i == 0 ? zone.getCity() : zone.getCity() + i)
+                      .localNameOfCity(zone.getLocalNameOfCity())
+                      .province(zone.getProvince())
+                      .build());
+      }
+    }
+    zoneIndex = ZoneIndex.of(zones);
+  }
+
+  @Benchmark
+  public List<String> allZonesToString() {
+    return zones.stream().map(Zone::toString).collect(Collectors.toList());
+  }
+
+  @Benchmark
+  public String allZonesJson() throws Exception {
+    return objectMapper.writeValueAsString(zones.stream().map(Zone::toString).collect(Collectors.toList()));
+  }
+
+  @Benchmark
+  public List<String> search() {
+    return zoneIndex.search("an", 10).stream().map(Zone::toString).collect(Collectors.toList());
+  }
+
+  private static List<Zone> readZones() {
+    List<Zone> zones = new ArrayList<>();
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+           ZoneFormBenchmark.class.getResourceAsStream("/zone_kr.csv"), StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        String[] split = line.split(",");
+        if (split.length >= 3) {
+          zones.add(Zone.builder().city(split[0]).localNameOfCity(split[1]).province(split[2]).build());
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return zones;
+  }
+}
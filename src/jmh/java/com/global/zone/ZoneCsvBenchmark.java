@@ -0,0 +1,52 @@
+package com.global.zone;
+
+import com.global.domain.Zone;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/*
+  zone_kr.csv 한 파일을 Zone 객체로 바꾸는 비용 (ZoneService.parseLine)
+    ㄴ DB 에 저장하는 시간은 포함하지 않음
+    ㄴ package-private 인 parseLine() 을 호출하기 위해 com.global.zone package 에 둠
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ZoneCsvBenchmark {
+
+  private List<String> lines;
+
+  @Setup
+  public void setUp() throws IOException {
+    try (InputStream in = ZoneCsvBenchmark.class.getResourceAsStream("/zone_kr.csv")) {
+      lines = new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().collect(Collectors.toList());
+    }
+  }
+
+  @Benchmark
+  public void parseLines(Blackhole blackhole) {
+    for (String line : lines) {
+      Zone zone = ZoneService.parseLine(line);
+      blackhole.consume(zone);
+    }
+  }
+}
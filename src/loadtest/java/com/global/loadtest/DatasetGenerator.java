@@ -0,0 +1,238 @@
+package com.global.loadtest;
+
+import com.global.account.EmailTokenService;
+import com.global.notification.NotificationChannel;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/*
+  부하 테스트용 계정 data 를 DB 에 직접 넣는 program
+    ㄴ processNewAccount() 를 거치지 않고 JDBC batch 로 CHUNK 개씩 insert 함
+       ㄴ bcrypt 는 처음에 한 번만 계산해서 모든 계정에 같은 hash 를 사용함 (비밀번호 : PASSWORD)
+    ㄴ 계정마다 관심 주제(tag) 0 ~ 5 개, 활동 지역(zone) 0 ~ 3 개를 연결함
+       ㄴ zone 은 application 이 zone_kr.csv 로 미리 채워 둔 table 에서 고름
+    ㄴ seed 가 같으면 같은 data 가 만들어짐
+       nickName : lt0000000, lt0000001 ...   email : {nickName}@loadtest.local
+    ㄴ 이메일 인증을 하지 않은 계정(10%)은 SIGN_UP 용도의 email_token 을 만들고 (hash 만 저장함, EmailTokenService 와 같은 방식)
+       email, token 원문은 LoadDriver 에서 사용하도록 파일로 저장함
+       ㄴ token 은 한 번만 사용할 수 있으므로 부하 테스트를 다시 하려면 data 를 다시 만들어야 함
+       ㄴ 만료 시간은 TOKEN_TTL (생성한 후 며칠 뒤에 부하 테스트를 해도 되도록 application 기본값보다 길게 잡음)
+  사용법) DatasetGenerator <jdbc url> <user> <password> <계정 수> [seed] [unverified 파일]
+    예) DatasetGenerator jdbc:postgresql://localhost:5432/testdb global1 1111 100000
+*/
+public class DatasetGenerator {
+
+  static final String PASSWORD = "loadtest1234";
+  static final String NICKNAME_FORMAT = "lt%07d";
+  static final String EMAIL_DOMAIN = "@loadtest.local";
+
+  private static final int CHUNK = 1_000;
+  private static final int TAGS = 500;
+  private static final Duration TOKEN_TTL = Duration.ofDays(7);
+
+  private static final String INSERT_TAG_SQL =
+    "insert into tag (id, title) select nextval('hibernate_sequence'), ? "
+    + "where not exists (select 1 from tag where title = ?)";
+  // study_* column 은 예전 알림 설정 column (not null 이라서 값만 채움) : 알림 설정은 notification_preference 에 넣음
+  private static final String INSERT_ACCOUNT_SQL =
+    "insert into account (id, email, nick_name, password, email_verified, joined_at, "
+    + "study_created_by_email, study_created_by_web, study_enrollment_result_by_email, "
+    + "study_enrollment_result_by_web, study_updated_by_email, study_updated_by_web) "
+    + "values (nextval('hibernate_sequence'), ?, ?, ?, ?, ?, false, false, false, false, false, false)";
+  private static final String SELECT_ACCOUNT_IDS_SQL =
+    "select id, nick_name from account where nick_name between ? and ?";
+  private static final String INSERT_EMAIL_TOKEN_SQL =
+    "insert into email_token (id, token_hash, account_id, purpose, created_at, expires_at) "
+    + "values (nextval('hibernate_sequence'), ?, ?, 'SIGN_UP', ?, ?)";
+  private static final String INSERT_PREFERENCE_SQL =
+    "insert into notification_preference (account_id, channels) values (?, ?)";
+  private static final String INSERT_ACCOUNT_TAG_SQL =
+    "insert into account_tags (account_id, tags_id) values (?, ?)";
+  private static final String INSERT_ACCOUNT_ZONE_SQL =
+    "insert into account_zones (account_id, zones_id) values (?, ?)";
+
+  public static void main(String[] args) throws SQLException, IOException {
+    if (args.length < 4) {
+      System.err.println("사용법 : DatasetGenerator <jdbc url> <user> <password> <계정 수> [seed] [unverified 파일]");
+      System.exit(1);
+    }
+    int accounts = Integer.parseInt(args[3]);
+    long seed = args.length > 4 ? Long.parseLong(args[4]) : 42L;
+    Path unverifiedFile = Paths.get(args.length > 5 ? args[5] : "build/loadtest/unverified.csv");
+
+    try (Connection connection = DriverManager.getConnection(args[0], args[1], args[2])) {
+      connection.setAutoCommit(false);
+      new DatasetGenerator(connection, new Random(seed)).generate(accounts, unverifiedFile);
+    }
+  }
+
+  private final Connection connection;
+  private final Random random;
+  private final String passwordHash;
+
+  DatasetGenerator(Connection connection, Random random) {
+    this.connection = connection;
+    this.random = random;
+    this.passwordHash = "{bcrypt}" + new BCryptPasswordEncoder().encode(PASSWORD);
+  }
+
+  void generate(int accounts, Path unverifiedFile) throws SQLException, IOException {
+    long started = System.currentTimeMillis();
+    List<Long> tagIds = insertTags();
+    List<Long> zoneIds = selectIds("select id from zone");
+    if (zoneIds.isEmpty()) {
+      System.out.println("zone table 이 비어 있어서 활동 지역은 연결하지 않습니다");
+    }
+
+    if (unverifiedFile.getParent() != null) {
+      Files.createDirectories(unverifiedFile.getParent());
+    }
+    try (BufferedWriter unverified = Files.newBufferedWriter(unverifiedFile, StandardCharsets.UTF_8)) {
+      for (int from = 0; from < accounts; from += CHUNK) {
+        int to = Math.min(accounts, from + CHUNK);
+        insertChunk(from, to, tagIds, zoneIds, unverified);
+        System.out.printf("계정 %d / %d 건 (%d ms)%n", to, accounts, System.currentTimeMillis() - started);
+      }
+    }
+  }
+
+  // 계정 CHUNK 개를 insert 하고, 만들어진 id 를 다시 읽어서 email_token 을 만들고 tag / zone 을 연결함
+  private void insertChunk(int from, int to, List<Long> tagIds, List<Long> zoneIds,
+                           BufferedWriter unverified) throws SQLException, IOException {
+    LocalDateTime now = LocalDateTime.now();
+    Timestamp joinedAt = Timestamp.valueOf(now);
+    // 이메일 인증을 하지 않은 계정의 nickName -> token 원문
+    Map<String, String> tokens = new HashMap<>();
+    try (PreparedStatement insert = connection.prepareStatement(INSERT_ACCOUNT_SQL)) {
+      for (int i = from; i < to; i++) {
+        String nickName = nickName(i);
+        boolean verified = random.nextInt(10) != 0;
+        insert.setString(1, nickName + EMAIL_DOMAIN);
+        insert.setString(2, nickName);
+        insert.setString(3, passwordHash);
+        insert.setBoolean(4, verified);
+        insert.setTimestamp(5, joinedAt);
+        insert.addBatch();
+        if (!verified) {
+          tokens.put(nickName, UUID.nameUUIDFromBytes(nickName.getBytes(StandardCharsets.UTF_8)).toString());
+        }
+      }
+      insert.executeBatch();
+    }
+
+    Map<String, Long> ids = new HashMap<>();
+    try (PreparedStatement select = connection.prepareStatement(SELECT_ACCOUNT_IDS_SQL)) {
+      select.setString(1, nickName(from));
+      select.setString(2, nickName(to - 1));
+      try (ResultSet rs = select.executeQuery()) {
+        while (rs.next()) {
+          ids.put(rs.getString(2), rs.getLong(1));
+        }
+      }
+    }
+
+    try (PreparedStatement insert = connection.prepareStatement(INSERT_EMAIL_TOKEN_SQL)) {
+      for (int i = from; i < to; i++) {
+        String nickName = nickName(i);
+        String token = tokens.get(nickName);
+        Long accountId = ids.get(nickName);
+        if (token == null || accountId == null) {
+          continue;
+        }
+        insert.setString(1, EmailTokenService.hash(token));
+        insert.setLong(2, accountId);
+        insert.setTimestamp(3, joinedAt);
+        insert.setTimestamp(4, Timestamp.valueOf(now.plus(TOKEN_TTL)));
+        insert.addBatch();
+        unverified.write(nickName + EMAIL_DOMAIN + "," + token);
+        unverified.newLine();
+      }
+      insert.executeBatch();
+    }
+
+    // 가입할 때와 같은 기본 설정 (web 알림만 받음)
+    try (PreparedStatement insert = connection.prepareStatement(INSERT_PREFERENCE_SQL)) {
+      for (Long accountId : ids.values()) {
+        insert.setLong(1, accountId);
+        insert.setInt(2, NotificationChannel.DEFAULT_CHANNELS);
+        insert.addBatch();
+      }
+      insert.executeBatch();
+    }
+
+    try (PreparedStatement tags = connection.prepareStatement(INSERT_ACCOUNT_TAG_SQL);
+         PreparedStatement zones = connection.prepareStatement(INSERT_ACCOUNT_ZONE_SQL)) {
+      for (int i = from; i < to; i++) {
+        Long accountId = ids.get(nickName(i));
+        addLinks(tags, accountId, tagIds, random.nextInt(6));
+        addLinks(zones, accountId, zoneIds, random.nextInt(4));
+      }
+      tags.executeBatch();
+      zones.executeBatch();
+    }
+    connection.commit();
+  }
+
+  // 서로 다른 count 개를 골라서 연결함
+  private void addLinks(PreparedStatement statement, Long accountId, List<Long> candidates, int count)
+    throws SQLException {
+    if (accountId == null || candidates.isEmpty()) {
+      return;
+    }
+    int start = random.nextInt(candidates.size());
+    for (int i = 0; i < Math.min(count, candidates.size()); i++) {
+      statement.setLong(1, accountId);
+      statement.setLong(2, candidates.get((start + i) % candidates.size()));
+      statement.addBatch();
+    }
+  }
+
+  private List<Long> insertTags() throws SQLException {
+    try (PreparedStatement insert = connection.prepareStatement(INSERT_TAG_SQL)) {
+      for (int i = 0; i < TAGS; i++) {
+        String title = String.format("loadtest-%03d", i);
+        insert.setString(1, title);
+        insert.setString(2, title);
+        insert.addBatch();
+      }
+      insert.executeBatch();
+    }
+    connection.commit();
+    return selectIds("select id from tag where title like 'loadtest-%' order by title");
+  }
+
+  private List<Long> selectIds(String sql) throws SQLException {
+    List<Long> ids = new ArrayList<>();
+    try (PreparedStatement select = connection.prepareStatement(sql);
+         ResultSet rs = select.executeQuery()) {
+      while (rs.next()) {
+        ids.add(rs.getLong(1));
+      }
+    }
+    return ids;
+  }
+
+  static String nickName(int index) {
+    return String.format(NICKNAME_FORMAT, index);
+  }
+}
@@ -0,0 +1,70 @@
+package com.global.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/*
+  endpoint 별 응답 시간 기록
+    ㄴ 응답 시간(ns)을 모두 저장해 두었다가 report() 에서 정렬해서 p50 / p99 를 계산함
+    ㄴ 부하 테스트 한 번에 수백만 건 정도까지를 가정함 (건당 8 byte)
+*/
+class LatencyStats {
+
+  private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+  void record(String endpoint, long nanos, boolean success) {
+    endpoints.computeIfAbsent(endpoint, key -> new Endpoint()).record(nanos, success);
+  }
+
+  String report(long elapsedNanos) {
+    double seconds = elapsedNanos / 1_000_000_000.0;
+    StringBuilder sb = new StringBuilder();
+    sb.append(String.format("%-28s %9s %7s %10s %9s %9s %9s%n",
+                            "endpoint", "requests", "errors", "req/s", "p50(ms)", "p99(ms)", "max(ms)"));
+    new TreeMap<>(endpoints).forEach((name, endpoint) -> {
+      long[] sorted = endpoint.sorted();
+      sb.append(String.format("%-28s %9d %7d %10.1f %9.2f %9.2f %9.2f%n",
+                              name, sorted.length, endpoint.errors, sorted.length / seconds,
+                              millis(percentile(sorted, 50)), millis(percentile(sorted, 99)),
+                              millis(sorted.length == 0 ? 0 : sorted[sorted.length - 1])));
+    });
+    return sb.toString();
+  }
+
+  private static long percentile(long[] sorted, int percentile) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+    return sorted[Math.max(0, index)];
+  }
+
+  private static double millis(long nanos) {
+    return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+  }
+
+  private static final class Endpoint {
+    private long[] latencies = new long[1024];
+    private int size;
+    private long errors;
+
+    private synchronized void record(long nanos, boolean success) {
+      if (size == latencies.length) {
+        latencies = Arrays.copyOf(latencies, size * 2);
+      }
+      latencies[size++] = nanos;
+      if (!success) {
+        errors++;
+      }
+    }
+
+    private synchronized long[] sorted() {
+      long[] copy = Arrays.copyOf(latencies, size);
+      Arrays.sort(copy);
+      return copy;
+    }
+  }
+}
@@ -0,0 +1,237 @@
+package com.global.loadtest;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/*
+  실행 중인 application 에 실제 사용자처럼 요청을 보내는 부하 테스트 program
+    ㄴ 가상 사용자(thread)마다 HttpClient 와 cookie(session)를 따로 가짐
+    ㄴ 가상 사용자는 DatasetGenerator 가 만든 계정으로 로그인한 후 아래 흐름을 반복함
+         50% : 프로필 보기              GET  /profile/{nickName}
+         25% : 관심 주제 추가           POST /settings/tags/add
+         15% : 회원 가입                GET  /sign-up -> POST /sign-up
+         10% : 이메일 인증              GET  /check-email-token
+               ㄴ token 은 한 번만 사용할 수 있으므로 unverified 파일의 token 을 모두 사용하면 더 보내지 않음
+               ㄴ 200 이어도 "이메일이 정확하지 않습니다" page(alert-danger)이면 오류로 기록함
+    ㄴ form 의 _csrf hidden input 이나 page 의 csrfToken 변수에서 CSRF token 을 읽어서 같이 보냄
+    ㄴ 끝나면 endpoint 별 요청 수, 오류 수, 처리량(req/s), p50 / p99 응답 시간을 출력함
+  application 은 app.rate-limit.enabled=false 로 실행해야 함 (한 IP 에서 회원 가입을 반복하므로)
+  사용법) LoadDriver <base url> <계정 수> [실행 시간(초)] [가상 사용자 수] [seed] [unverified 파일]
+    예) LoadDriver http://localhost:8080 100000 60 50
+*/
+public class LoadDriver {
+
+  private static final Pattern CSRF_INPUT = Pattern.compile("name=\"_csrf\"\\s+value=\"([^\"]+)\"");
+  private static final Pattern CSRF_SCRIPT = Pattern.compile("csrfToken\\s*=\\s*\"([^\"]+)\"");
+
+  private final String baseUrl;
+  private final int accounts;
+  private final List<String[]> unverified;
+  private final LatencyStats stats = new LatencyStats();
+  private final AtomicInteger unverifiedIndex = new AtomicInteger();
+  private final AtomicInteger signUpSequence = new AtomicInteger();
+
+  LoadDriver(String baseUrl, int accounts, List<String[]> unverified) {
+    this.baseUrl = baseUrl;
+    this.accounts = accounts;
+    this.unverified = unverified;
+  }
+
+  public static void main(String[] args) throws Exception {
+    if (args.length < 2) {
+      System.err.println("사용법 : LoadDriver <base url> <계정 수> [실행 시간(초)] [가상 사용자 수] [seed] [unverified 파일]");
+      System.exit(1);
+    }
+    String baseUrl = args[0];
+    int accounts = Integer.parseInt(args[1]);
+    int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 60;
+    int users = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+    long seed = args.length > 4 ? Long.parseLong(args[4]) : 42L;
+    Path unverifiedFile = Paths.get(args.length > 5 ? args[5] : "build/loadtest/unverified.csv");
+
+    List<String[]> unverified = Files.exists(unverifiedFile)
+      ? Files.readAllLines(unverifiedFile, StandardCharsets.UTF_8).stream()
+             .map(line -> line.split(",", 2)).filter(split -> split.length == 2).collect(Collectors.toList())
+      : Collections.emptyList();
+
+    new LoadDriver(baseUrl, accounts, unverified).run(users, Duration.ofSeconds(seconds), seed);
+  }
+
+  void run(int users, Duration duration, long seed) throws InterruptedException {
+    long started = System.nanoTime();
+    long deadline = started + duration.toNanos();
+    ExecutorService executor = Executors.newFixedThreadPool(users);
+    for (int i = 0; i < users; i++) {
+      Random random = new Random(seed + i);
+      executor.submit(() -> {
+        try {
+          new VirtualUser(random).run(deadline);
+        } catch (Exception e) {
+          System.err.println("가상 사용자 종료 : " + e);
+        }
+      });
+    }
+    executor.shutdown();
+    executor.awaitTermination(duration.toSeconds() + 60, TimeUnit.SECONDS);
+    System.out.print(stats.report(System.nanoTime() - started));
+  }
+
+  private final class VirtualUser {
+    private final Random random;
+    private final HttpClient client = HttpClient.newBuilder()
+                                                .cookieHandler(new CookieManager())
+                                                .followRedirects(HttpClient.Redirect.NEVER)
+                                                .connectTimeout(Duration.ofSeconds(5))
+                                                .build();
+    private String csrfToken;
+
+    private VirtualUser(Random random) {
+      this.random = random;
+    }
+
+    private void run(long deadline) throws IOException, InterruptedException {
+      login(DatasetGenerator.nickName(random.nextInt(accounts)));
+      while (System.nanoTime() < deadline) {
+        int dice = random.nextInt(100);
+        try {
+          if (dice < 50) {
+            send("GET /profile/{nickName}", get("/profile/" + DatasetGenerator.nickName(random.nextInt(accounts))));
+          } else if (dice < 75) {
+            addTag();
+          } else if (dice < 90) {
+            signUp();
+          } else {
+            checkEmailToken();
+          }
+        } catch (IOException e) {
+          // 오류로 기록되었으므로 다음 흐름을 계속 진행함
+        }
+      }
+    }
+
+    private void login(String nickName) throws IOException, InterruptedException {
+      String page = send("GET /login", get("/login")).body();
+      Map<String, String> form = new LinkedHashMap<>();
+      form.put("username", nickName);
+      form.put("password", DatasetGenerator.PASSWORD);
+      form.put("_csrf", csrf(page));
+      send("POST /login", post("/login", form));
+      // 로그인하면 session 이 바뀌므로 CSRF token 을 다시 읽음
+      csrfToken = csrf(send("GET /settings/tags", get("/settings/tags")).body());
+    }
+
+    private void addTag() throws IOException, InterruptedException {
+      String body = "{\"tagTitle\":\"" + String.format("loadtest-%03d", random.nextInt(500)) + "\"}";
+      HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/settings/tags/add"))
+                                       .header("Content-Type", "application/json")
+                                       .header("X-CSRF-TOKEN", csrfToken)
+                                       .POST(HttpRequest.BodyPublishers.ofString(body))
+                                       .build();
+      send("POST /settings/tags/add", request);
+    }
+
+    private void signUp() throws IOException, InterruptedException {
+      String page = send("GET /sign-up", get("/sign-up")).body();
+      String nickName = "ld" + Integer.toString(signUpSequence.incrementAndGet(), 36) + random.nextInt(1000);
+      Map<String, String> form = new LinkedHashMap<>();
+      form.put("nickName", nickName);
+      form.put("email", nickName + DatasetGenerator.EMAIL_DOMAIN);
+      form.put("password", DatasetGenerator.PASSWORD);
+      form.put("_csrf", csrf(page));
+      // 회원 가입하면 새 계정으로 로그인되므로 별도의 client(session)로 보냄
+      send("POST /sign-up", post("/sign-up", form), HttpClient.newBuilder()
+                                                              .cookieHandler(new CookieManager())
+                                                              .followRedirects(HttpClient.Redirect.NEVER)
+                                                              .build());
+    }
+
+    private void checkEmailToken() throws IOException, InterruptedException {
+      if (unverified.isEmpty()) {
+        return;
+      }
+      int index = unverifiedIndex.getAndIncrement();
+      if (index >= unverified.size()) {
+        return;
+      }
+      String[] emailAndToken = unverified.get(index);
+      send("GET /check-email-token", get("/check-email-token?token=" + encode(emailAndToken[1])
+                                         + "&email=" + encode(emailAndToken[0])), client,
+           response -> !response.body().contains("alert-danger"));
+    }
+
+    private HttpResponse<String> send(String endpoint, HttpRequest request) throws IOException, InterruptedException {
+      return send(endpoint, request, client);
+    }
+
+    private HttpResponse<String> send(String endpoint, HttpRequest request, HttpClient httpClient)
+      throws IOException, InterruptedException {
+      return send(endpoint, request, httpClient, response -> true);
+    }
+
+    // status 가 400 미만이고 succeeded 를 만족하면 성공으로 기록함
+    private HttpResponse<String> send(String endpoint, HttpRequest request, HttpClient httpClient,
+                                      Predicate<HttpResponse<String>> succeeded)
+      throws IOException, InterruptedException {
+      long start = System.nanoTime();
+      try {
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        stats.record(endpoint, System.nanoTime() - start, response.statusCode() < 400 && succeeded.test(response));
+        return response;
+      } catch (IOException e) {
+        stats.record(endpoint, System.nanoTime() - start, false);
+        throw e;
+      }
+    }
+
+    private HttpRequest get(String path) {
+      return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+    }
+
+    private HttpRequest post(String path, Map<String, String> form) {
+      String body = form.entrySet().stream()
+                        .map(entry -> encode(entry.getKey()) + "=" + encode(entry.getValue()))
+                        .collect(Collectors.joining("&"));
+      return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                        .header("Content-Type", "application/x-www-form-urlencoded")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build();
+    }
+  }
+
+  private static String csrf(String page) {
+    for (Pattern pattern : new Pattern[]{CSRF_INPUT, CSRF_SCRIPT}) {
+      Matcher matcher = pattern.matcher(page);
+      if (matcher.find()) {
+        return matcher.group(1);
+      }
+    }
+    return "";
+  }
+
+  private static String encode(String value) {
+    return URLEncoder.encode(value, StandardCharsets.UTF_8);
+  }
+}
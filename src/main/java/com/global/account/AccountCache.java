@@ -0,0 +1,283 @@
+package com.global.account;
+
+import com.global.config.PrimaryReads;
+import com.global.domain.Account;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/*
+  AccountRepository 조회 결과를 메모리에 보관하는 cache
+    ㄴ id 를 기준(canonical key)으로 Account 를 저장하고
+       email -> id, nickName -> id 로 찾아갈 수 있도록 보조 index 를 둠
+    ㄴ 최대 개수(maxSize)를 넘으면 가장 오래 사용하지 않은 Account 부터 제거함 (LRU)
+    ㄴ 저장한 지 ttl 이 지나면 다시 DB 에서 읽어옴
+    ㄴ cache 에 넣을 Account 는 replica 가 아닌 primary 에서 읽음 (PrimaryReads)
+       (evict 직후 복제 지연된 replica 에서 변경 전 Account 를 읽어서 ttl 동안 보관하지 않도록 함)
+  AccountService 에서 Account 를 변경할 때마다 evict() 로 무효화해야 함
+  cache 에 있는 Account 는 여러 요청(thread)이 같은 객체를 함께 사용하므로 읽기 전용으로 다뤄야 함
+    ㄴ 변경할 때는 AccountService 처럼 transaction 안에서 id 로 다시 읽은 managed Account 를 변경함
+    ㄴ commit 된 data 만 저장함 : 호출한 쪽의 transaction(persistence context)에 속한 managed Account 는 저장하지 않음
+    ㄴ DB 를 읽는 동안 evict() 가 호출되었으면 (generation 이 바뀌었으면) 읽은 Account 를 저장하지 않음
+       (evict 직전의 오래된 data 를 다시 넣지 않도록 함)
+  hit / miss / eviction 횟수와 크기는 app.account.cache.* metric 으로 내보냄
+*/
+@Component
+public class AccountCache implements MeterBinder {
+
+  private final AccountRepository accountRepository;
+  private final EntityManager entityManager;
+  private final int maxSize;
+  private final long ttlMillis;
+
+  // accessOrder = true : 가장 최근에 사용한 entry 가 맨 뒤로 감
+  private final LinkedHashMap<Long, Entry> byId = new LinkedHashMap<>(16, 0.75f, true);
+  private final Map<String, Long> idByEmail = new HashMap<>();
+  private final Map<String, Long> idByNickName = new HashMap<>();
+
+  // id -> version : Account 가 변경될 때마다(evict) 1 씩 증가함
+  //  ㄴ session 에 저장된 AccountPrincipal 이 오래된 것인지 확인할 때 사용함
+  private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+
+  // evict() 를 호출할 때마다 1 씩 증가함 (lock 안에서만 변경함)
+  private long generation;
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+
+  public AccountCache(AccountRepository accountRepository,
+                      EntityManager entityManager,
+                      @Value("${app.account.cache.max-size:10000}") int maxSize,
+                      @Value("${app.account.cache.ttl-seconds:300}") long ttlSeconds) {
+    this.accountRepository = accountRepository;
+    this.entityManager = entityManager;
+    this.maxSize = maxSize;
+    this.ttlMillis = ttlSeconds * 1000;
+  }
+
+  public Account findByEmail(String email) {
+    if (email == null) {
+      return null;
+    }
+    return find(idByEmail, email, () -> accountRepository.findByEmail(email));
+  }
+
+  public Account findByNickName(String nickName) {
+    if (nickName == null) {
+      return null;
+    }
+    return find(idByNickName, nickName, () -> accountRepository.findByNickName(nickName));
+  }
+
+  public Optional<Account> findById(Long id) {
+    long loadedGeneration;
+    synchronized (this) {
+      Account cached = getFresh(id);
+      if (cached != null) {
+        hits.incrementAndGet();
+        return Optional.of(cached);
+      }
+      loadedGeneration = generation;
+    }
+    misses.incrementAndGet();
+    Optional<Account> loaded = PrimaryReads.call(() -> accountRepository.findById(id));
+    loaded.ifPresent(account -> put(account, loadedGeneration));
+    return loaded;
+  }
+
+  // Account 가 변경되었을 때 호출함 : 해당 Account 에 대한 모든 key 를 제거함
+  //  ㄴ Transaction 안에서 호출되면 commit 직후에 한 번 더 제거함
+  //     (commit 전에 다른 요청이 변경 전 data 를 읽어서 cache 에 넣을 수 있기 때문)
+  public void evict(Account account) {
+    if (account == null) {
+      return;
+    }
+    Long id = account.getId();
+    String email = account.getEmail();
+    String nickName = account.getNickName();
+    evict(id, email, nickName);
+
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          evict(id, email, nickName);
+        }
+      });
+    }
+  }
+
+  private synchronized void evict(Long id, String email, String nickName) {
+    generation++;
+    if (id != null) {
+      remove(id);
+      versions.merge(id, 1L, Long::sum);
+    }
+    // 변경 전의 email, nickName 으로 등록된 key 도 함께 제거함
+    removeKey(idByEmail, email);
+    removeKey(idByNickName, nickName);
+  }
+
+  // Account 의 현재 version
+  public long currentVersion(Long id) {
+    return id == null ? 0L : versions.getOrDefault(id, 0L);
+  }
+
+  public synchronized void clear() {
+    byId.clear();
+    idByEmail.clear();
+    idByNickName.clear();
+  }
+
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  public long getEvictionCount() {
+    return evictions.get();
+  }
+
+  public synchronized int size() {
+    return byId.size();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("app.account.cache.requests", hits, AtomicLong::get)
+                   .tag("result", "hit")
+                   .register(registry);
+    FunctionCounter.builder("app.account.cache.requests", misses, AtomicLong::get)
+                   .tag("result", "miss")
+                   .register(registry);
+    FunctionCounter.builder("app.account.cache.evictions", evictions, AtomicLong::get)
+                   .register(registry);
+    Gauge.builder("app.account.cache.size", this, AccountCache::size)
+         .register(registry);
+  }
+
+  synchronized long generation() {
+    return generation;
+  }
+
+  private Account find(Map<String, Long> index, String key, Supplier<Account> loader) {
+    long loadedGeneration;
+    synchronized (this) {
+      Long id = index.get(key);
+      Account cached = id == null ? null : getFresh(id);
+      if (cached != null) {
+        hits.incrementAndGet();
+        return cached;
+      }
+      loadedGeneration = generation;
+    }
+    // DB 조회는 lock 밖에서 진행함
+    misses.incrementAndGet();
+    Account loaded = PrimaryReads.call(loader);
+    if (loaded != null) {
+      put(loaded, loadedGeneration);
+    }
+    return loaded;
+  }
+
+  private Account getFresh(Long id) {
+    Entry entry = byId.get(id);
+    if (entry == null) {
+      return null;
+    }
+    if (entry.isExpired(System.currentTimeMillis())) {
+      remove(id);
+      evictions.incrementAndGet();
+      return null;
+    }
+    return entry.account;
+  }
+
+  // loadedGeneration : DB 를 읽기 전의 generation
+  synchronized void put(Account account, long loadedGeneration) {
+    if (account.getId() == null || loadedGeneration != generation) {
+      return;
+    }
+    if (entityManager.contains(account)) {
+      // 호출한 쪽의 transaction 에서 읽은 Account : 그 transaction 이 변경할 수 있고 commit 전이므로 저장하지 않음
+      if (TransactionSynchronizationManager.isActualTransactionActive()) {
+        return;
+      }
+      // open-in-view 의 EntityManager 에 남아 있는 Account : 같은 요청의 쓰기 transaction 이
+      // 이 객체를 다시 꺼내서 변경하지 않도록 분리(detach)한 후 저장함
+      entityManager.detach(account);
+    }
+    // 이전에 저장된 entry 의 email, nickName 은 바뀌었을 수 있으므로 먼저 제거함
+    remove(account.getId());
+    byId.put(account.getId(), new Entry(account, System.currentTimeMillis() + ttlMillis));
+    idByEmail.put(account.getEmail(), account.getId());
+    idByNickName.put(account.getNickName(), account.getId());
+
+    // 최대 개수를 넘으면 가장 오래 사용하지 않은 entry 부터 제거함
+    Iterator<Map.Entry<Long, Entry>> eldest = byId.entrySet().iterator();
+    while (byId.size() > maxSize && eldest.hasNext()) {
+      Entry removed = eldest.next().getValue();
+      eldest.remove();
+      removeIndex(removed.account);
+      evictions.incrementAndGet();
+    }
+  }
+
+  private void remove(Long id) {
+    Entry removed = byId.remove(id);
+    if (removed != null) {
+      removeIndex(removed.account);
+    }
+  }
+
+  private void removeIndex(Account account) {
+    idByEmail.remove(account.getEmail(), account.getId());
+    idByNickName.remove(account.getNickName(), account.getId());
+  }
+
+  private void removeKey(Map<String, Long> index, String key) {
+    if (key == null) {
+      return;
+    }
+    Long id = index.remove(key);
+    if (id != null) {
+      Entry removed = byId.remove(id);
+      if (removed != null) {
+        removeIndex(removed.account);
+      }
+    }
+  }
+
+  private static final class Entry {
+    private final Account account;
+    private final long expiresAt;
+
+    private Entry(Account account, long expiresAt) {
+      this.account = account;
+      this.expiresAt = expiresAt;
+    }
+
+    private boolean isExpired(long now) {
+      return now >= expiresAt;
+    }
+  }
+}
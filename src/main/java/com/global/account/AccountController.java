@@ -1,8 +1,10 @@
 package com.global.account;
 
 import com.global.domain.Account;
+import com.global.domain.EmailToken;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Controller;
@@ -13,10 +15,16 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.InitBinder;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @Controller
 @RequiredArgsConstructor
@@ -24,7 +32,17 @@ public class AccountController {
 
   private final SignUpFormValidator signUpFormValidator;
   private final AccountService accountService;
-  private final AccountRepository accountRepository;
+  // email, nickName 으로 Account 를 조회할 때는 cache 를 먼저 확인함
+  private final AccountCache accountCache;
+  // email, nickName 중복 확인용 (Bloom filter 로 먼저 확인함)
+  private final AccountNameFilter accountNameFilter;
+
+  // 가입자 수
+  private final AccountCounter accountCounter;
+  // 이메일 인증 / 이메일 로그인 token 확인
+  private final EmailTokenService emailTokenService;
+  // 다른 사람이 보는 프로필 HTML cache
+  private final ProfileFragmentCache profileFragmentCache;
 
 
   @InitBinder("signUpForm")
@@ -81,30 +99,36 @@ public class AccountController {
     return "redirect:/";
   }
 
+  // 회원가입 페이지에서 nickName, email 을 입력할 때마다 호출되는 메소드
+  //  ㄴ /check-availability?email=a@b.com&nickName=global
+  //  ㄴ 입력한 값만 확인해서 {"email": true, "nickName": false} 처럼 사용 가능 여부를 JSON 으로 반환함
+  //  ㄴ Bloom filter 에 없는 값은 DB 를 조회하지 않음, 있으면 existsBy... query 로 확인함 (Account 를 읽지 않음)
+  //  ㄴ 로그인하지 않아도 호출할 수 있으므로 RateLimitFilter 에서 IP 별로 횟수를 제한함 (check-availability route)
+  @GetMapping("/check-availability")
+  @ResponseBody
+  public Map<String, Boolean> checkAvailability(@RequestParam(required = false) String email,
+                                                @RequestParam(required = false) String nickName){
+    Map<String, Boolean> result = new LinkedHashMap<>();
+    if(email != null && !email.isBlank()){
+      result.put("email", !accountNameFilter.isEmailTaken(email));
+    }
+    if(nickName != null && !nickName.isBlank()){
+      result.put("nickName", !accountNameFilter.isNickNameTaken(nickName));
+    }
+    return result;
+  }
+
   // String token  <-- 가입하면서 받아온 token
   // 인증 메일 처리하는 부분
   @GetMapping("/check-email-token")
   public String checkEmailToken(String token, String email, Model model){
-    // 가입자가 입력한 이메일이 정상적으로 등록되었는지 확인하기
-    Account account = accountRepository.findByEmail(email);
-
     // 이동할 page
     String view = "account/check-email";
 
-    // 가입자가 입력한 이메일이 정상적으로 등록 안 된 경우
-    if (account == null){
-      model.addAttribute("error", "wrong email");
-      return view;
-    }
-
-    if (!account.isValidToken(token)){
-      model.addAttribute("error", "wrong email");
-      return view;
-    }
-
-    // 가입자가 입력한 이메일이 정상적으로 등록된 경우
     // token 확인하기
-    if (!account.getEmailCheckToken().equals(token)){
+    //  ㄴ token hash 로 한 번 조회하고, 만료 / email 을 확인한 후 삭제함 (한 번만 사용할 수 있음)
+    Account account = emailTokenService.verify(token, email, EmailToken.Purpose.SIGN_UP).orElse(null);
+    if (account == null){
       model.addAttribute("error", "wrong email");
       return view;
     }
@@ -133,8 +157,9 @@ public class AccountController {
     // 가입한 시간 등록
     account.setJoinedAt(LocalDateTime.now());
     */
-    // 몇 번째(accountRepository.count()) 가입자인지... 처리하기
-    model.addAttribute("numberOfUser", accountRepository.count());
+    // 몇 번째 가입자인지... 처리하기
+    //  ㄴ table 전체를 count 하지 않고 AccountCounter 가 유지하는 값을 사용함
+    model.addAttribute("numberOfUser", accountCounter.getCount(AccountCounter.Mode.APPROXIMATE));
     // nickname
     model.addAttribute("nickName", account.getNickName());
 
@@ -153,7 +178,7 @@ public class AccountController {
   @GetMapping("/resend-confirm-email")
   public String resendConfirmEmail(@CurrentUser Account account, Model model){
     // 인증 메일을 1 시간 이내에 전송한 이력이 있다면 좀 기다렸다가 1 시간 지난 후 전송해야 함
-    if(!account.canSendConfirmEmail()){
+    if(!emailTokenService.canIssue(account, EmailToken.Purpose.SIGN_UP)){
       model.addAttribute("error", "인증 이메일은 1 시간에 한 번만 전송 가능합니다.");
       model.addAttribute("email", account.getEmail());
       // 에러 메세지를 보여주고 같은 페이지를 다시 보여줌
@@ -164,24 +189,50 @@ public class AccountController {
      return "redirect:/";
   }
 
+  // 다른 사람의 프로필 : ProfileFragmentCache 에 만들어 둔 HTML 을 사용하고
+  //                      ETag / Last-Modified 가 같으면 Account 를 읽지 않고 304 (Not Modified) 를 응답함
+  // 본인의 프로필      : 이메일, 프로필 수정 버튼 등을 보여주므로 매번 만듦
   @GetMapping("/profile/{nickName}")
-  public String viewProfile(@PathVariable String nickName,
-                            @CurrentUser Account account, Model model){
+  public String viewProfile(@PathVariable String nickName, Model model,
+                            WebRequest webRequest, HttpServletResponse response){
+    AccountPrincipal viewer = CurrentUserArgumentResolver.currentPrincipal();
+
+    ProfileFragmentCache.Entry entry = profileFragmentCache.find(nickName);
+    Account byNickName = null;
+    if (entry == null) {
+      byNickName = accountCache.findByNickName(nickName);
+      // nickName 에 해당하는 회원이 없는 경우
+      if (byNickName == null){
+        throw new IllegalArgumentException(nickName + " 에 해당하는 회원이 없습니다");
+      }
+    }
+    Long profileId = entry != null ? entry.getAccountId() : byNickName.getId();
+
+    if (viewer != null && viewer.getId().equals(profileId)) {
+      // model.addAttribute( ) 에 attributeValue(값) 만 지정하면,
+      // attributeName(변수) 이름은 byNickName 에 들어가는 객체 type 의 camel case 로 사용함
+      //                                                      ㄴ Account  <-- account
+      model.addAttribute(byNickName != null ? byNickName : accountCache.findById(profileId).orElseThrow());
+      model.addAttribute("isCurrentUser", true);
+      response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-store");
+      return "account/profile";
+    }
 
-    Account byNickName = accountRepository.findByNickName(nickName);
-    // nickName 이 들어오지 않은 경우
-    if (nickName == null){
-      throw  new IllegalArgumentException(nickName + " 에 해당하는 회원이 없습니다");
+    if (entry == null) {
+      entry = profileFragmentCache.render(byNickName);
+    }
+    // 화면 위쪽의 navigation bar 가 로그인한 사용자마다 다르므로 private 으로 지정하고 매번 확인(no-cache)하도록 함
+    response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+    if (webRequest.checkNotModified(profileFragmentCache.etag(entry, viewer), entry.getRenderedAt())) {
+      return null;
     }
-    // nickName 이 들어온 경우 <-- byNickName 을 메모리에 올려서
-    //                              return 에서 지정한 html 페이지에서 사용할 수 있도록 함
-    // model.addAttribute( ) 에 attributeValue(값) 만 지정하면,
-    // attributeName(변수) 이름은 byNickName 에 들어가는 객체 type 의 camel case 로 사용함
-    //                                                      ㄴ Account  <-- account
-    model.addAttribute(byNickName);
-    // model.addAttribute("account", byNickName);
-    model.addAttribute("isCurrentUser", byNickName.equals(account));
 
+    model.addAttribute("profileBody", entry.getHtml());
+    model.addAttribute("isCurrentUser", false);
+    // navigation bar 에서 로그인한 사용자의 프로필 이미지를 보여줌
+    if (viewer != null) {
+      accountCache.findById(viewer.getId()).ifPresent(model::addAttribute);
+    }
     return "account/profile";
   }
 
@@ -193,7 +244,7 @@ public class AccountController {
   @PostMapping("/email-login")
   public String sendEmailLoginLink(String email, Model model,
                                    RedirectAttributes redirectAttributes){
-    Account account = accountRepository.findByEmail(email);
+    Account account = accountCache.findByEmail(email);
 
     // 해당 이메일로 가입한 user 가 있는지 확인함
     if(account == null){
@@ -202,7 +253,7 @@ public class AccountController {
     }
     // 이메일 로그인한지가 한 시간이 지났는지 안 지났는지 확인함
     // 악의적인 사용자가 이메일 로그인을 지속적으로 해서 시스템을 다운시키는 것을 방지하기 위함
-    if(!account.canSendConfirmEmail()){
+    if(!emailTokenService.canIssue(account, EmailToken.Purpose.LOGIN)){
       model.addAttribute("error", "이메일 로그인은 한 시간에 한 번만 가능합니다.");
       // return "account/email-login";
     }
@@ -218,9 +269,9 @@ public class AccountController {
   // token 과 email 모두 유효한 경우에는 로그인함
   @GetMapping("/login-by-email")
   public String loginByEmail(String token, String email, Model model){
-    Account account = accountRepository.findByEmail(email);
+    Account account = emailTokenService.verify(token, email, EmailToken.Purpose.LOGIN).orElse(null);
     String view = "account/logged-in-by-email";
-    if(account == null || !account.isValidToken(token) ){
+    if(account == null){
       model.addAttribute("error", "로그인할 수 없습니다.");
       return "account/logged-in-by-email";
     }
@@ -0,0 +1,98 @@
+package com.global.account;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+  가입자 수를 메모리에 유지하는 counter
+    ㄴ 매번 accountRepository.count() (table 전체 count) 를 실행하지 않음
+    ㄴ processNewAccount() 에서 가입이 commit 된 후에 1 씩 증가시킴
+    ㄴ application 이 시작될 때, 그리고 주기적으로 DB 의 count 로 다시 맞춤 (reconcile)
+  getCount(Mode.APPROXIMATE) : 메모리의 값 (O(1)) - 마지막 reconcile 이후 다른 서버에서 가입한 수는 빠질 수 있음
+  getCount(Mode.EXACT)       : DB 를 조회해서 정확한 값을 구하고 counter 도 그 값으로 맞춤
+*/
+@Slf4j
+@Component
+public class AccountCounter {
+
+  public enum Mode {
+    APPROXIMATE, EXACT
+  }
+
+  private final AccountRepository accountRepository;
+
+  private final AtomicLong count = new AtomicLong();
+  // reconcile 중에 증가한 수를 구하기 위해 지금까지 증가시킨 횟수를 따로 셈
+  private final AtomicLong increments = new AtomicLong();
+  private volatile boolean reconciled;
+  private volatile LocalDateTime lastReconciledAt;
+
+  public AccountCounter(AccountRepository accountRepository) {
+    this.accountRepository = accountRepository;
+  }
+
+  // AccountService 의 processNewAccount() 에서 호출함
+  //  ㄴ Transaction 안이면 commit 된 후에 증가시킴 (rollback 되면 증가시키지 않음)
+  public void increment() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          doIncrement();
+        }
+      });
+    } else {
+      doIncrement();
+    }
+  }
+
+  public long getCount(Mode mode) {
+    // 아직 한 번도 DB 와 맞추지 않았으면 정확한 값을 구함
+    if (mode == Mode.EXACT || !reconciled) {
+      return reconcile();
+    }
+    return count.get();
+  }
+
+  public LocalDateTime getLastReconciledAt() {
+    return lastReconciledAt;
+  }
+
+  @Async
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    reconcile();
+  }
+
+  // 기본값 : 10 분마다 DB 의 count 로 맞춤
+  //  ㄴ count 를 실행하는 동안 증가한 수는 DB 값에 포함되었을 수도 있으므로 결과는 근사값임
+  @Scheduled(initialDelayString = "${app.account.counter.reconcile-interval-ms:600000}",
+             fixedDelayString = "${app.account.counter.reconcile-interval-ms:600000}")
+  public long reconcile() {
+    long before = increments.get();
+    long counted = accountRepository.count();
+    long during = increments.get() - before;
+    long reconciledCount = counted + during;
+    long previous = count.getAndSet(reconciledCount);
+    if (reconciled && previous != reconciledCount) {
+      log.debug("가입자 수를 {} -> {} 로 맞췄습니다", previous, reconciledCount);
+    }
+    this.reconciled = true;
+    this.lastReconciledAt = LocalDateTime.now();
+    return reconciledCount;
+  }
+
+  private void doIncrement() {
+    increments.incrementAndGet();
+    count.incrementAndGet();
+  }
+}
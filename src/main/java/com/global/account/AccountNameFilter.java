@@ -0,0 +1,167 @@
+package com.global.account;
+
+import com.global.config.PrimaryReads;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/*
+  email, nickName 중복 검사를 할 때 DB 를 조회하기 전에 먼저 확인하는 Bloom filter
+    ㄴ filter 에 없으면 "확실히 사용하지 않는" email, nickName 이므로 DB 를 조회하지 않음
+    ㄴ filter 에 있으면 (실제로 있거나 false positive) existsBy... query 로 확인함
+       ㄴ Account 를 읽어 오지 않으므로 AccountCache 에 넣지 않음
+          (가입 화면의 /check-availability 로 아무 값이나 조회해서 cache 를 채울 수 없도록 함)
+  application 이 시작된 후 전체 email, nickName 으로 filter 를 만들고
+  주기적으로 새로 만듦 (nickName 변경, 계정 삭제로 남은 값을 정리하기 위함)
+    ㄴ 직전에 가입한 email, nickName 이 빠지지 않도록 primary 에서 읽음 (PrimaryReads)
+  새로 가입하거나 nickName 을 변경하면 AccountService 에서 add...() 를 호출해서 바로 반영함
+*/
+@Slf4j
+@Component
+public class AccountNameFilter {
+
+  private final AccountRepository accountRepository;
+  private final TransactionTemplate readOnlyTransaction;
+  private final double falsePositiveRate;
+
+  private volatile Filters filters;
+
+  // filter 를 새로 만드는 동안 추가된 값 <-- 새 filter 로 교체한 후에 다시 추가함
+  private volatile Queue<String[]> pendingDuringRebuild;
+
+  // rebuild() 를 동시에 실행하지 않도록 함
+  private final ReentrantLock rebuildLock = new ReentrantLock();
+
+  public AccountNameFilter(AccountRepository accountRepository,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${app.account.name-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+    this.accountRepository = accountRepository;
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+    this.falsePositiveRate = falsePositiveRate;
+  }
+
+  // 이미 사용 중인 email 인지 확인함
+  public boolean isEmailTaken(String email) {
+    if (email == null) {
+      return false;
+    }
+    Filters current = filters;
+    if (current != null && !current.emails.mightContain(email)) {
+      return false;
+    }
+    return accountRepository.existsByEmail(email);
+  }
+
+  // 이미 사용 중인 nickName 인지 확인함
+  public boolean isNickNameTaken(String nickName) {
+    if (nickName == null) {
+      return false;
+    }
+    Filters current = filters;
+    if (current != null && !current.nickNames.mightContain(nickName)) {
+      return false;
+    }
+    return accountRepository.existsByNickName(nickName);
+  }
+
+  // AccountService 의 processNewAccount() 에서 호출함
+  public void addEmail(String email) {
+    add(email, null);
+  }
+
+  // AccountService 의 processNewAccount(), updateNickName() 에서 호출함
+  public void addNickName(String nickName) {
+    add(null, nickName);
+  }
+
+  private void add(String email, String nickName) {
+    Queue<String[]> pending = pendingDuringRebuild;
+    if (pending != null) {
+      pending.add(new String[]{email, nickName});
+    }
+    Filters current = filters;
+    if (current != null) {
+      current.add(email, nickName);
+    }
+  }
+
+  @Async
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    rebuild();
+  }
+
+  // 기본값 : 1 시간마다 새로 만듦
+  @Scheduled(initialDelayString = "${app.account.name-filter.rebuild-interval-ms:3600000}",
+             fixedDelayString = "${app.account.name-filter.rebuild-interval-ms:3600000}")
+  public void rebuild() {
+    rebuildLock.lock();
+    try {
+      doRebuild();
+    } finally {
+      rebuildLock.unlock();
+    }
+  }
+
+  private void doRebuild() {
+    long started = System.currentTimeMillis();
+    Queue<String[]> pending = new ConcurrentLinkedQueue<>();
+    this.pendingDuringRebuild = pending;
+    try {
+      Filters rebuilt = PrimaryReads.call(() -> readOnlyTransaction.execute(status -> {
+        long count = accountRepository.count();
+        // 가입자가 늘어나도 false positive 확률이 유지되도록 여유 있게 만듦
+        Filters created = new Filters(Math.max(count * 2, 10_000), falsePositiveRate);
+        try (Stream<String> emails = accountRepository.streamAllEmails()) {
+          emails.forEach(email -> created.add(email, null));
+        }
+        try (Stream<String> nickNames = accountRepository.streamAllNickNames()) {
+          nickNames.forEach(nickName -> created.add(null, nickName));
+        }
+        return created;
+      }));
+      this.filters = rebuilt;
+      // filter 를 만드는 동안 가입한 회원 정보를 새 filter 에 반영함
+      pending.forEach(values -> rebuilt.add(values[0], values[1]));
+      log.info("email, nickName Bloom filter 를 {} ms 동안 새로 만들었습니다", System.currentTimeMillis() - started);
+    } finally {
+      this.pendingDuringRebuild = null;
+    }
+    // 교체하기 직전에 추가된 값이 pending 에만 들어갔을 수 있으므로 한 번 더 반영함
+    Filters current = filters;
+    if (current != null) {
+      pending.forEach(values -> current.add(values[0], values[1]));
+    }
+  }
+
+  private static final class Filters {
+    private final BloomFilter emails;
+    private final BloomFilter nickNames;
+
+    private Filters(long expectedInsertions, double falsePositiveRate) {
+      this.emails = new BloomFilter(expectedInsertions, falsePositiveRate);
+      this.nickNames = new BloomFilter(expectedInsertions, falsePositiveRate);
+    }
+
+    private void add(String email, String nickName) {
+      if (email != null) {
+        emails.add(email);
+      }
+      if (nickName != null) {
+        nickNames.add(nickName);
+      }
+    }
+  }
+}
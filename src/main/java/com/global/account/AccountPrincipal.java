@@ -0,0 +1,28 @@
+package com.global.account;
+
+import com.global.domain.Account;
+import lombok.Value;
+
+import java.io.Serializable;
+
+/*
+  session 에 저장하는 로그인 사용자 정보 (변경할 수 없는 객체)
+    ㄴ Account Entity 전체(프로필 이미지, lazy collection 등)를 session 에 넣지 않고
+       id, nickName, 이메일 인증 여부, version 만 저장함
+    ㄴ Account 전체가 필요하면 CurrentUserArgumentResolver 가 id 로 AccountCache 에서 읽어옴
+    ㄴ version 이 AccountCache 의 version 과 다르면 (프로필, 닉네임 변경 등) 새로 만들어서 교체함
+*/
+@Value
+public class AccountPrincipal implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  Long id;
+  String nickName;
+  boolean emailVerified;
+  long version;
+
+  public static AccountPrincipal of(Account account, long version) {
+    return new AccountPrincipal(account.getId(), account.getNickName(), account.isEmailVerified(), version);
+  }
+}
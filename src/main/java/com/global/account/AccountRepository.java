@@ -1,9 +1,19 @@
 package com.global.account;
 
 import com.global.domain.Account;
+import com.global.domain.Zone;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 @Transactional(readOnly=true)
 public interface AccountRepository extends JpaRepository<Account, Long> {
   boolean existsByEmail(String email);
@@ -12,4 +22,59 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
   Account findByEmail(String email);
   Account findByNickName(String nickName);
 
+  // AccountNameFilter 에서 Bloom filter 를 만들 때 사용함
+  //  ㄴ Account 전체가 아니라 email, nickName 만 조금씩 읽어옴 (Transaction 안에서 호출해야 함)
+  @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+  @Query("select a.email from Account a")
+  Stream<String> streamAllEmails();
+
+  @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+  @Query("select a.nickName from Account a")
+  Stream<String> streamAllNickNames();
+
+  // Account 를 읽지 않고 관심 주제 title 만 한 번의 query 로 가져옴
+  @Query("select t.title from Account a join a.tags t where a.id = :accountId")
+  List<String> findTagTitlesByAccountId(@Param("accountId") Long accountId);
+
+  // Account 를 읽지 않고 활동 지역만 한 번의 query 로 가져옴 (persistence context 에 올리지 않음)
+  @Query("select new com.global.domain.Zone(z.id, z.city, z.localNameOfCity, z.province) "
+       + "from Account a join a.zones z where a.id = :accountId")
+  List<Zone> findZonesByAccountId(@Param("accountId") Long accountId);
+
+  /*
+    아래의 메소드들은 Account 의 tags, zones collection 을 읽지 않고
+    join table (account_tags, account_zones) 에 바로 INSERT / DELETE 함
+      ㄴ 이미 있는 경우에는 INSERT 하지 않음 (not exists)
+      ㄴ 메모리에 있는 Account 객체의 collection 에는 반영되지 않으므로
+         호출한 후에는 AccountCache 에서 evict 해야 함
+  */
+  @Transactional
+  @Modifying
+  @Query(value = "insert into account_tags (account_id, tags_id) "
+               + "select :accountId, t.id from tag t where t.id in (:tagIds) "
+               + "and not exists (select 1 from account_tags at "
+               + "                where at.account_id = :accountId and at.tags_id = t.id)",
+         nativeQuery = true)
+  int addTags(@Param("accountId") Long accountId, @Param("tagIds") Collection<Long> tagIds);
+
+  @Transactional
+  @Modifying
+  @Query(value = "delete from account_tags where account_id = :accountId and tags_id in (:tagIds)",
+         nativeQuery = true)
+  int removeTags(@Param("accountId") Long accountId, @Param("tagIds") Collection<Long> tagIds);
+
+  @Transactional
+  @Modifying
+  @Query(value = "insert into account_zones (account_id, zones_id) "
+               + "select :accountId, :zoneId where not exists "
+               + "(select 1 from account_zones where account_id = :accountId and zones_id = :zoneId)",
+         nativeQuery = true)
+  int addZone(@Param("accountId") Long accountId, @Param("zoneId") Long zoneId);
+
+  @Transactional
+  @Modifying
+  @Query(value = "delete from account_zones where account_id = :accountId and zones_id = :zoneId",
+         nativeQuery = true)
+  int removeZone(@Param("accountId") Long accountId, @Param("zoneId") Long zoneId);
+
 }
@@ -1,30 +1,38 @@
 package com.global.account;
 
+import com.global.admin.AdminAccounts;
 import com.global.domain.Account;
+import com.global.domain.EmailToken;
 import com.global.domain.Tag;
 import com.global.domain.Zone;
+import com.global.image.ProfileImageService;
+import com.global.mail.MailOutboxService;
+import com.global.notification.NotificationRecipientService;
+import com.global.settings.SettingsFormMapper;
 import com.global.settings.form.Notifications;
 import com.global.settings.form.Profile;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.validation.Valid;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.OptionalDouble;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 // AccountService 클래스는 @Service 에 의해서
 // Bean 으로 등록되어 있음 (Bean : Spring 이 자동으로 생성하고 관리하는 객체)
@@ -37,19 +45,35 @@ import java.util.Set;
 @Service
 @Transactional
 @RequiredArgsConstructor
-public class AccountService implements UserDetailsService {
+public class AccountService implements UserDetailsService, UserDetailsPasswordService {
   private final AccountRepository accountRepository;
-  private final JavaMailSender javaMailSender;
+  // email, nickName, id 로 조회한 Account 를 보관하는 cache
+  //  ㄴ Account 를 변경하는 메소드에서는 반드시 accountCache.evict() 를 호출해야 함
+  private final AccountCache accountCache;
+  // 가입 / nickName 변경 시 email, nickName 중복 검사용 Bloom filter 에 반영함
+  private final AccountNameFilter accountNameFilter;
+  // 메일은 바로 보내지 않고 outbox table 에 저장함
+  //  ㄴ 현재 Transaction 이 commit 되면 MailDispatcher 가 background 에서 전송함
+  private final MailOutboxService mailOutboxService;
   private final PasswordEncoder passwordEncoder;
   // private final AuthenticationManager authenticationManager;
 
-  private final ModelMapper modelMapper;
+  private final SettingsFormMapper settingsFormMapper;
+  // 프로필 이미지는 BlobStore 에 저장하고 Account 에는 hash 만 저장함
+  private final ProfileImageService profileImageService;
+  // 가입자 수 (checkEmailToken() 결과 화면, /admin/stats 에서 사용함)
+  private final AccountCounter accountCounter;
+  // 이메일 인증 / 이메일 로그인 token (Account table 에 저장하지 않음)
+  private final EmailTokenService emailTokenService;
+  // 관심 주제 / 활동 지역 / 알림 설정이 바뀌면 알림 대상 index 에 반영함
+  private final NotificationRecipientService notificationRecipientService;
+  // 로그인한 Account 의 권한 (app.admin.emails 의 Account 는 ROLE_ADMIN 도 가짐)
+  private final AdminAccounts adminAccounts;
 
   
   public Account processNewAccount(SignUpForm signUpForm) {
     Account newAccount = saveNewAccount(signUpForm);
-    // 이메일 보내기 전에 토큰값 생성하기
-    newAccount.generateEmailCheckToken();
+    // 토큰값은 sendSignUpConfirmEmail() 에서 EmailTokenService 로 생성함
     sendSignUpConfirmEmail(newAccount);
     return newAccount;
   }
@@ -59,16 +83,22 @@ public class AccountService implements UserDetailsService {
       .email(signUpForm.getEmail())
       .nickName(signUpForm.getNickName())
       .password(passwordEncoder.encode(signUpForm.getPassword()))
-      .studyCreatedByWeb(true)
-      .studyEnrollmentResultByWeb(true)
-      .studyUpdatedByWeb(true)
       .build();
 
     Account newAccount = accountRepository.save(account);
+    // 같은 email, nickName 으로 cache 에 남아 있는 data 가 있으면 제거함
+    accountCache.evict(newAccount);
+    accountCounter.increment();
+    // 알림 설정은 notification_preference 에만 저장함 (기본값 : web 알림만 받음)
+    notificationRecipientService.saveDefaultPreferences(newAccount.getId());
+    accountNameFilter.addEmail(newAccount.getEmail());
+    accountNameFilter.addNickName(newAccount.getNickName());
     return newAccount;
   }
 
   public void sendSignUpConfirmEmail(Account newAccount) {
+    // 이메일 보내기 전에 토큰값 생성하기 (DB 에는 hash 만 저장됨)
+    String token = emailTokenService.issue(newAccount, EmailToken.Purpose.SIGN_UP);
     SimpleMailMessage simpleMailMessage = new SimpleMailMessage();
     // 토큰값에 해당하는 이메일 주소 받기
     simpleMailMessage.setTo(newAccount.getEmail());
@@ -76,18 +106,21 @@ public class AccountService implements UserDetailsService {
     simpleMailMessage.setSubject("회원 가입 인증");
     // 이메일 본문
     // simpleMailMessage.setText("/check-email-token?token=이메일보내기전에생성한토큰값&email=토큰값에해당하는이메일주소");
-    simpleMailMessage.setText("/check-email-token?token=" + newAccount.getEmailCheckToken()
+    simpleMailMessage.setText("/check-email-token?token=" + token
       + "&email=" + newAccount.getEmail());
-    javaMailSender.send(simpleMailMessage);
+    mailOutboxService.enqueue(simpleMailMessage);
   }
 
   // password 를 encoding 하기 때문에 아래의 방법으로 로그인함
   public void login(Account account) {
+    List<GrantedAuthority> authorities = adminAccounts.authorities(account);
     UsernamePasswordAuthenticationToken token = new UsernamePasswordAuthenticationToken(
                                                         // account.getNickName(),
-                                                        new UserAccount(account),
-                                                        account.getPassword(),
-                                                        List.of(new SimpleGrantedAuthority("ROLE_USER"))
+                                                        new UserAccount(AccountPrincipal.of(account, accountCache.currentVersion(account.getId())), authorities),
+                                                        // 비밀번호(hash)는 session 에 저장하지 않음
+                                                        null,
+                                                        // List.of(new SimpleGrantedAuthority("ROLE_USER"))
+                                                        authorities
                                                       );
     // Spring 에서 제공하는 SecurityContextHolder 에서
     // context 를 받아와서 인증하기
@@ -95,16 +128,19 @@ public class AccountService implements UserDetailsService {
     context.setAuthentication(token);
   }
 
-  // readOnly = true : data 를 변경하는 것이 아니고, 로그인 할 때 확인만 함
-  @Transactional(readOnly = true)
+  // data 를 변경하는 것이 아니고, 로그인 할 때 확인만 함
+  //  ㄴ NOT_SUPPORTED : AccountCache 가 조회 결과를 cache 에 넣을 수 있도록 transaction 밖에서 조회함
+  //     (AccountRepository 의 조회는 각각 readOnly transaction 으로 실행됨)
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
   @Override
   public UserDetails loadUserByUsername(String emailOrNickName) throws UsernameNotFoundException {
     // findByEmail() 로 email 로 로그인하는지 알아보기
-    Account account = accountRepository.findByEmail(emailOrNickName);
+    //  ㄴ accountCache 에 있으면 DB 를 조회하지 않음
+    Account account = accountCache.findByEmail(emailOrNickName);
     // email 로 로그인하는 것이 아니라면
     // findByNickName() 로 nickName 으로 로그인하는지 알아보기
     if(account == null){
-      account = accountRepository.findByNickName(emailOrNickName);
+      account = accountCache.findByNickName(emailOrNickName);
     }
 
     // nickName 으로도 로그인하는 것이 아니라면
@@ -118,20 +154,31 @@ public class AccountService implements UserDetailsService {
     // ㄴ Principal 에 해당하는 객체를 넘김
     //      ㄴ Spring Security 가 제공하는 User 를 상속하는 UserAccount 객체
     //                              com.global.account 패키지에 만들어 놓았음
-    return new UserAccount(account);
+    //  ㄴ session 에는 Account 전체가 아니라 AccountPrincipal 만 저장됨
+    return new UserAccount(account, accountCache.currentVersion(account.getId()), adminAccounts.authorities(account));
   }
 
   //   - Entity 객체 변경은 반드시 Transaction 안에서 해야 함
   //     ㄴ Transaction 종료 직전이나 필요한 시점에 변경 사항을 DB 에 반영할 수 있기 때문
   // 데이터를 변경하는 작업을 하므로 @Transactional(readOnly = true) 로 설정하지 않음
   public void completeSignUp(Account account) {
-    account.completeSignUp();
-    login(account);
+    Account managed = managed(account);
+    managed.completeSignUp();
+    accountCache.evict(managed);
+    login(managed);
   }
 
   public void updateProfile(Account account, Profile profile) {
-    // ModelMapper 사용하기
-    modelMapper.map(profile, account);
+    // 프로필 이미지는 SettingsController 에서 ProfileImageService.store() 로 미리 저장하고 hash 만 넘겨받음
+    //  ㄴ Account row, 보안 principal, session 에 큰 문자열이 들어가지 않도록 함
+    //  ㄴ 이미지 처리는 Transaction 밖에서 하므로 여기서는 hash 인지만 확인함
+    if (profile.getProfileImage() != null && !profileImageService.isHash(profile.getProfileImage())) {
+      throw new IllegalArgumentException("프로필 이미지는 ProfileImageService.store() 로 먼저 저장해야 합니다");
+    }
+
+    // SettingsFormMapper 사용하기 (reflection 없이 getter / setter 로 복사함)
+    Account managed = managed(account);
+    settingsFormMapper.applyProfile(profile, managed);
 
 
     // account 의 정보를 변경함
@@ -139,7 +186,7 @@ public class AccountService implements UserDetailsService {
     // profile 객체 <-- 변경한 내용(bio, url, occupation, location) 정보를 저장한 객체
     // 변경한 내용을 저장한 profile 객체에서 bio, url, occupation, location 을 갖고 와서
     // 현재 로그인한 회원의 정보를 저장하고 있는 account 객체의 bio, url, occupation, location 에 할당함
-    // modelMapper.map(profile, account); 에 의해서 아래의 code 를 생략함
+    // settingsFormMapper.applyProfile(profile, account); 에 의해서 아래의 code 를 생략함
     // account.setBio(profile.getBio());
     // account.setUrl(profile.getUrl());
     // account.setOccupation(profile.getOccupation());
@@ -148,28 +195,43 @@ public class AccountService implements UserDetailsService {
     // 프로필 사진 업데이트 처리 : 이미지를 가져와서 넣어줌
     // account.setProfileImage(profile.getProfileImage());
 
-    // account 객체의 멤버변수 값이 변경된 것을 DB 에도 반영함
-    accountRepository.save(account);
+    // managed 객체의 변경 사항은 commit 할 때 DB 에 반영됨 (dirty checking)
+    accountCache.evict(managed);
   }
 
   // SettingsController 의 public String updatePassword() 메소드에서 호출함
   public void updatePassword(Account account, String newPassword) {
     // account 의 비밀번호를 새로운 비밀번호로 변경함
     // SettingsController 의 public String updatePassword() 메소드에서 전달받은
-    // account 객체는 Detached 상태이지 Persistence 상태가 아님
-    // 변경이력이 취합되지 않아서, code 로 명시적으로 merge 해 주어야 함
+    // account 객체는 Detached 상태이지 Persistence 상태가 아님 (AccountCache 가 함께 쓰는 객체일 수 있음)
+    //  ㄴ 현재 transaction 에서 다시 읽은 managed 객체를 변경함
     // account.setPassword(newPassword); <-- encoding 되지 않은 상태로 저장됨
     // encoding 해서 저장하기
-    account.setPassword(passwordEncoder.encode(newPassword));
-    // 명시적으로 merge 해 주어야 함
-    accountRepository.save(account);
+    Account managed = managed(account);
+    managed.setPassword(passwordEncoder.encode(newPassword));
+    accountCache.evict(managed);
+
+  }
 
+  // 로그인에 성공했는데 저장된 hash 의 cost 가 현재 설정(app.security.bcrypt-strength)보다 낮으면
+  // Spring Security(DaoAuthenticationProvider)가 새 cost 로 encode 한 비밀번호를 넘겨주면서 호출함
+  //  ㄴ newEncodedPassword 는 이미 encoding 된 값이므로 다시 encode 하지 않음
+  @Override
+  public UserDetails updatePassword(UserDetails user, String newEncodedPassword) {
+    Account account = accountRepository.findByNickName(user.getUsername());
+    if(account == null){
+      return user;
+    }
+    account.setPassword(newEncodedPassword);
+    accountRepository.save(account);
+    accountCache.evict(account);
+    return new UserAccount(account, accountCache.currentVersion(account.getId()), adminAccounts.authorities(account));
   }
 
   public void updateNotifications(Account account, Notifications notifications) {
-    modelMapper.map(notifications, account);
-    // modelMapper.map(notifications, account); 에 의해서 아래의 code 를 생략함
-    //   notifications 에 있는 정보를 account 에 할당함
+    // 알림 설정은 account table 의 column 이 아니라 notification_preference 의 bit mask 에만 저장함
+    //   ㄴ settings 화면과 알림 대상 조회가 모두 bit mask 를 읽으므로 두 곳의 값이 달라지지 않음
+    //   ㄴ 그래서 account 에 할당하던 아래의 code 를 사용하지 않음
     /*
     account.setStudyCreatedByEmail(notifications.isStudyCreatedByEmail());
     account.setStudyCreatedByWeb(notifications.isStudyCreatedByWeb());
@@ -178,77 +240,107 @@ public class AccountService implements UserDetailsService {
     account.setStudyEnrollmentResultByEmail(notifications.isStudyEnrollmentResultByEmail());
     account.setStudyEnrollmentResultByWeb(notifications.isStudyEnrollmentResultByWeb());
     */
-    accountRepository.save(account);
+    notificationRecipientService.savePreferences(account.getId(), notifications);
   }
 
   // SettingsController 의
   // public String updateAccount() 메소드에서 updateNickName 호출함
   public void updateNickName(Account account, String nickName) {
-    //  수정한 nickName 저장하기
-    account.setNickName(nickName);
-    //  수정한 nickName 을 DB 에 반영하기
-    //  Account 객체가 detached 객체라서 이 작업을 해야 DB 에 반영됨
-    //    ㄴ 명시적으로 save 해야 함  <-- save 할 때 merge 가 일어남
-    accountRepository.save(account);
+    Account managed = managed(account);
+    // 변경 전의 nickName 으로 cache 에 등록된 key 를 먼저 제거함
+    accountCache.evict(managed);
+    //  수정한 nickName 저장하기 (commit 할 때 DB 에 반영됨)
+    managed.setNickName(nickName);
+    accountCache.evict(managed);
+    accountNameFilter.addNickName(nickName);
 
     // 새로 수정된 nickName 으로 login 을 해야 네비게이션 부분에 반영됨
-    login(account);
+    login(managed);
+  }
+  // 변경할 Account 를 현재 transaction 에서 다시 읽음
+  //  ㄴ Controller 가 넘겨준 account 는 AccountCache 가 여러 요청에 함께 주는 객체일 수 있으므로 직접 변경하지 않음
+  //     (변경 중인 값이나 rollback 된 값이 다른 요청에 보이지 않도록 함)
+  private Account managed(Account account) {
+    return accountRepository.findById(account.getId()).orElseThrow();
   }
+
   // AccountController 클래스의
   // public String sendEmailLoginLink() 메소드에서 호출함
   public void sendLoginLink(Account account) {
-    // token 을 새로 생성함
-    account.generateEmailCheckToken();
+    // token 을 새로 생성함 (Account 는 변경하지 않음)
+    String token = emailTokenService.issue(account, EmailToken.Purpose.LOGIN);
     SimpleMailMessage simpleMailMessage = new SimpleMailMessage();
     simpleMailMessage.setTo(account.getEmail());
     simpleMailMessage.setSubject("Global Study Cafe 로그인 링크입니다");
     // 이메일 링크에 새로 생성한 token 을 같이 보냄
-    simpleMailMessage.setText("/login-by-email?token=" + account.getEmailCheckToken() +
+    simpleMailMessage.setText("/login-by-email?token=" + token +
                               "&email=" + account.getEmail());
-    javaMailSender.send(simpleMailMessage);
+    mailOutboxService.enqueue(simpleMailMessage);
   }
 
+  // Account 와 Tag collection 을 읽지 않고
+  // join table 에 바로 INSERT 함 (한 번의 SQL)
   public void addTag(Account account, Tag tag) {
-    // Account 는 persistence 객체가 아니라서
-    // Account 를 먼저 읽어야 함
-    Optional<Account> byId = accountRepository.findById(account.getId());
-    // a 는 account 객체를 의미함 : account 객체에 tag 를 추가함
-    byId.ifPresent(a -> a.getTags().add(tag));
+    accountRepository.addTags(account.getId(), List.of(tag.getId()));
+    accountCache.evict(account);
+    notificationRecipientService.tagsAdded(account.getId(), List.of(tag.getId()));
   }
 
-  // public String updateTags() 메소드에서 호출함
-  public Set<Tag> getTags(Account account) {
-    Optional<Account> byId = accountRepository.findById(account.getId());
+  // SettingsController 의 public ResponseEntity updateTagsInBatch() 메소드에서 호출함
+  //  ㄴ 여러 개의 tag 추가 / 삭제를 하나의 Transaction 에서 처리함
+  //  ㄴ 삭제 한 번, 추가 한 번 : 최대 두 번의 SQL 로 처리함
+  public void updateTags(Account account, Collection<Tag> tagsToAdd, Collection<Tag> tagsToRemove) {
+    if(!tagsToRemove.isEmpty()){
+      accountRepository.removeTags(account.getId(), tagIds(tagsToRemove));
+      notificationRecipientService.tagsRemoved(account.getId(), tagIds(tagsToRemove));
+    }
+    if(!tagsToAdd.isEmpty()){
+      accountRepository.addTags(account.getId(), tagIds(tagsToAdd));
+      notificationRecipientService.tagsAdded(account.getId(), tagIds(tagsToAdd));
+    }
+    accountCache.evict(account);
+  }
 
-    // 없으면 예외발생시키고, 있으면 tag 정보를 가져옴
-    return byId.orElseThrow().getTags();
+  private List<Long> tagIds(Collection<Tag> tags) {
+    return tags.stream().map(Tag::getId).distinct().collect(Collectors.toList());
+  }
 
+  // public String updateTags() 메소드에서 호출함
+  //  ㄴ Account 를 읽지 않고 tag 의 title 만 한 번의 query 로 가져옴
+  @Transactional(readOnly = true)
+  public List<String> getTagTitles(Account account) {
+    return accountRepository.findTagTitlesByAccountId(account.getId());
   }
 
   // public ResponseEntity removeTag() 메소드에서 호출함
+  //  ㄴ join table 에서 바로 DELETE 함 (한 번의 SQL)
   public void removeTag(Account account, Tag tag) {
-    Optional<Account> byId = accountRepository.findById(account.getId());
-    byId.ifPresent(a -> a.getTags().remove(tag));
+    accountRepository.removeTags(account.getId(), List.of(tag.getId()));
+    accountCache.evict(account);
+    notificationRecipientService.tagsRemoved(account.getId(), List.of(tag.getId()));
   }
 
-  // AccountService 의 getZone() 메소드 에서 호출함
+  // SettingsController 의 updateZoneForm() 메소드 에서 호출함
   // Account 가 가지고 있는 Zone 정보 가져오기
-  public Set<Zone> getZones(Account account) {
-    Optional<Account> byId = accountRepository.findById(account.getId());
-    return byId.orElseThrow().getZones();
+  //  ㄴ Account 를 읽지 않고 Zone 정보만 한 번의 query 로 가져옴
+  @Transactional(readOnly = true)
+  public List<Zone> getZones(Account account) {
+    return accountRepository.findZonesByAccountId(account.getId());
   }
 
   // SettingsController 의 public ResponseEntity addZone() 메소드에서 호출함
+  //  ㄴ join table 에 바로 INSERT 함 (한 번의 SQL)
   public void addZone(Account account, Zone zone) {
-    Optional<Account> byId =  accountRepository.findById(account.getId());
-    // a 는 account 객체를 의미함
-    byId.ifPresent(a -> a.getZones().add(zone));
+    accountRepository.addZone(account.getId(), zone.getId());
+    accountCache.evict(account);
+    notificationRecipientService.zoneAdded(account.getId(), zone.getId());
   }
 
   // SettingsController 의 public ResponseEntity removeZone() 메소드에서 호출함
+  //  ㄴ join table 에서 바로 DELETE 함 (한 번의 SQL)
   public void removeZone(Account account, Zone zone) {
-    Optional<Account> byId =  accountRepository.findById(account.getId());
-    // a 는 account 객체를 의미함
-    byId.ifPresent(a -> a.getZones().remove(zone));
+    accountRepository.removeZone(account.getId(), zone.getId());
+    accountCache.evict(account);
+    notificationRecipientService.zoneRemoved(account.getId(), zone.getId());
   }
 }
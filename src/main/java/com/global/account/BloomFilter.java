@@ -0,0 +1,84 @@
+package com.global.account;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+  문자열 집합에 대한 Bloom filter
+    ㄴ mightContain() 이 false 이면 "확실히 없음"
+    ㄴ mightContain() 이 true 이면 "있을 수도 있음" (falsePositiveRate 확률로 틀릴 수 있음)
+  add() 와 mightContain() 은 여러 thread 에서 동시에 호출해도 됨
+  삭제는 지원하지 않으므로 AccountNameFilter 에서 주기적으로 새로 만듦
+*/
+final class BloomFilter {
+
+  private final AtomicLongArray bits;
+  private final long bitSize;
+  private final int hashCount;
+
+  BloomFilter(long expectedInsertions, double falsePositiveRate) {
+    long n = Math.max(1, expectedInsertions);
+    // m = -n * ln(p) / (ln 2)^2 , k = m / n * ln 2
+    long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+    int words = (int) Math.max(1, (m + 63) / 64);
+    this.bits = new AtomicLongArray(words);
+    this.bitSize = (long) words * 64;
+    this.hashCount = Math.max(1, (int) Math.round((double) bitSize / n * Math.log(2)));
+  }
+
+  void add(String value) {
+    long hash = hash64(value);
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32);
+    for (int i = 1; i <= hashCount; i++) {
+      setBit(index(h1 + i * h2));
+    }
+  }
+
+  boolean mightContain(String value) {
+    long hash = hash64(value);
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32);
+    for (int i = 1; i <= hashCount; i++) {
+      if (!getBit(index(h1 + i * h2))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private long index(int combined) {
+    // 음수가 나오지 않도록 부호 bit 를 뒤집음
+    return (combined < 0 ? ~combined : combined) % bitSize;
+  }
+
+  private void setBit(long index) {
+    int word = (int) (index >>> 6);
+    long mask = 1L << index;
+    long current;
+    do {
+      current = bits.get(word);
+      if ((current & mask) != 0) {
+        return;
+      }
+    } while (!bits.compareAndSet(word, current, current | mask));
+  }
+
+  private boolean getBit(long index) {
+    return (bits.get((int) (index >>> 6)) & (1L << index)) != 0;
+  }
+
+  // FNV-1a 64 bit hash + 마지막에 bit 를 섞어서 고르게 분포하도록 함
+  private static long hash64(String value) {
+    long hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < value.length(); i++) {
+      hash ^= value.charAt(i);
+      hash *= 0x100000001b3L;
+    }
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
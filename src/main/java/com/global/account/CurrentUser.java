@@ -3,26 +3,17 @@ package com.global.account;
 
 // AccountController Annotation 만들기
 
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
-// 아래의 설정으로
-// CurrentUser 객체는 @AuthenticationPrincipal 어노테이션의 적용을 받음
+// @CurrentUser Account account 로 선언한 parameter 에
+// 현재 로그인한 사용자의 Account 를 넣어줌 (로그인하지 않았으면 null)
+//  ㄴ session 에는 AccountPrincipal 만 저장되어 있으므로
+//     CurrentUserArgumentResolver 가 id 로 AccountCache 에서 Account 를 읽어옴
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.PARAMETER)
-@AuthenticationPrincipal(expression = "#this == 'anonymousUser' ? null : account")
 public @interface CurrentUser {
 
 }
-
-
-
-
-
-
-
-
@@ -0,0 +1,73 @@
+package com.global.account;
+
+import com.global.domain.Account;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/*
+  @CurrentUser Account account parameter 를 처리함
+    1. SecurityContext 의 principal(UserAccount)에서 AccountPrincipal 의 id 를 꺼냄
+    2. id 로 AccountCache 에서 Account 를 읽어옴 (cache 에 없으면 DB 조회)
+    3. principal 의 version 이 현재 version 과 다르면
+       (updateProfile, updateNickName 등으로 Account 가 바뀐 경우)
+       새 AccountPrincipal 로 SecurityContext 를 교체함 -> 요청이 끝나면 session 에도 반영됨
+  로그인하지 않은 경우에는 null 을 넣어줌
+*/
+@Component
+@RequiredArgsConstructor
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+  private final AccountCache accountCache;
+
+  @Override
+  public boolean supportsParameter(MethodParameter parameter) {
+    return parameter.hasParameterAnnotation(CurrentUser.class)
+           && Account.class.isAssignableFrom(parameter.getParameterType());
+  }
+
+  // 로그인한 사용자의 AccountPrincipal (로그인하지 않았으면 null)
+  //  ㄴ session 에 있는 정보만 사용하므로 DB 나 AccountCache 를 조회하지 않음
+  public static AccountPrincipal currentPrincipal() {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication == null || !(authentication.getPrincipal() instanceof UserAccount)) {
+      return null;
+    }
+    return ((UserAccount) authentication.getPrincipal()).getAccountPrincipal();
+  }
+
+  @Override
+  public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+    SecurityContext context = SecurityContextHolder.getContext();
+    Authentication authentication = context.getAuthentication();
+    if (authentication == null || !(authentication.getPrincipal() instanceof UserAccount)) {
+      return null;
+    }
+
+    AccountPrincipal principal = ((UserAccount) authentication.getPrincipal()).getAccountPrincipal();
+    Account account = accountCache.findById(principal.getId()).orElse(null);
+    if (account == null) {
+      return null;
+    }
+
+    long version = accountCache.currentVersion(account.getId());
+    if (principal.getVersion() != version
+        || !principal.getNickName().equals(account.getNickName())
+        || principal.isEmailVerified() != account.isEmailVerified()) {
+      UsernamePasswordAuthenticationToken refreshed = new UsernamePasswordAuthenticationToken(
+        new UserAccount(AccountPrincipal.of(account, version), authentication.getAuthorities()),
+        null, authentication.getAuthorities());
+      context.setAuthentication(refreshed);
+    }
+    return account;
+  }
+}
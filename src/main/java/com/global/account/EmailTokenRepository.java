@@ -0,0 +1,31 @@
+package com.global.account;
+
+import com.global.domain.EmailToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Transactional(readOnly = true)
+public interface EmailTokenRepository extends JpaRepository<EmailToken, Long> {
+
+  Optional<EmailToken> findByTokenHash(String tokenHash);
+
+  boolean existsByAccountIdAndPurposeAndCreatedAtAfter(Long accountId, EmailToken.Purpose purpose,
+                                                       LocalDateTime createdAt);
+
+  // 삭제된 행의 개수를 반환함 : 동시에 같은 token 을 사용하면 한 요청만 1 을 받음
+  @Modifying
+  @Transactional
+  @Query("delete from EmailToken t where t.id = :id")
+  int deleteByIdReturningCount(@Param("id") Long id);
+
+  @Modifying
+  @Transactional
+  @Query("delete from EmailToken t where t.accountId = :accountId and t.purpose = :purpose")
+  int deleteByAccountIdAndPurpose(@Param("accountId") Long accountId, @Param("purpose") EmailToken.Purpose purpose);
+}
@@ -0,0 +1,148 @@
+package com.global.account;
+
+import com.global.domain.Account;
+import com.global.domain.EmailToken;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Optional;
+
+/*
+  이메일 인증 / 이메일 로그인 token 발급과 확인
+    ㄴ issue()  : 32 byte 난수 token 을 만들고 hash 만 저장함, 원문은 메일 link 에 넣음
+                  같은 용도로 이전에 발급한 token 은 삭제함 (가장 최근 link 만 사용할 수 있음)
+    ㄴ verify() : token hash 로 한 번 조회하고 (unique index), hash 를 constant-time 으로 비교하고,
+                  용도 / 만료 / email 을 확인한 후 삭제해서 다시 사용할 수 없도록 함
+    ㄴ purgeExpired() : 만료된 token 을 batchSize 개씩 삭제함
+*/
+@Slf4j
+@Service
+@Transactional
+public class EmailTokenService {
+
+  // 같은 용도의 token 은 이 시간 안에 다시 발급하지 않음 (인증 메일, 로그인 메일은 1 시간에 한 번)
+  private static final Duration RESEND_INTERVAL = Duration.ofHours(1);
+
+  private static final String DELETE_EXPIRED_SQL =
+    "delete from email_token where id in (select id from email_token where expires_at < ? limit ?)";
+
+  private final EmailTokenRepository emailTokenRepository;
+  private final AccountCache accountCache;
+  private final JdbcTemplate jdbcTemplate;
+  private final Duration signUpTtl;
+  private final Duration loginTtl;
+  private final int purgeBatchSize;
+
+  private final SecureRandom random = new SecureRandom();
+
+  public EmailTokenService(EmailTokenRepository emailTokenRepository,
+                           AccountCache accountCache,
+                           JdbcTemplate jdbcTemplate,
+                           @Value("${app.email-token.sign-up-ttl-hours:24}") long signUpTtlHours,
+                           @Value("${app.email-token.login-ttl-minutes:60}") long loginTtlMinutes,
+                           @Value("${app.email-token.purge-batch-size:1000}") int purgeBatchSize) {
+    this.emailTokenRepository = emailTokenRepository;
+    this.accountCache = accountCache;
+    this.jdbcTemplate = jdbcTemplate;
+    this.signUpTtl = Duration.ofHours(signUpTtlHours);
+    this.loginTtl = Duration.ofMinutes(loginTtlMinutes);
+    this.purgeBatchSize = purgeBatchSize;
+  }
+
+  // 새 token 을 발급하고 원문을 반환함 (메일 link 에 넣음)
+  public String issue(Account account, EmailToken.Purpose purpose) {
+    byte[] bytes = new byte[32];
+    random.nextBytes(bytes);
+    String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+    LocalDateTime now = LocalDateTime.now();
+    emailTokenRepository.deleteByAccountIdAndPurpose(account.getId(), purpose);
+    emailTokenRepository.save(EmailToken.builder()
+                                        .tokenHash(hash(token))
+                                        .accountId(account.getId())
+                                        .purpose(purpose)
+                                        .createdAt(now)
+                                        .expiresAt(now.plus(purpose == EmailToken.Purpose.SIGN_UP ? signUpTtl : loginTtl))
+                                        .build());
+    return token;
+  }
+
+  // 같은 용도의 token 을 최근 1 시간 안에 발급한 적이 없으면 true
+  @Transactional(readOnly = true)
+  public boolean canIssue(Account account, EmailToken.Purpose purpose) {
+    return !emailTokenRepository.existsByAccountIdAndPurposeAndCreatedAtAfter(
+      account.getId(), purpose, LocalDateTime.now().minus(RESEND_INTERVAL));
+  }
+
+  // token 이 유효하면 삭제하고 해당 Account 를 반환함
+  public Optional<Account> verify(String token, String email, EmailToken.Purpose purpose) {
+    if (token == null || token.isEmpty() || email == null) {
+      return Optional.empty();
+    }
+    String tokenHash = hash(token);
+    Optional<EmailToken> found = emailTokenRepository.findByTokenHash(tokenHash);
+    if (found.isEmpty()) {
+      return Optional.empty();
+    }
+    EmailToken emailToken = found.get();
+    // index 로 찾았더라도 hash 비교는 constant-time 으로 함
+    if (!MessageDigest.isEqual(tokenHash.getBytes(StandardCharsets.US_ASCII),
+                               emailToken.getTokenHash().getBytes(StandardCharsets.US_ASCII))
+        || emailToken.getPurpose() != purpose
+        || emailToken.getExpiresAt().isBefore(LocalDateTime.now())) {
+      return Optional.empty();
+    }
+
+    Optional<Account> account = accountCache.findById(emailToken.getAccountId())
+                                            .filter(candidate -> candidate.getEmail().equalsIgnoreCase(email));
+    // 삭제에 성공한 요청만 token 을 사용할 수 있음 (동시에 같은 link 를 눌러도 한 번만 처리됨)
+    if (account.isEmpty() || emailTokenRepository.deleteByIdReturningCount(emailToken.getId()) != 1) {
+      return Optional.empty();
+    }
+    return account;
+  }
+
+  // 만료된 token 을 batchSize 개씩 삭제함 (기본값 : 1 시간마다)
+  //  ㄴ 한 번에 모두 삭제하지 않아서 lock 을 오래 잡지 않음
+  @Scheduled(fixedDelayString = "${app.email-token.purge-interval-ms:3600000}")
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public void purgeExpired() {
+    Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+    int total = 0;
+    int deleted;
+    do {
+      deleted = jdbcTemplate.update(DELETE_EXPIRED_SQL, now, purgeBatchSize);
+      total += deleted;
+    } while (deleted >= purgeBatchSize);
+    if (total > 0) {
+      log.info("만료된 이메일 token {} 건을 삭제했습니다", total);
+    }
+  }
+
+  // token 원문 -> DB 에 저장하는 SHA-256 hash (hex 64 자), 부하 테스트 data 를 만들 때도 사용함 (DatasetGenerator)
+  public static String hash(String token) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+      StringBuilder sb = new StringBuilder(digest.length * 2);
+      for (byte b : digest) {
+        sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+      }
+      return sb.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,127 @@
+package com.global.account;
+
+import com.global.domain.Account;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import org.thymeleaf.spring5.expression.ThymeleafEvaluationContext;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+  다른 사람이 보는 프로필(account/profile-body.html 의 profile-body fragment)을
+  HTML 문자열로 만들어서 nickName 별로 보관하는 cache
+    ㄴ Account 의 version(AccountCache.currentVersion)이 바뀌면 다시 만듦
+       ㄴ 프로필, 닉네임, 관심 주제, 활동 지역을 변경하면 AccountService 가 evict() 하면서 version 이 증가함
+    ㄴ 만든 지 ttl 이 지나도 다시 만듦
+       ㄴ version 은 node 마다 따로 세므로 다른 node 에서 변경한 내용은 version 으로 알 수 없음
+          (서버가 여러 대이면 다른 node 의 변경이 최대 ttl 동안 늦게 보임)
+    ㄴ 본인이 보는 프로필(이메일, 프로필 수정 버튼 등)은 cache 하지 않음 : AccountController 에서 따로 처리함
+    ㄴ ETag 에는 보는 사람(viewer)의 id 와 version 도 포함함 (화면 위쪽의 navigation bar 가 viewer 마다 다르기 때문)
+*/
+@Component
+public class ProfileFragmentCache {
+
+  private static final String TEMPLATE = "account/profile-body";
+  private static final Set<String> FRAGMENT = Set.of("profile-body");
+
+  private final SpringTemplateEngine templateEngine;
+  private final ThymeleafEvaluationContext evaluationContext;
+  private final AccountCache accountCache;
+  private final int maxSize;
+  private final long ttlMillis;
+
+  // application 을 재시작하면 version 이 0 부터 다시 시작하므로 ETag 가 겹치지 않도록 시작 시각을 넣음
+  private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+  public ProfileFragmentCache(SpringTemplateEngine templateEngine,
+                              ApplicationContext applicationContext,
+                              @Qualifier("mvcConversionService") ConversionService mvcConversionService,
+                              AccountCache accountCache,
+                              @Value("${app.profile.cache.max-size:10000}") int maxSize,
+                              @Value("${app.profile.cache.ttl-seconds:60}") long ttlSeconds) {
+    this.templateEngine = templateEngine;
+    // template 안의 ${@profileImageService.url(...)} 처럼 Bean 을 사용할 수 있도록 함
+    this.evaluationContext = new ThymeleafEvaluationContext(applicationContext, mvcConversionService);
+    this.accountCache = accountCache;
+    this.maxSize = maxSize;
+    this.ttlMillis = ttlSeconds * 1000;
+  }
+
+  // Account 를 읽지 않고 만든 시각과 version 만 비교해서 아직 유효한 fragment 를 찾음
+  public Entry find(String nickName) {
+    Entry entry = entries.get(nickName);
+    if (entry == null) {
+      return null;
+    }
+    if (System.currentTimeMillis() - entry.renderedAt >= ttlMillis
+        || entry.version != accountCache.currentVersion(entry.accountId)) {
+      entries.remove(nickName, entry);
+      return null;
+    }
+    return entry;
+  }
+
+  public Entry render(Account account) {
+    // 만드는 도중에 Account 가 바뀌면 version 이 달라지므로 다음 요청에서 다시 만듦
+    long version = accountCache.currentVersion(account.getId());
+    Context context = new Context();
+    context.setVariable(ThymeleafEvaluationContext.THYMELEAF_EVALUATION_CONTEXT_CONTEXT_VARIABLE_NAME, evaluationContext);
+    context.setVariable("account", account);
+    context.setVariable("isCurrentUser", false);
+    String html = templateEngine.process(TEMPLATE, FRAGMENT, context);
+
+    Entry entry = new Entry(account.getId(), version, html, System.currentTimeMillis());
+    if (entries.size() >= maxSize) {
+      evictSome();
+    }
+    entries.put(account.getNickName(), entry);
+    return entry;
+  }
+
+  public String etag(Entry entry, AccountPrincipal viewer) {
+    String viewerPart = viewer == null
+                        ? "anonymous"
+                        : viewer.getId() + "." + accountCache.currentVersion(viewer.getId());
+    return "\"" + epoch + "-" + entry.accountId + "." + entry.version + "-" + viewerPart + "\"";
+  }
+
+  public void clear() {
+    entries.clear();
+  }
+
+  // 최대 개수를 넘으면 1/10 정도를 제거함
+  private void evictSome() {
+    int toRemove = Math.max(1, maxSize / 10);
+    Iterator<String> iterator = entries.keySet().iterator();
+    while (toRemove-- > 0 && iterator.hasNext()) {
+      iterator.next();
+      iterator.remove();
+    }
+  }
+
+  @Getter
+  public static final class Entry {
+    private final Long accountId;
+    private final long version;
+    private final String html;
+    private final long renderedAt;
+
+    private Entry(Long accountId, long version, String html, long renderedAt) {
+      this.accountId = accountId;
+      this.version = version;
+      this.html = html;
+      this.renderedAt = renderedAt;
+    }
+  }
+}
@@ -0,0 +1,122 @@
+package com.global.account;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.rememberme.PersistentRememberMeToken;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Date;
+
+/*
+  이미 로그인한 요청에 remember-me cookie 가 있으면 token 을 바꾸지 않고 last_used 만 갱신하는 filter
+    ㄴ 자동 로그인은 session 이 없을 때 한 번만 일어나므로, 사용 중인 series 도 마지막 자동 로그인부터
+       token-validity-seconds 가 지나면 만료됨 -> 사용하는 동안은 만료 시각을 뒤로 미룸 (sliding expiry)
+    ㄴ last_used 는 WriteBehindTokenRepository 가 모아서 batch UPDATE 로 반영하므로 요청마다 DB 에 쓰지 않음
+       ㄴ refresh-interval-ms 안에 이미 갱신한 series 는 다시 갱신하지 않음
+    ㄴ token 을 교체하지 않으므로 cookie 의 token 이 저장된 token 과 같고
+       로그인한 사용자의 series 인 경우에만 갱신함 (도용 확인은 자동 로그인할 때 Spring Security 가 함)
+    ㄴ cookie 의 만료 시각도 같은 값으로 다시 설정함 (DB 에 쓰지 않음)
+  Spring Security filter 다음에 실행되므로 SecurityContext 에서 로그인 여부를 읽음 (RateLimitFilter 와 동일)
+*/
+@Slf4j
+@Component
+public class RememberMeRefreshFilter extends OncePerRequestFilter {
+
+  private final WriteBehindTokenRepository tokenRepository;
+  private final String cookieName;
+  private final int tokenValiditySeconds;
+  private final long refreshIntervalMillis;
+
+  public RememberMeRefreshFilter(WriteBehindTokenRepository tokenRepository,
+                                 @Value("${app.remember-me.cookie-name:remember-me}") String cookieName,
+                                 @Value("${app.remember-me.token-validity-seconds:1209600}") int tokenValiditySeconds,
+                                 @Value("${app.remember-me.refresh-interval-ms:60000}") long refreshIntervalMillis) {
+    this.tokenRepository = tokenRepository;
+    this.cookieName = cookieName;
+    this.tokenValiditySeconds = tokenValiditySeconds;
+    this.refreshIntervalMillis = refreshIntervalMillis;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return WebUtils.getCookie(request, cookieName) == null;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                  FilterChain filterChain) throws ServletException, IOException {
+    try {
+      refresh(request, response);
+    } catch (RuntimeException e) {
+      // 갱신하지 못해도 요청은 그대로 처리함 (다음 자동 로그인에서 token 을 교체함)
+      log.warn("remember-me token 의 last_used 를 갱신하지 못했습니다", e);
+    }
+    filterChain.doFilter(request, response);
+  }
+
+  private void refresh(HttpServletRequest request, HttpServletResponse response) {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication == null || !authentication.isAuthenticated()
+        || authentication instanceof AnonymousAuthenticationToken) {
+      return;
+    }
+    Cookie cookie = WebUtils.getCookie(request, cookieName);
+    String[] seriesAndToken = decode(cookie.getValue());
+    if (seriesAndToken == null) {
+      return;
+    }
+    PersistentRememberMeToken token = tokenRepository.findCachedToken(seriesAndToken[0]);
+    if (token == null
+        || !token.getUsername().equals(authentication.getName())
+        || !MessageDigest.isEqual(token.getTokenValue().getBytes(StandardCharsets.UTF_8),
+                                  seriesAndToken[1].getBytes(StandardCharsets.UTF_8))) {
+      return;
+    }
+    long now = System.currentTimeMillis();
+    if (now - token.getDate().getTime() < refreshIntervalMillis) {
+      return;
+    }
+    tokenRepository.updateToken(token.getSeries(), token.getTokenValue(), new Date(now));
+
+    Cookie refreshed = new Cookie(cookieName, cookie.getValue());
+    refreshed.setMaxAge(tokenValiditySeconds);
+    refreshed.setPath(request.getContextPath().isEmpty() ? "/" : request.getContextPath());
+    refreshed.setSecure(request.isSecure());
+    refreshed.setHttpOnly(true);
+    response.addCookie(refreshed);
+  }
+
+  // PersistentTokenBasedRememberMeServices 의 cookie 형식 : Base64("series:token") (각 값은 URL encode 됨)
+  private static String[] decode(String cookieValue) {
+    try {
+      StringBuilder value = new StringBuilder(cookieValue);
+      while (value.length() % 4 != 0) {
+        value.append('=');
+      }
+      String decoded = new String(Base64.getDecoder().decode(value.toString()), StandardCharsets.UTF_8);
+      String[] tokens = decoded.split(":");
+      if (tokens.length != 2) {
+        return null;
+      }
+      return new String[]{URLDecoder.decode(tokens[0], StandardCharsets.UTF_8),
+                          URLDecoder.decode(tokens[1], StandardCharsets.UTF_8)};
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+}
@@ -11,7 +11,9 @@ public class SignUpFormValidator implements Validator {
 
   // DB 를 조회해서 email 이나 nickname 이 중복되는지 검사하려면
   // AccountRepository 가 있어야 함
-  private final AccountRepository accountRepository;
+  //  ㄴ AccountNameFilter 에서 Bloom filter 로 먼저 확인하고
+  //     있을 수도 있는 경우에만 DB 를 조회함 (AccountRepository 의 existsByEmail / existsByNickName)
+  private final AccountNameFilter accountNameFilter;
 
   @Override
   public boolean supports(Class<?> clazz) {
@@ -25,12 +27,12 @@ public class SignUpFormValidator implements Validator {
   public void validate(Object target, Errors errors) {
     // DB를 조회해서 email 이나 nickname 이 중복되는지 검사하기
     SignUpForm signUpForm = (SignUpForm)target;
-    if(accountRepository.existsByEmail(signUpForm.getEmail())){
+    if(accountNameFilter.isEmailTaken(signUpForm.getEmail())){
       errors.rejectValue("email", "invalid.email",
                           new Object[]{signUpForm.getEmail()},
                           "이미 사용 중인 이메일입니다");
     }
-    if(accountRepository.existsByNickName(signUpForm.getNickName())){
+    if(accountNameFilter.isNickNameTaken(signUpForm.getNickName())){
       errors.rejectValue("nickName", "invalid.nickname",
                          new Object[]{signUpForm.getNickName()},
                         "이미 사용 중인 닉네임입니다");
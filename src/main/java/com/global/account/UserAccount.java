@@ -2,9 +2,11 @@ package com.global.account;
 
 import com.global.domain.Account;
 import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 
+import java.util.Collection;
 import java.util.List;
 
 /*
@@ -12,15 +14,32 @@ Spring Security 에서 제공하는 user 정보와
 우리가 만든 domain 에서 다루는 user 정보 사이에서
 adapter 역할을 하는 클래스
   ㄴ UserAccount : Principal 객체로 사용함
+  ㄴ session 에 저장되므로 Account Entity 대신 AccountPrincipal 만 가지고 있음
+     (Account 는 @CurrentUser 를 처리할 때 CurrentUserArgumentResolver 가 읽어옴)
+  ㄴ password 는 로그인 검증(loadUserByUsername)에만 사용하고, 인증이 끝나면 Spring Security 가 지움 (eraseCredentials)
+     ㄴ AccountService.login() 이나 CurrentUserArgumentResolver 처럼 Spring Security 의 인증을 거치지 않고
+        만드는 principal 은 eraseCredentials 가 호출되지 않으므로 password 없이 AccountPrincipal 로만 만듦
+        (session file 에 bcrypt hash 가 저장되지 않도록 함)
+  ㄴ 권한은 AdminAccounts 가 정함 (권한을 넘기지 않으면 ROLE_USER 만 가짐)
 */
 @Getter
 public class UserAccount extends User {
-  private Account account;
-  public UserAccount(Account account){
+  private final AccountPrincipal accountPrincipal;
+
+  public UserAccount(Account account, long version, Collection<? extends GrantedAuthority> authorities){
     super(account.getNickName(),
-          account.getPassword(),
-          List.of(new SimpleGrantedAuthority("ROLE_USER")));
-    this.account = account;
+          account.getPassword() == null ? "" : account.getPassword(),
+          authorities);
+    this.accountPrincipal = AccountPrincipal.of(account, version);
+  }
+
+  public UserAccount(AccountPrincipal accountPrincipal, Collection<? extends GrantedAuthority> authorities){
+    super(accountPrincipal.getNickName(), "", authorities);
+    this.accountPrincipal = accountPrincipal;
+  }
+
+  public UserAccount(AccountPrincipal accountPrincipal){
+    this(accountPrincipal, List.of(new SimpleGrantedAuthority("ROLE_USER")));
   }
 
 }
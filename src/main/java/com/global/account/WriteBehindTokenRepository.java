@@ -0,0 +1,175 @@
+package com.global.account;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.web.authentication.rememberme.PersistentRememberMeToken;
+import org.springframework.security.web.authentication.rememberme.PersistentTokenRepository;
+
+import javax.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+  remember-me(자동 로그인) token 을 persistent_logins table 에 저장하는 repository (RememberMeConfig 에서 등록함)
+    ㄴ token 값이 바뀌는 경우(새 token 발급, 자동 로그인할 때의 token 교체)는 바로 DB 에 반영함
+    ㄴ token 값은 그대로이고 last_used 만 바뀌는 경우(RememberMeRefreshFilter)는 메모리에 모아 두었다가
+       flushInterval 마다 한 번의 batch UPDATE 로 반영함
+    ㄴ series 로 조회한 token 은 메모리에 보관함
+       ㄴ findCachedToken() : 로그인한 요청마다 호출되는 RememberMeRefreshFilter 가 사용함 (매번 SELECT 하지 않음)
+       ㄴ getTokenForSeries() : Spring Security 의 자동 로그인(token 교체, 도용 확인)이 사용함
+          다른 node 가 교체한 token 을 오래된 값과 비교해서 도용으로 판단하지 않도록 항상 DB 에서 읽음
+    ㄴ 주기적으로 만료된 series 를 한 번에 삭제함
+*/
+@Slf4j
+public class WriteBehindTokenRepository implements PersistentTokenRepository {
+
+  private static final String INSERT_SQL =
+    "insert into persistent_logins (username, series, token, last_used) values (?, ?, ?, ?)";
+  private static final String SELECT_SQL =
+    "select username, series, token, last_used from persistent_logins where series = ?";
+  private static final String UPDATE_TOKEN_SQL =
+    "update persistent_logins set token = ?, last_used = ? where series = ?";
+  private static final String UPDATE_LAST_USED_SQL =
+    "update persistent_logins set last_used = ? where series = ? and last_used < ?";
+  private static final String DELETE_BY_USERNAME_SQL =
+    "delete from persistent_logins where username = ?";
+  private static final String DELETE_EXPIRED_SQL =
+    "delete from persistent_logins where last_used < ?";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final int maxCachedSeries;
+  private final long tokenValidityMillis;
+
+  // series -> token
+  private final Map<String, PersistentRememberMeToken> cache = new ConcurrentHashMap<>();
+  // series -> 아직 DB 에 반영하지 않은 last_used
+  private final Map<String, Date> pendingLastUsed = new ConcurrentHashMap<>();
+
+  public WriteBehindTokenRepository(JdbcTemplate jdbcTemplate, int maxCachedSeries, long tokenValiditySeconds) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.maxCachedSeries = maxCachedSeries;
+    this.tokenValidityMillis = tokenValiditySeconds * 1000;
+  }
+
+  @Override
+  public void createNewToken(PersistentRememberMeToken token) {
+    jdbcTemplate.update(INSERT_SQL, token.getUsername(), token.getSeries(), token.getTokenValue(),
+                        new Timestamp(token.getDate().getTime()));
+    cacheToken(token);
+  }
+
+  @Override
+  public void updateToken(String series, String tokenValue, Date lastUsed) {
+    PersistentRememberMeToken cached = cache.get(series);
+    if (cached != null && cached.getTokenValue().equals(tokenValue)) {
+      // token 값은 그대로 : last_used 만 나중에 모아서 반영함
+      pendingLastUsed.merge(series, lastUsed, (previous, next) -> next.after(previous) ? next : previous);
+      cache.put(series, new PersistentRememberMeToken(cached.getUsername(), series, tokenValue, lastUsed));
+      return;
+    }
+
+    // token 이 교체된 경우 : 바로 DB 에 반영함
+    pendingLastUsed.remove(series);
+    jdbcTemplate.update(UPDATE_TOKEN_SQL, tokenValue, new Timestamp(lastUsed.getTime()), series);
+    if (cached != null) {
+      cache.put(series, new PersistentRememberMeToken(cached.getUsername(), series, tokenValue, lastUsed));
+    }
+  }
+
+  // 자동 로그인할 때 호출됨 : 항상 DB 에서 읽고, 아직 반영하지 않은 last_used 가 더 최근이면 그 값을 사용함
+  @Override
+  public PersistentRememberMeToken getTokenForSeries(String seriesId) {
+    PersistentRememberMeToken loaded;
+    try {
+      loaded = jdbcTemplate.queryForObject(SELECT_SQL,
+        (rs, rowNum) -> new PersistentRememberMeToken(rs.getString(1), rs.getString(2),
+                                                       rs.getString(3), rs.getTimestamp(4)),
+        seriesId);
+    } catch (EmptyResultDataAccessException e) {
+      cache.remove(seriesId);
+      pendingLastUsed.remove(seriesId);
+      return null;
+    }
+    if (loaded == null) {
+      return null;
+    }
+    Date pending = pendingLastUsed.get(seriesId);
+    if (pending != null && pending.after(loaded.getDate())) {
+      loaded = new PersistentRememberMeToken(loaded.getUsername(), seriesId, loaded.getTokenValue(), pending);
+    }
+    cacheToken(loaded);
+    return loaded;
+  }
+
+  // RememberMeRefreshFilter 에서 호출함 : 메모리에 있으면 DB 를 읽지 않음
+  public PersistentRememberMeToken findCachedToken(String seriesId) {
+    PersistentRememberMeToken cached = cache.get(seriesId);
+    return cached != null ? cached : getTokenForSeries(seriesId);
+  }
+
+  @Override
+  public void removeUserTokens(String username) {
+    jdbcTemplate.update(DELETE_BY_USERNAME_SQL, username);
+    Iterator<PersistentRememberMeToken> iterator = cache.values().iterator();
+    while (iterator.hasNext()) {
+      PersistentRememberMeToken token = iterator.next();
+      if (token.getUsername().equals(username)) {
+        pendingLastUsed.remove(token.getSeries());
+        iterator.remove();
+      }
+    }
+  }
+
+  // 모아 둔 last_used 를 한 번의 batch UPDATE 로 반영함
+  //  ㄴ last_used < ? 조건 : 더 최근 값이 이미 저장되어 있으면 덮어쓰지 않음
+  @Scheduled(fixedDelayString = "${app.remember-me.flush-interval-ms:5000}")
+  public void flush() {
+    if (pendingLastUsed.isEmpty()) {
+      return;
+    }
+    List<Object[]> batch = new ArrayList<>();
+    for (String series : new ArrayList<>(pendingLastUsed.keySet())) {
+      Date lastUsed = pendingLastUsed.remove(series);
+      if (lastUsed != null) {
+        Timestamp timestamp = new Timestamp(lastUsed.getTime());
+        batch.add(new Object[]{timestamp, series, timestamp});
+      }
+    }
+    if (!batch.isEmpty()) {
+      jdbcTemplate.batchUpdate(UPDATE_LAST_USED_SQL, batch);
+    }
+  }
+
+  // 만료된 series 를 한 번의 DELETE 로 삭제함 (기본값 : 1 시간마다)
+  @Scheduled(fixedDelayString = "${app.remember-me.purge-interval-ms:3600000}")
+  public void purgeExpired() {
+    // 만료 여부를 정확히 판단하기 위해 모아 둔 last_used 를 먼저 반영함
+    flush();
+    long expiredBefore = System.currentTimeMillis() - tokenValidityMillis;
+    int deleted = jdbcTemplate.update(DELETE_EXPIRED_SQL, new Timestamp(expiredBefore));
+    cache.values().removeIf(token -> token.getDate().getTime() < expiredBefore);
+    if (deleted > 0) {
+      log.info("만료된 remember-me series {} 건을 삭제했습니다", deleted);
+    }
+  }
+
+  // application 이 종료될 때 모아 둔 last_used 를 반영함
+  @PreDestroy
+  public void flushOnShutdown() {
+    flush();
+  }
+
+  private void cacheToken(PersistentRememberMeToken token) {
+    // 너무 많으면 cache 에 넣지 않고 DB 에서 읽음
+    if (cache.containsKey(token.getSeries()) || cache.size() < maxCachedSeries) {
+      cache.put(token.getSeries(), token);
+    }
+  }
+}
@@ -0,0 +1,43 @@
+package com.global.admin;
+
+import com.global.domain.Account;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/*
+  로그인한 Account 에 줄 권한(authority)을 정함
+    ㄴ 모든 Account : ROLE_USER
+    ㄴ app.admin.emails 에 설정한 email 의 Account : ROLE_USER + ROLE_ADMIN (/admin/stats 를 사용할 수 있음)
+       예) app.admin.emails=admin@email.com,ops@email.com
+       ㄴ nickName 은 사용자가 바꿀 수 있으므로 email 로 지정함 (대소문자 구분 없음)
+    ㄴ 권한은 로그인할 때 정해져서 session 에 저장됨 : 설정을 바꾸면 다시 로그인해야 반영됨
+*/
+@Component
+public class AdminAccounts {
+
+  private static final List<GrantedAuthority> USER = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+  private static final List<GrantedAuthority> ADMIN = List.of(new SimpleGrantedAuthority("ROLE_USER"),
+                                                              new SimpleGrantedAuthority("ROLE_ADMIN"));
+
+  private final Set<String> emails;
+
+  public AdminAccounts(@Value("${app.admin.emails:}") String[] emails) {
+    this.emails = Arrays.stream(emails)
+                        .map(email -> email.trim().toLowerCase(Locale.ROOT))
+                        .filter(email -> !email.isEmpty())
+                        .collect(Collectors.toUnmodifiableSet());
+  }
+
+  public List<GrantedAuthority> authorities(Account account) {
+    String email = account.getEmail();
+    return email != null && emails.contains(email.toLowerCase(Locale.ROOT)) ? ADMIN : USER;
+  }
+}
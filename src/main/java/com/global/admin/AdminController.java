@@ -0,0 +1,49 @@
+package com.global.admin;
+
+import com.global.account.AccountCache;
+import com.global.account.AccountCounter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+  운영자용 통계
+    ㄴ /admin/stats            : 메모리에 유지하는 가입자 수 (DB 를 조회하지 않음)
+    ㄴ /admin/stats?exact=true : DB 를 count 해서 정확한 가입자 수를 구함 (counter 도 그 값으로 맞춤)
+  ROLE_ADMIN 권한이 있는 사용자만 사용할 수 있음 (없으면 403)
+    ㄴ ROLE_ADMIN 은 app.admin.emails 에 설정한 email 의 Account 에 줌 (AdminAccounts)
+    ㄴ Spring Security 설정과 상관없이 handler 에서 직접 확인함
+       (?exact=true 는 account table 전체를 count 하므로 아무나 호출할 수 없도록 함)
+*/
+@Controller
+@RequiredArgsConstructor
+public class AdminController {
+
+  private final AccountCounter accountCounter;
+  private final AccountCache accountCache;
+
+  @GetMapping("/admin/stats")
+  @ResponseBody
+  public Map<String, Object> stats(@RequestParam(defaultValue = "false") boolean exact, HttpServletRequest request){
+    if (!request.isUserInRole("ADMIN")) {
+      throw new ResponseStatusException(HttpStatus.FORBIDDEN);
+    }
+    AccountCounter.Mode mode = exact ? AccountCounter.Mode.EXACT : AccountCounter.Mode.APPROXIMATE;
+    Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("accounts", accountCounter.getCount(mode));
+    stats.put("accountsMode", mode.name().toLowerCase());
+    stats.put("accountsReconciledAt", accountCounter.getLastReconciledAt());
+    stats.put("accountCacheSize", accountCache.size());
+    stats.put("accountCacheHits", accountCache.getHitCount());
+    stats.put("accountCacheMisses", accountCache.getMissCount());
+    return stats;
+  }
+}
@@ -1,28 +1,46 @@
 package com.global.config;
 
-import org.modelmapper.ModelMapper;
-import org.modelmapper.convention.NameTokenizers;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+import org.springframework.security.crypto.scrypt.SCryptPasswordEncoder;
+
+import java.util.HashMap;
+import java.util.Map;
 
 @Configuration
 public class AppConfig {
 
     // PasswordEncoder 객체를 반환하는 메소드
+    //  ㄴ bcrypt 계산은 BoundedPasswordEncoder 의 전용 thread pool 에서 진행함
+    //  ㄴ app.security.bcrypt-strength 로 cost 를 설정함
+    //     (cost 가 낮은 예전 hash 는 로그인할 때 새 cost 로 다시 저장됨)
+    //  ㄴ 요청 thread 는 bcrypt 결과를 기다리므로 대기열은 thread 수의 2 배로 작게 둠 (설정하지 않은 경우)
+    //     ㄴ 그 이상 몰리면 요청 thread 를 잡고 있지 않고 바로 503 으로 응답함
     @Bean
-    public PasswordEncoder passwordEncoder(){
-      // bcrypt encoder 를 사용하게 됨
-      return PasswordEncoderFactories.createDelegatingPasswordEncoder();
-    }
-
-    @Bean
-    public ModelMapper modelMapper(){
-        ModelMapper modelMapper = new ModelMapper();
-        modelMapper.getConfiguration()
-                   .setDestinationNameTokenizer(NameTokenizers.UNDERSCORE)
-                   .setSourceNameTokenizer(NameTokenizers.UNDERSCORE);
-        return modelMapper;
+    public BoundedPasswordEncoder passwordEncoder(
+        @Value("${app.security.bcrypt-strength:10}") int bcryptStrength,
+        @Value("${app.security.hash-threads:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int threads,
+        @Value("${app.security.hash-queue-capacity:0}") int queueCapacity,
+        @Value("${app.security.hash-timeout-ms:5000}") long timeoutMillis,
+        @Value("${app.security.hash-retry-after-seconds:5}") long retryAfterSeconds){
+      // PasswordEncoderFactories.createDelegatingPasswordEncoder() 와 같은 구성이지만
+      // bcrypt 의 strength 를 설정할 수 있도록 직접 만듦
+      String idForEncode = "bcrypt";
+      Map<String, PasswordEncoder> encoders = new HashMap<>();
+      encoders.put(idForEncode, new BCryptPasswordEncoder(bcryptStrength));
+      encoders.put("noop", NoOpPasswordEncoder.getInstance());
+      encoders.put("pbkdf2", new Pbkdf2PasswordEncoder());
+      encoders.put("scrypt", new SCryptPasswordEncoder());
+      encoders.put("argon2", new Argon2PasswordEncoder());
+      PasswordEncoder delegating = new DelegatingPasswordEncoder(idForEncode, encoders);
+      int capacity = queueCapacity > 0 ? queueCapacity : threads * 2;
+      return new BoundedPasswordEncoder(delegating, threads, capacity, timeoutMillis, retryAfterSeconds);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,12 @@
+package com.global.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+// @Async 어노테이션을 설정한 메소드가 별도의 thread 에서 실행되도록 함
+//  ㄴ ZoneDataLoader : application 이 시작된 후 background 에서 Zone data 를 읽어옴
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+}
@@ -0,0 +1,26 @@
+package com.global.config;
+
+import com.global.image.BlobStore;
+import com.global.image.FileSystemBlobStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/*
+  프로필 이미지 thumbnail 을 저장하는 BlobStore
+    ㄴ 기본값은 local file system (app.image.store=file, 설정하지 않아도 사용함)
+    ㄴ 다른 저장소(S3 등)를 사용하려면 app.image.store 를 다른 값으로 설정하고 BlobStore Bean 을 등록함
+       ㄴ BlobStore Bean 이 이미 있으면 FileSystemBlobStore 는 만들지 않음
+*/
+@Configuration
+@ConditionalOnProperty(name = "app.image.store", havingValue = "file", matchIfMissing = true)
+public class BlobStoreConfig {
+
+  @Bean
+  @ConditionalOnMissingBean(BlobStore.class)
+  public FileSystemBlobStore blobStore(@Value("${app.image.store-dir:blob-store}") String root) {
+    return new FileSystemBlobStore(root);
+  }
+}
@@ -0,0 +1,184 @@
+package com.global.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+  bcrypt 계산(encode, matches)을 전용 thread pool 에서 실행하는 PasswordEncoder
+    ㄴ 동시에 계산하는 개수를 threads 개로 제한해서
+       가입이 몰려도 CPU 를 bcrypt 가 다 차지하지 않도록 함
+    ㄴ 대기열(queueCapacity)이 가득 차거나 timeout 안에 끝나지 않으면
+       기다리지 않고 PasswordHashingBusyException 을 발생시킴 (503 + Retry-After)
+    ㄴ 호출한 thread(Tomcat 의 요청 thread)는 결과가 나올 때까지 (최대 timeout) 기다림
+       ㄴ 기다리는 요청 thread 는 최대 threads + queueCapacity 개이므로
+          대기열은 threads 의 몇 배 정도로 작게 둬서 요청 thread 가 bcrypt 를 기다리느라 모자라지 않도록 함 (AppConfig)
+    ㄴ timeout 되면 future.cancel(true) 를 호출하지만 bcrypt 는 interrupt 를 확인하지 않음
+       ㄴ 대기열에 있던 작업은 실행되지 않고 빠지지만, 이미 계산 중인 작업은 끝까지 실행되어 그 동안 thread 를 돌려받지 못함
+          (timeout 이 pool 의 여유를 만들어 주지는 않음 : 요청 thread 가 오래 기다리지 않도록 할 뿐임)
+  회원가입, 비밀번호 변경, 로그인 모두 이 PasswordEncoder 를 사용함
+  MeterBinder 이므로 Spring Boot 가 MeterRegistry 에 등록함
+    ㄴ app.password.hash (timer) : operation(encode / matches), outcome(success / busy / error)
+       ㄴ busy : 대기열이 가득 찼거나 timeout 안에 끝나지 않음
+    ㄴ app.password.hash.queue, app.password.hash.active (gauge)
+*/
+public class BoundedPasswordEncoder implements PasswordEncoder, MeterBinder, DisposableBean {
+
+  private final PasswordEncoder delegate;
+  private final ThreadPoolExecutor executor;
+  private final long timeoutMillis;
+  private final long retryAfterSeconds;
+
+  private final AtomicLong hashCount = new AtomicLong();
+  private final AtomicLong hashNanos = new AtomicLong();
+  private final AtomicLong rejectedCount = new AtomicLong();
+
+  // bindTo() 가 호출되기 전에는 기록하지 않음
+  private volatile MeterRegistry meterRegistry;
+
+  public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity,
+                                long timeoutMillis, long retryAfterSeconds) {
+    this.delegate = delegate;
+    this.timeoutMillis = timeoutMillis;
+    this.retryAfterSeconds = retryAfterSeconds;
+    AtomicInteger sequence = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                                           new ArrayBlockingQueue<>(queueCapacity),
+                                           runnable -> {
+                                             Thread thread = new Thread(runnable, "password-hash-" + sequence.incrementAndGet());
+                                             thread.setDaemon(true);
+                                             return thread;
+                                           },
+                                           new ThreadPoolExecutor.AbortPolicy());
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return execute("encode", () -> delegate.encode(rawPassword));
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    return execute("matches", () -> delegate.matches(rawPassword, encodedPassword));
+  }
+
+  // hash 의 cost(strength)가 현재 설정보다 낮으면 true
+  //  ㄴ 로그인에 성공했을 때 Spring Security 가 새 설정으로 다시 encode 해서 저장함
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    return delegate.upgradeEncoding(encodedPassword);
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder("app.password.hash.queue", this, BoundedPasswordEncoder::getQueueDepth)
+         .description("bcrypt 계산을 기다리는 요청 수")
+         .register(registry);
+    Gauge.builder("app.password.hash.active", this, BoundedPasswordEncoder::getActiveCount)
+         .description("bcrypt 를 계산 중인 thread 수")
+         .register(registry);
+    this.meterRegistry = registry;
+  }
+
+  // 대기 시간을 포함해서 호출한 thread 가 기다린 시간을 기록함
+  private <T> T execute(String operation, Callable<T> task) {
+    long start = System.nanoTime();
+    String outcome = "error";
+    try {
+      T result = execute(task);
+      outcome = "success";
+      return result;
+    } catch (PasswordHashingBusyException e) {
+      outcome = "busy";
+      throw e;
+    } finally {
+      record(operation, outcome, System.nanoTime() - start);
+    }
+  }
+
+  private void record(String operation, String outcome, long nanos) {
+    MeterRegistry registry = this.meterRegistry;
+    if (registry != null) {
+      Timer.builder("app.password.hash")
+           .tag("operation", operation)
+           .tag("outcome", outcome)
+           .register(registry)
+           .record(nanos, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  private <T> T execute(Callable<T> task) {
+    Future<T> future;
+    try {
+      future = executor.submit(() -> {
+        long started = System.nanoTime();
+        try {
+          return task.call();
+        } finally {
+          hashNanos.addAndGet(System.nanoTime() - started);
+          hashCount.incrementAndGet();
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      rejectedCount.incrementAndGet();
+      throw new PasswordHashingBusyException("password hashing 대기열이 가득 찼습니다", retryAfterSeconds);
+    }
+
+    try {
+      return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      // 대기열에 있으면 빠지고, 계산 중이면 끝까지 실행됨 (bcrypt 는 interrupt 를 확인하지 않음)
+      future.cancel(true);
+      rejectedCount.incrementAndGet();
+      throw new PasswordHashingBusyException("password hashing 이 제한 시간 안에 끝나지 않았습니다", retryAfterSeconds);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("password hashing 중에 interrupt 되었습니다", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
+
+  public int getQueueDepth() {
+    return executor.getQueue().size();
+  }
+
+  public int getActiveCount() {
+    return executor.getActiveCount();
+  }
+
+  public long getHashCount() {
+    return hashCount.get();
+  }
+
+  public long getHashNanos() {
+    return hashNanos.get();
+  }
+
+  public long getRejectedCount() {
+    return rejectedCount.get();
+  }
+
+  @Override
+  public void destroy() {
+    executor.shutdown();
+  }
+}
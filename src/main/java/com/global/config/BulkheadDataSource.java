@@ -0,0 +1,142 @@
+package com.global.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+  동시에 사용할 수 있는 DB connection 수를 Semaphore 로 제한하는 DataSource
+    ㄴ virtual thread 는 요청마다 하나씩 만들어지므로 요청이 몰리면 수천 개의 thread 가 동시에 connection 을 기다릴 수 있음
+       connection pool 앞에서 permits 개만 통과시키고 나머지는 순서대로(fair) 기다리게 함
+    ㄴ acquireTimeout 안에 permit 을 얻지 못하면 SQLTransientConnectionException 을 발생시킴
+    ㄴ permit 은 Connection.close() 를 호출할 때 반환함 (여러 번 호출해도 한 번만 반환함)
+  VirtualThreadConfig 에서 app.threads.mode=virtual 인 경우에만 DataSource Bean 을 이 객체로 감쌈
+  metric
+    ㄴ app.jdbc.bulkhead.acquire (timer) : permit 을 얻을 때까지 기다린 시간, outcome(success / timeout)
+    ㄴ app.jdbc.bulkhead.active, app.jdbc.bulkhead.waiting (gauge)
+*/
+public class BulkheadDataSource extends DelegatingDataSource implements MeterBinder {
+
+  private final Semaphore permits;
+  private final int maxPermits;
+  private final long acquireTimeoutMillis;
+
+  private volatile MeterRegistry meterRegistry;
+
+  public BulkheadDataSource(DataSource target, int maxPermits, long acquireTimeoutMillis) {
+    super(target);
+    this.permits = new Semaphore(maxPermits, true);
+    this.maxPermits = maxPermits;
+    this.acquireTimeoutMillis = acquireTimeoutMillis;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    acquire();
+    return guard(this::obtainConnection);
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    acquire();
+    return guard(() -> obtainTargetDataSource().getConnection(username, password));
+  }
+
+  public int getActiveCount() {
+    return maxPermits - permits.availablePermits();
+  }
+
+  public int getWaitingCount() {
+    return permits.getQueueLength();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder("app.jdbc.bulkhead.active", this, BulkheadDataSource::getActiveCount)
+         .register(registry);
+    Gauge.builder("app.jdbc.bulkhead.waiting", this, BulkheadDataSource::getWaitingCount)
+         .register(registry);
+    this.meterRegistry = registry;
+  }
+
+  private Connection obtainConnection() throws SQLException {
+    return obtainTargetDataSource().getConnection();
+  }
+
+  private void acquire() throws SQLException {
+    long start = System.nanoTime();
+    boolean acquired;
+    try {
+      acquired = permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLTransientConnectionException("DB connection 을 기다리는 중에 중단되었습니다", e);
+    }
+    record(acquired ? "success" : "timeout", System.nanoTime() - start);
+    if (!acquired) {
+      throw new SQLTransientConnectionException("DB connection 을 " + acquireTimeoutMillis
+                                                + " ms 동안 얻지 못했습니다 (동시 사용 " + maxPermits + " 개)");
+    }
+  }
+
+  // connection 을 얻지 못하면 permit 을 바로 반환하고, 얻으면 close() 할 때 반환하도록 감쌈
+  private Connection guard(ConnectionSupplier supplier) throws SQLException {
+    Connection connection;
+    try {
+      connection = supplier.get();
+    } catch (SQLException | RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+    AtomicBoolean released = new AtomicBoolean();
+    return (Connection) Proxy.newProxyInstance(
+      Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+      (proxy, method, args) -> {
+        if ("close".equals(method.getName()) && method.getParameterCount() == 0) {
+          try {
+            connection.close();
+          } finally {
+            if (released.compareAndSet(false, true)) {
+              permits.release();
+            }
+          }
+          return null;
+        }
+        if ("unwrap".equals(method.getName()) && args[0] == Connection.class) {
+          return connection;
+        }
+        try {
+          return method.invoke(connection, args);
+        } catch (InvocationTargetException e) {
+          throw e.getTargetException();
+        }
+      });
+  }
+
+  private void record(String outcome, long nanos) {
+    MeterRegistry registry = meterRegistry;
+    if (registry != null) {
+      Timer.builder("app.jdbc.bulkhead.acquire")
+           .tag("outcome", outcome)
+           .register(registry)
+           .record(nanos, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  @FunctionalInterface
+  private interface ConnectionSupplier {
+    Connection get() throws SQLException;
+  }
+}
@@ -0,0 +1,25 @@
+package com.global.config;
+
+import com.global.metrics.StatementCountInspector;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/*
+  Micrometer metric 설정
+    ㄴ OperationMetricsAspect : service / repository / validator 호출 시간
+    ㄴ StatementCountFilter   : 요청당 Hibernate SQL 개수
+    ㄴ MeterBinder 를 구현한 Bean (AccountCache, BoundedPasswordEncoder, RateLimitFilter, FileSessionRepository)
+       은 Spring Boot 가 자동으로 등록함
+  /actuator/prometheus 에서 Prometheus 형식으로 확인할 수 있음
+*/
+@Configuration
+public class MetricsConfig {
+
+  // Hibernate 가 SQL 을 실행할 때마다 StatementCountInspector 를 거치도록 함
+  @Bean
+  public HibernatePropertiesCustomizer statementCountCustomizer() {
+    return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new StatementCountInspector());
+  }
+}
@@ -0,0 +1,18 @@
+package com.global.config;
+
+// password hashing 을 처리하는 thread pool 의 대기열이 가득 찬 경우 발생하는 예외
+//  ㄴ 503 (Service Unavailable) 응답으로 바꿈
+//     Controller : PasswordHashingExceptionHandler, 로그인 등 Spring Security filter : PasswordHashingBusyFilter
+public class PasswordHashingBusyException extends RuntimeException {
+
+  private final long retryAfterSeconds;
+
+  public PasswordHashingBusyException(String message, long retryAfterSeconds) {
+    super(message);
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+
+  public long getRetryAfterSeconds() {
+    return retryAfterSeconds;
+  }
+}
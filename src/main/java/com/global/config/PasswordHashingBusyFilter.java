@@ -0,0 +1,51 @@
+package com.global.config;
+
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/*
+  Spring Security filter 안에서 발생한 PasswordHashingBusyException 을 503 + Retry-After 로 바꾸는 filter
+    ㄴ 로그인(form login)의 비밀번호 확인은 DaoAuthenticationProvider 가 Security filter 안에서 실행하므로
+       Controller 에만 적용되는 PasswordHashingExceptionHandler 로는 처리되지 않음
+       (AuthenticationException 이 아니므로 Spring Security 도 처리하지 않고 500 이 됨)
+    ㄴ Spring Security filter chain 보다 먼저 실행되도록 순서를 앞에 둠
+*/
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 1)
+public class PasswordHashingBusyFilter extends OncePerRequestFilter {
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                  FilterChain filterChain) throws ServletException, IOException {
+    try {
+      filterChain.doFilter(request, response);
+    } catch (ServletException | RuntimeException e) {
+      PasswordHashingBusyException busy = findBusy(e);
+      if (busy == null || response.isCommitted()) {
+        throw e;
+      }
+      response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(busy.getRetryAfterSeconds()));
+      response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "요청이 많아서 처리할 수 없습니다. 잠시 후에 다시 시도해 주세요.");
+    }
+  }
+
+  // InternalAuthenticationServiceException, NestedServletException 등으로 감싸져 있을 수 있음
+  private static PasswordHashingBusyException findBusy(Throwable e) {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof PasswordHashingBusyException) {
+        return (PasswordHashingBusyException) cause;
+      }
+    }
+    return null;
+  }
+}
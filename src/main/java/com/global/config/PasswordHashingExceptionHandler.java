@@ -0,0 +1,21 @@
+package com.global.config;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+
+// Controller 에서 password hashing 대기열이 가득 차서 예외가 발생하면
+// 503 응답과 함께 몇 초 후에 다시 시도하라고(Retry-After) 알려줌
+//  ㄴ 로그인처럼 Spring Security filter 안에서 발생한 예외는 PasswordHashingBusyFilter 에서 처리함
+@ControllerAdvice
+public class PasswordHashingExceptionHandler {
+
+  @ExceptionHandler(PasswordHashingBusyException.class)
+  public ResponseEntity<String> handleBusy(PasswordHashingBusyException e) {
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                         .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                         .body("요청이 많아서 처리할 수 없습니다. 잠시 후에 다시 시도해 주세요.");
+  }
+}
@@ -0,0 +1,71 @@
+package com.global.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/*
+  virtual thread 가 carrier thread 에 고정(pinning)되는 것을 찾아서 log 로 남기는 객체
+    ㄴ synchronized 블록 / 메소드 안에서 block(DB, file, network I/O, lock 대기)되면
+       virtual thread 가 carrier thread 를 놓지 못해서 다른 virtual thread 가 실행되지 못함
+    ㄴ JFR 의 jdk.VirtualThreadPinned event 를 application 안에서 읽음 (JDK 21 이상)
+       threshold 보다 오래 고정된 경우만 기록됨
+    ㄴ stack trace 에서 고정시킨 위치를 찾아서 warn log 로 남기고 app.threads.virtual.pinned counter 를 증가시킴
+       (우리 code 뿐 아니라 JDBC driver 등 library 의 synchronized 도 찾을 수 있음)
+  VirtualThreadConfig 에서 app.threads.mode=virtual 인 경우에만 Bean 으로 등록함
+*/
+@Slf4j
+public class PinnedThreadMonitor implements DisposableBean {
+
+  static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+  private static final int MAX_FRAMES = 12;
+
+  private final RecordingStream recordingStream;
+  private final Counter pinnedCounter;
+
+  public PinnedThreadMonitor(MeterRegistry meterRegistry, Duration threshold) {
+    this.pinnedCounter = Counter.builder("app.threads.virtual.pinned").register(meterRegistry);
+    this.recordingStream = new RecordingStream();
+    recordingStream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+    recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+    recordingStream.startAsync();
+    log.info("virtual thread pinning 을 감시합니다 (threshold {} ms)", threshold.toMillis());
+  }
+
+  private void onPinned(RecordedEvent event) {
+    pinnedCounter.increment();
+    if (log.isWarnEnabled()) {
+      log.warn("virtual thread 가 {} ms 동안 carrier thread 에 고정되었습니다 ({})\n{}",
+               event.getDuration().toMillis(),
+               event.getThread() == null ? "unknown" : event.getThread().getJavaName(),
+               format(event.getStackTrace()));
+    }
+  }
+
+  private static String format(RecordedStackTrace stackTrace) {
+    if (stackTrace == null) {
+      return "\t(stack trace 없음)";
+    }
+    List<RecordedFrame> frames = stackTrace.getFrames();
+    return frames.stream()
+                 .limit(MAX_FRAMES)
+                 .map(frame -> "\tat " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                               + "(line " + frame.getLineNumber() + ")")
+                 .collect(Collectors.joining("\n"));
+  }
+
+  @Override
+  public void destroy() {
+    recordingStream.close();
+  }
+}
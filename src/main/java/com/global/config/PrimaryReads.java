@@ -0,0 +1,49 @@
+package com.global.config;
+
+import java.util.function.Supplier;
+
+/*
+  readOnly transaction 이라도 replica 대신 primary 에서 읽도록 표시하는 helper (ReplicaRoutingDataSource)
+    ㄴ 메모리에 오래 보관하는 cache / index 를 채우는 조회에 사용함
+       (AccountCache, AccountNameFilter, ZoneService 의 index, TagService 의 사전)
+       ㄴ replica 에서 읽으면 복제 지연 동안의 오래된 data 가 ttl 이나 다음 rebuild 까지 남고
+          cache hit 는 ReadYourWrites 를 거치지 않으므로 방금 변경한 사용자에게도 예전 값이 보임
+    ㄴ 현재 thread 에만 적용됨 : 이미 replica connection 을 얻은 transaction 은 그대로 replica 에서 읽음
+    ㄴ ReplicaRoutingConfig 를 사용하지 않으면 아무 일도 하지 않음 (DataSource 가 하나뿐)
+*/
+public final class PrimaryReads {
+
+  // 중첩해서 호출할 수 있으므로 깊이를 기억함
+  private static final ThreadLocal<int[]> DEPTH = new ThreadLocal<>();
+
+  private PrimaryReads() {
+  }
+
+  public static <T> T call(Supplier<T> reader) {
+    int[] depth = DEPTH.get();
+    if (depth == null) {
+      depth = new int[1];
+      DEPTH.set(depth);
+    }
+    depth[0]++;
+    try {
+      return reader.get();
+    } finally {
+      if (--depth[0] == 0) {
+        DEPTH.remove();
+      }
+    }
+  }
+
+  public static void run(Runnable reader) {
+    call(() -> {
+      reader.run();
+      return null;
+    });
+  }
+
+  static boolean isActive() {
+    int[] depth = DEPTH.get();
+    return depth != null && depth[0] > 0;
+  }
+}
@@ -0,0 +1,97 @@
+package com.global.config;
+
+import com.global.account.UserAccount;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.HttpSession;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/*
+  사용자가 data 를 변경한 후 window 동안은 그 사용자의 조회를 primary 로 보내도록 기억하는 객체 (read-your-writes)
+    ㄴ replica 는 primary 보다 늦게 반영되므로, 프로필을 수정하고 바로 다시 읽으면 예전 값이 보일 수 있음
+    ㄴ 쓰기 transaction 이 commit 되면 현재 사용자를 기억함
+       ㄴ 로그인한 사용자 : account id
+       ㄴ 요청에 session 이 있으면 session id 도 같이 기억함
+          (회원 가입, 이메일 인증처럼 commit 할 때 아직 로그인하지 않은 경우)
+    ㄴ 다른 사용자의 조회는 그대로 replica 로 보냄
+  window 는 replica 의 최대 허용 지연(max-lag-ms)보다 길게 설정해야 함
+*/
+public class ReadYourWrites {
+
+  private final long windowNanos;
+  // 사용자 key -> primary 를 사용해야 하는 시각 (System.nanoTime)
+  private final ConcurrentHashMap<String, Long> stickyUntil = new ConcurrentHashMap<>();
+
+  public ReadYourWrites(long windowMillis) {
+    this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+  }
+
+  // 현재 transaction 이 commit 된 후에 현재 사용자를 기억함 (rollback 되면 기억하지 않음)
+  public void recordWriteOnCommit() {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        long until = System.nanoTime() + windowNanos;
+        for (String key : currentKeys()) {
+          stickyUntil.put(key, until);
+        }
+      }
+    });
+  }
+
+  // 현재 사용자가 window 안에 data 를 변경했으면 true
+  public boolean isSticky() {
+    long now = System.nanoTime();
+    for (String key : currentKeys()) {
+      Long until = stickyUntil.get(key);
+      if (until != null) {
+        if (until - now > 0) {
+          return true;
+        }
+        stickyUntil.remove(key, until);
+      }
+    }
+    return false;
+  }
+
+  public int size() {
+    return stickyUntil.size();
+  }
+
+  // window 가 지난 key 를 정리함 (기본값 : 1 분마다)
+  @Scheduled(fixedDelayString = "${app.datasource.replica.sticky-sweep-interval-ms:60000}")
+  public void sweep() {
+    long now = System.nanoTime();
+    stickyUntil.entrySet().removeIf(entry -> entry.getValue() - now <= 0);
+  }
+
+  private static List<String> currentKeys() {
+    List<String> keys = new ArrayList<>(2);
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication != null && authentication.getPrincipal() instanceof UserAccount) {
+      keys.add("account:" + ((UserAccount) authentication.getPrincipal()).getAccountPrincipal().getId());
+    }
+    RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+    if (requestAttributes instanceof ServletRequestAttributes) {
+      // session 을 새로 만들지 않음
+      HttpSession session = ((ServletRequestAttributes) requestAttributes).getRequest().getSession(false);
+      if (session != null) {
+        keys.add("session:" + session.getId());
+      }
+    }
+    return keys;
+  }
+}
@@ -0,0 +1,28 @@
+package com.global.config;
+
+import com.global.account.WriteBehindTokenRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/*
+  remember-me(자동 로그인) token 을 저장하는 PersistentTokenRepository
+    ㄴ Spring Security 설정에서 JdbcTokenRepositoryImpl 대신 이 Bean 을 지정함
+       http.rememberMe().userDetailsService(accountService).tokenRepository(writeBehindTokenRepository)
+    ㄴ 자동 로그인할 때의 token 교체(도용 확인)는 그대로 Spring Security 가 하고 바로 DB 에 씀
+    ㄴ 이미 로그인한 요청은 RememberMeRefreshFilter 가 token 은 바꾸지 않고 last_used 만 갱신함
+       ㄴ WriteBehindTokenRepository 가 메모리에 모아 두었다가 flush-interval-ms 마다 batch UPDATE 로 반영함
+  token-validity-seconds 는 rememberMe().tokenValiditySeconds(...) 와 같은 값이어야 함 (기본값 : 14 일)
+*/
+@Configuration
+public class RememberMeConfig {
+
+  @Bean
+  public WriteBehindTokenRepository writeBehindTokenRepository(
+    JdbcTemplate jdbcTemplate,
+    @Value("${app.remember-me.max-cached-series:100000}") int maxCachedSeries,
+    @Value("${app.remember-me.token-validity-seconds:1209600}") long tokenValiditySeconds) {
+    return new WriteBehindTokenRepository(jdbcTemplate, maxCachedSeries, tokenValiditySeconds);
+  }
+}
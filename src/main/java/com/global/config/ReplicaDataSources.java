@@ -0,0 +1,167 @@
+package com.global.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+  primary DataSource 와 read replica DataSource 들을 가지고 있는 객체
+    ㄴ nextReplica() : 사용할 수 있는 replica 를 round-robin 으로 하나 고름 (없으면 null)
+       ㄴ 사용할 수 있는 replica : 연결이 되고(up), 복제 지연(lag)이 maxLagMillis 이하인 replica
+    ㄴ checkReplicas() : 주기적으로 모든 replica 에 접속해서 up 여부와 lag 을 갱신함
+       ㄴ lagQuery 가 비어 있으면 lag 은 0 으로 봄 (연결만 확인함)
+       ㄴ 조회 중에 replica connection 을 얻지 못하면 ReplicaRoutingDataSource 가 markDown() 을 호출함
+          다음 checkReplicas() 에서 연결되면 다시 사용함
+    ㄴ DataSource Bean 이 아니므로 BulkheadDataSource 등 DataSource 를 감싸는 BeanPostProcessor 의 대상이 아님
+  metric
+    ㄴ app.datasource.replica.up (gauge, 1 / 0), app.datasource.replica.lag (gauge, ms) : replica 마다 하나씩
+*/
+@Slf4j
+public class ReplicaDataSources implements MeterBinder, DisposableBean {
+
+  private final DataSource primary;
+  private final Map<String, Replica> replicas;
+  private final List<Replica> replicaList;
+  private final long maxLagMillis;
+  private final String lagQuery;
+  private final int checkTimeoutSeconds;
+
+  private final AtomicInteger next = new AtomicInteger();
+
+  public ReplicaDataSources(DataSource primary, Map<String, DataSource> replicas,
+                            long maxLagMillis, String lagQuery, int checkTimeoutSeconds) {
+    this.primary = primary;
+    Map<String, Replica> map = new LinkedHashMap<>();
+    replicas.forEach((name, dataSource) -> map.put(name, new Replica(name, dataSource)));
+    this.replicas = Collections.unmodifiableMap(map);
+    this.replicaList = List.copyOf(map.values());
+    this.maxLagMillis = maxLagMillis;
+    this.lagQuery = lagQuery;
+    this.checkTimeoutSeconds = checkTimeoutSeconds;
+  }
+
+  public DataSource getPrimary() {
+    return primary;
+  }
+
+  public Map<String, Replica> getReplicas() {
+    return replicas;
+  }
+
+  public Replica nextReplica() {
+    int size = replicaList.size();
+    for (int i = 0; i < size; i++) {
+      Replica replica = replicaList.get(Math.floorMod(next.getAndIncrement(), size));
+      if (replica.isUsable()) {
+        return replica;
+      }
+    }
+    return null;
+  }
+
+  public void markDown(Replica replica, Exception cause) {
+    if (replica.up) {
+      log.warn("replica '{}' 에 연결하지 못해서 primary 를 사용합니다 : {}", replica.name, cause.toString());
+    }
+    replica.up = false;
+  }
+
+  // 기본값 : 2 초마다
+  @Scheduled(fixedDelayString = "${app.datasource.replica.check-interval-ms:2000}",
+             initialDelayString = "${app.datasource.replica.check-interval-ms:2000}")
+  public void checkReplicas() {
+    for (Replica replica : replicaList) {
+      try (Connection connection = replica.dataSource.getConnection()) {
+        long lag = queryLag(connection);
+        if (!replica.up) {
+          log.info("replica '{}' 에 다시 연결되었습니다", replica.name);
+        }
+        if (lag > maxLagMillis && replica.lagMillis <= maxLagMillis) {
+          log.warn("replica '{}' 의 복제 지연이 {} ms 이므로 primary 를 사용합니다 (최대 {} ms)", replica.name, lag, maxLagMillis);
+        }
+        replica.lagMillis = lag;
+        replica.up = true;
+      } catch (SQLException | RuntimeException e) {
+        markDown(replica, e);
+      }
+    }
+  }
+
+  private long queryLag(Connection connection) throws SQLException {
+    if (!StringUtils.hasText(lagQuery)) {
+      if (!connection.isValid(checkTimeoutSeconds)) {
+        throw new SQLException("connection 이 유효하지 않습니다");
+      }
+      return 0;
+    }
+    try (Statement statement = connection.createStatement()) {
+      statement.setQueryTimeout(checkTimeoutSeconds);
+      try (ResultSet resultSet = statement.executeQuery(lagQuery)) {
+        // 결과가 없거나 null 이면 (replica 가 아닌 server 등) 지연이 없는 것으로 봄
+        return resultSet.next() ? Math.max(0, resultSet.getLong(1)) : 0;
+      }
+    }
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    for (Replica replica : replicaList) {
+      Gauge.builder("app.datasource.replica.up", replica, r -> r.up ? 1 : 0)
+           .tag("replica", replica.name)
+           .register(registry);
+      Gauge.builder("app.datasource.replica.lag", replica, r -> r.lagMillis)
+           .tag("replica", replica.name)
+           .baseUnit("milliseconds")
+           .register(registry);
+    }
+  }
+
+  @Override
+  public void destroy() throws IOException {
+    close(primary);
+    for (Replica replica : replicaList) {
+      close(replica.dataSource);
+    }
+  }
+
+  private static void close(DataSource dataSource) throws IOException {
+    if (dataSource instanceof Closeable) {
+      ((Closeable) dataSource).close();
+    }
+  }
+
+  @Getter
+  public final class Replica {
+    private final String name;
+    private final DataSource dataSource;
+    private volatile boolean up = true;
+    private volatile long lagMillis;
+
+    private Replica(String name, DataSource dataSource) {
+      this.name = name;
+      this.dataSource = dataSource;
+    }
+
+    public boolean isUsable() {
+      return up && lagMillis <= maxLagMillis;
+    }
+  }
+}
@@ -0,0 +1,109 @@
+package com.global.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+  app.datasource.replica.enabled=true 이면 @Transactional(readOnly = true) 작업을 read replica 에서 실행함
+    ㄴ 설정하지 않으면 지금처럼 spring.datasource 의 DataSource 하나만 사용함
+    ㄴ primary : spring.datasource.url (spring.datasource.hikari.* 설정도 그대로 사용함)
+       replica : app.datasource.replica.urls 에 ',' 로 구분해서 지정함 (이름은 replica1, replica2 ...)
+    ㄴ AccountRepository, TagRepository, loadUserByUsername() 등 readOnly transaction 은 replica 를 round-robin 으로 사용함
+       ㄴ 연결이 안 되거나 복제 지연이 max-lag-ms 보다 큰 replica 는 건너뜀 (모두 건너뛰면 primary)
+       ㄴ 쓰기 transaction 이 commit 된 후 sticky-window-ms 동안은 그 사용자의 조회도 primary 로 보냄 (ReadYourWrites)
+    ㄴ lag-query : replica 의 복제 지연(ms)을 조회하는 SQL (기본값 : PostgreSQL streaming replication)
+       ㄴ primary 에 변경이 없으면 pg_last_xact_replay_timestamp() 가 갱신되지 않으므로
+          받은 WAL 을 모두 적용한 경우는 지연이 없는 것으로 봄
+       ㄴ 비워 두면 연결만 확인함
+  spring.jpa.open-in-view=false 로 설정해야 함 (설정하지 않으면 application 이 시작되지 않음)
+    ㄴ open-in-view 이면 요청의 첫 transaction 이 얻은 connection 을 EntityManager 가 요청이 끝날 때까지 잡고 있음
+       첫 transaction 이 readOnly 이면 (@CurrentUser 의 AccountCache 조회 등) 이후의 쓰기 transaction 도
+       replica connection 에서 실행되어 실패하고, ReadYourWrites 도 요청마다 한 번만 확인하게 됨
+  Bean 으로 등록하는 DataSource 는 LazyConnectionDataSourceProxy 하나뿐이므로
+  VirtualThreadConfig 의 BulkheadDataSource 는 이 DataSource 전체(primary + replica)를 한 번만 감쌈
+*/
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+  static final String POSTGRESQL_LAG_QUERY =
+    "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+    + " ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 END";
+
+  public ReplicaRoutingConfig(@Value("${spring.jpa.open-in-view:true}") boolean openInView) {
+    if (openInView) {
+      throw new IllegalStateException("app.datasource.replica.enabled=true 이면 spring.jpa.open-in-view=false 로 설정해야 합니다"
+                                      + " (요청 안의 transaction 마다 primary / replica connection 을 따로 얻어야 하므로)");
+    }
+  }
+
+  @Bean
+  public ReplicaDataSources replicaDataSources(
+    DataSourceProperties dataSourceProperties,
+    Environment environment,
+    @Value("${app.datasource.replica.urls}") List<String> urls,
+    @Value("${app.datasource.replica.username:${spring.datasource.username:}}") String username,
+    @Value("${app.datasource.replica.password:${spring.datasource.password:}}") String password,
+    @Value("${app.datasource.replica.max-lag-ms:1000}") long maxLagMillis,
+    @Value("${app.datasource.replica.lag-query:" + POSTGRESQL_LAG_QUERY + "}") String lagQuery,
+    @Value("${app.datasource.replica.check-timeout-seconds:1}") int checkTimeoutSeconds) {
+    Binder binder = Binder.get(environment);
+
+    HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+    primary.setPoolName("primary");
+
+    Map<String, DataSource> replicas = new LinkedHashMap<>();
+    for (String url : urls) {
+      String name = "replica" + (replicas.size() + 1);
+      HikariDataSource replica = DataSourceBuilder.create()
+                                                  .type(HikariDataSource.class)
+                                                  .url(url.trim())
+                                                  .username(username)
+                                                  .password(password)
+                                                  .build();
+      binder.bind("spring.datasource.hikari", Bindable.ofInstance(replica));
+      replica.setPoolName(name);
+      replica.setReadOnly(true);
+      replicas.put(name, replica);
+    }
+    if (replicas.isEmpty()) {
+      throw new IllegalStateException("app.datasource.replica.urls 에 replica 를 하나 이상 지정해야 합니다");
+    }
+    log.info("readOnly transaction 을 replica {} 개에서 실행합니다 (최대 복제 지연 {} ms)", replicas.size(), maxLagMillis);
+    return new ReplicaDataSources(primary, replicas, maxLagMillis, lagQuery, checkTimeoutSeconds);
+  }
+
+  @Bean
+  public ReadYourWrites readYourWrites(@Value("${app.datasource.replica.sticky-window-ms:5000}") long windowMillis) {
+    return new ReadYourWrites(windowMillis);
+  }
+
+  // JPA, JdbcTemplate 등이 사용하는 DataSource
+  //  ㄴ LazyConnectionDataSourceProxy : transaction 의 readOnly 여부가 정해진 후에 실제 connection 을 얻도록 함
+  @Bean
+  @Primary
+  public DataSource dataSource(ReplicaDataSources replicaDataSources, ReadYourWrites readYourWrites,
+                               MeterRegistry meterRegistry) {
+    return new LazyConnectionDataSourceProxy(
+      new ReplicaRoutingDataSource(replicaDataSources, readYourWrites, meterRegistry));
+  }
+}
@@ -0,0 +1,118 @@
+package com.global.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+  transaction 의 readOnly 여부에 따라 primary 또는 replica 의 connection 을 주는 DataSource
+    ㄴ @Transactional(readOnly = true) : ReplicaDataSources.nextReplica() 가 고른 replica
+       ㄴ 사용할 수 있는 replica 가 없거나 (연결 안 됨, 복제 지연) 현재 사용자가 방금 data 를 변경했으면
+          (ReadYourWrites) primary
+       ㄴ replica 의 connection 을 얻지 못하면 그 replica 를 down 으로 표시하고 primary 를 사용함
+    ㄴ PrimaryReads 로 표시한 조회 (cache / index 를 채우는 조회) : readOnly 여도 primary
+    ㄴ 그 밖의 transaction : primary, commit 되면 ReadYourWrites 에 현재 사용자를 기억함
+    ㄴ transaction 밖 : primary
+  readOnly 여부는 transaction 이 시작된 후에 설정되므로
+  반드시 LazyConnectionDataSourceProxy 로 감싸서 첫 SQL 을 실행할 때 connection 을 얻도록 해야 함 (ReplicaRoutingConfig)
+  metric
+    ㄴ app.datasource.route (counter) : target(primary / replica), reason
+       reason : write, read, sticky(read-your-writes), primary-read(PrimaryReads), no-replica, replica-down
+*/
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+  static final String PRIMARY = "primary";
+
+  private final ReplicaDataSources dataSources;
+  private final ReadYourWrites readYourWrites;
+
+  private final Counter writeCounter;
+  private final Counter readCounter;
+  private final Counter stickyCounter;
+  private final Counter primaryReadCounter;
+  private final Counter noReplicaCounter;
+  private final Counter replicaDownCounter;
+
+  public ReplicaRoutingDataSource(ReplicaDataSources dataSources, ReadYourWrites readYourWrites,
+                                  MeterRegistry meterRegistry) {
+    this.dataSources = dataSources;
+    this.readYourWrites = readYourWrites;
+    Map<Object, Object> targets = new HashMap<>();
+    targets.put(PRIMARY, dataSources.getPrimary());
+    dataSources.getReplicas().forEach((name, replica) -> targets.put(name, replica.getDataSource()));
+    setTargetDataSources(targets);
+    setDefaultTargetDataSource(dataSources.getPrimary());
+    setLenientFallback(false);
+    afterPropertiesSet();
+
+    this.writeCounter = routeCounter(meterRegistry, PRIMARY, "write");
+    this.readCounter = routeCounter(meterRegistry, "replica", "read");
+    this.stickyCounter = routeCounter(meterRegistry, PRIMARY, "sticky");
+    this.primaryReadCounter = routeCounter(meterRegistry, PRIMARY, "primary-read");
+    this.noReplicaCounter = routeCounter(meterRegistry, PRIMARY, "no-replica");
+    this.replicaDownCounter = routeCounter(meterRegistry, PRIMARY, "replica-down");
+  }
+
+  // VirtualThreadConfig 에서 BulkheadDataSource 의 permit 수를 정할 때 사용함
+  public ReplicaDataSources getDataSources() {
+    return dataSources;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    Object key = determineCurrentLookupKey();
+    ReplicaDataSources.Replica replica = dataSources.getReplicas().get(key);
+    if (replica == null) {
+      return dataSources.getPrimary().getConnection();
+    }
+    Connection connection;
+    try {
+      connection = replica.getDataSource().getConnection();
+    } catch (SQLException | RuntimeException e) {
+      dataSources.markDown(replica, e);
+      replicaDownCounter.increment();
+      return dataSources.getPrimary().getConnection();
+    }
+    readCounter.increment();
+    return connection;
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+      return PRIMARY;
+    }
+    if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+      writeCounter.increment();
+      readYourWrites.recordWriteOnCommit();
+      return PRIMARY;
+    }
+    if (PrimaryReads.isActive()) {
+      primaryReadCounter.increment();
+      return PRIMARY;
+    }
+    if (readYourWrites.isSticky()) {
+      stickyCounter.increment();
+      return PRIMARY;
+    }
+    ReplicaDataSources.Replica replica = dataSources.nextReplica();
+    if (replica == null) {
+      noReplicaCounter.increment();
+      return PRIMARY;
+    }
+    return replica.getName();
+  }
+
+  private static Counter routeCounter(MeterRegistry meterRegistry, String target, String reason) {
+    return Counter.builder("app.datasource.route")
+                  .tag("target", target)
+                  .tag("reason", reason)
+                  .register(meterRegistry);
+  }
+}
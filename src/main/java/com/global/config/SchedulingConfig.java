@@ -0,0 +1,19 @@
+package com.global.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// @Scheduled 어노테이션을 설정한 메소드가 주기적으로 실행되도록 함
+//  ㄴ MailDispatcher : outbox table 에 저장된 메일 전송, 전송이 끝난 메일 삭제
+//  ㄴ FileSessionRepository : 만료된 session file 삭제
+//  ㄴ RateLimitFilter : 오래 사용하지 않은 rate limit key 정리
+//  ㄴ AccountCounter : 가입자 수를 DB 의 count 로 맞춤
+//  ㄴ EmailTokenService : 만료된 이메일 인증 / 로그인 token 삭제
+//  ㄴ WriteBehindTokenRepository : remember-me 의 last_used 를 모아서 반영, 만료된 series 삭제
+//  ㄴ WebNotificationBroker : SSE 연결에 heartbeat 전송, 사용하지 않는 mailbox 정리
+//  ㄴ ReplicaDataSources : replica 연결 / 복제 지연 확인, ReadYourWrites : 지난 key 정리 (replica 를 사용하는 경우)
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+}
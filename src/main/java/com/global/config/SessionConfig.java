@@ -0,0 +1,32 @@
+package com.global.config;
+
+import com.global.session.FileSessionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.session.config.annotation.web.http.EnableSpringHttpSession;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+
+/*
+  HttpSession 을 Tomcat 의 메모리 대신 SessionRepository 에 저장함
+    ㄴ app.session.store=file 일 때만 사용함 (설정하지 않으면 기존처럼 Tomcat 의 메모리에 저장함)
+    ㄴ 다른 저장소(Redis, JDBC ...)를 사용하려면 SessionRepository Bean 만 바꾸면 됨
+  AccountService.login() 에서 설정한 SecurityContext 는
+  HttpSessionSecurityContextRepository 가 session attribute 로 저장하므로 그대로 유지됨
+*/
+@Configuration
+@EnableSpringHttpSession
+@ConditionalOnProperty(name = "app.session.store", havingValue = "file")
+public class SessionConfig {
+
+  @Bean
+  public FileSessionRepository sessionRepository(
+    @Value("${app.session.file.directory:${java.io.tmpdir}/springboot01-sessions}") String directory,
+    @Value("${server.servlet.session.timeout:30m}") Duration timeout,
+    @Value("${app.session.file.sweep-batch-size:500}") int sweepBatchSize) {
+    return new FileSessionRepository(Paths.get(directory), timeout, sweepBatchSize, getClass().getClassLoader());
+  }
+}
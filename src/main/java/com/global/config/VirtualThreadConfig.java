@@ -0,0 +1,135 @@
+package com.global.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/*
+  app.threads.mode=virtual 이면 요청 처리, @Async, @Scheduled 작업을 virtual thread 에서 실행함 (JDK 21 이상)
+    ㄴ 기본값(platform)은 지금까지처럼 Tomcat 의 고정된 worker thread pool 을 사용함
+  virtual 로 설정하면
+    ㄴ Tomcat : 요청마다 새 virtual thread 에서 처리함 (server.tomcat.threads.max 는 사용하지 않음)
+    ㄴ @Async : ZoneDataLoader, AccountCounter 등의 background 작업을 virtual thread 에서 실행함
+    ㄴ @Scheduled : MailDispatcher(SMTP 전송) 등 주기적인 작업을 virtual thread 에서 실행함
+    ㄴ DB : thread 수가 제한되지 않으므로 DataSource 를 BulkheadDataSource 로 감싸서
+            동시에 사용하는 connection 수를 jdbc-permits 개로 제한함 (PostgreSQL 보호)
+            ㄴ jdbc-permits 를 지정하지 않으면 Hikari 의 maximum-pool-size 를 사용함
+               (ReplicaRoutingConfig 를 사용하면 primary 와 replica 를 합쳐서 제한함)
+    ㄴ bcrypt 는 지금처럼 BoundedPasswordEncoder 의 platform thread pool 에서 계산함 (CPU 작업)
+    ㄴ PinnedThreadMonitor 가 carrier thread 에 고정(pinning)된 virtual thread 를 찾아서 log 로 남김
+  pinning 을 피하기 위한 규칙 (platform 으로 실행할 때도 같은 code 를 사용함)
+    ㄴ virtual thread 가 synchronized 안에서 I/O(DB, file, socket)를 기다리면 carrier thread 에 고정되어
+       그 동안 다른 virtual thread 를 실행하지 못함 (JDK 21)
+    ㄴ 그래서 I/O 를 하는 동안 잡고 있어야 하는 lock 은 synchronized 대신 ReentrantLock 을 사용함
+       ㄴ AccountNameFilter, NotificationRecipientService 의 rebuild (DB 조회), FileMailSender (file 쓰기)
+    ㄴ 메모리만 읽고 쓰는 짧은 synchronized 는 그대로 사용함 (AccountCache, WebNotificationBroker 의 알림 보관 등)
+  JDK 21 보다 낮은 version 에서 virtual 로 설정하면 application 이 시작되지 않음
+*/
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "app.threads.mode", havingValue = "virtual")
+public class VirtualThreadConfig {
+
+  public VirtualThreadConfig() {
+    if (!VirtualThreads.isSupported()) {
+      throw new IllegalStateException("app.threads.mode=virtual 은 JDK 21 이상에서만 사용할 수 있습니다 (현재 : "
+                                      + System.getProperty("java.version") + ")");
+    }
+    log.info("요청 처리, @Async, @Scheduled 작업을 virtual thread 에서 실행합니다");
+  }
+
+  @Bean
+  public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+    return protocolHandler -> protocolHandler.setExecutor(VirtualThreads.newThreadPerTaskExecutor("tomcat-vt-"));
+  }
+
+  // @Async 와 Spring MVC 비동기 처리에서 사용하는 executor
+  //  ㄴ virtual thread 는 daemon thread 이므로 application 이 종료될 때 따로 shutdown 하지 않음
+  @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+                AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+  public AsyncTaskExecutor virtualThreadTaskExecutor() {
+    return new TaskExecutorAdapter(VirtualThreads.newThreadPerTaskExecutor("async-vt-"));
+  }
+
+  // @Scheduled 작업은 poolSize 개의 virtual thread 에서 실행함
+  @Bean
+  public ThreadPoolTaskScheduler taskScheduler(@Value("${app.threads.virtual.scheduler-pool-size:4}") int poolSize) {
+    ThreadPoolTaskScheduler taskScheduler = new ThreadPoolTaskScheduler();
+    taskScheduler.setPoolSize(poolSize);
+    taskScheduler.setThreadFactory(VirtualThreads.threadFactory("scheduling-vt-"));
+    return taskScheduler;
+  }
+
+  @Bean(destroyMethod = "destroy")
+  public PinnedThreadMonitor pinnedThreadMonitor(MeterRegistry meterRegistry,
+                                                 @Value("${app.threads.virtual.pinned-threshold-ms:20}") long thresholdMillis) {
+    return new PinnedThreadMonitor(meterRegistry, Duration.ofMillis(thresholdMillis));
+  }
+
+  // DataSource Bean 을 BulkheadDataSource 로 감쌈
+  //  ㄴ static : 다른 Bean 보다 먼저 만들어져야 하는 BeanPostProcessor 이므로
+  @Bean
+  public static BeanPostProcessor bulkheadDataSourcePostProcessor(
+    @Value("${app.threads.virtual.jdbc-permits:0}") int jdbcPermits,
+    @Value("${app.threads.virtual.jdbc-acquire-timeout-ms:30000}") long acquireTimeoutMillis) {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource) || bean instanceof BulkheadDataSource) {
+          return bean;
+        }
+        int permits = jdbcPermits > 0 ? jdbcPermits : totalPoolSize((DataSource) bean);
+        log.info("DataSource '{}' 의 동시 사용 connection 수를 {} 개로 제한합니다", beanName, permits);
+        return new BulkheadDataSource((DataSource) bean, permits, acquireTimeoutMillis);
+      }
+    };
+  }
+
+  // 동시에 사용할 수 있는 connection 수
+  //  ㄴ ReplicaRoutingConfig 를 사용하면 primary 와 replica pool 의 maximum-pool-size 를 합친 값
+  //     (readOnly transaction 은 replica pool 을 사용하므로 primary 만으로 제한하면 replica 를 다 쓰지 못함)
+  private static int totalPoolSize(DataSource dataSource) {
+    try {
+      if (dataSource.isWrapperFor(ReplicaRoutingDataSource.class)) {
+        ReplicaDataSources dataSources = dataSource.unwrap(ReplicaRoutingDataSource.class).getDataSources();
+        int total = maximumPoolSize(dataSources.getPrimary());
+        for (ReplicaDataSources.Replica replica : dataSources.getReplicas().values()) {
+          total += maximumPoolSize(replica.getDataSource());
+        }
+        return total;
+      }
+    } catch (SQLException e) {
+      log.debug("ReplicaRoutingDataSource 를 찾지 못했습니다", e);
+    }
+    return maximumPoolSize(dataSource);
+  }
+
+  // Hikari 의 maximum-pool-size
+  //  ㄴ Hikari 를 찾지 못하면 10
+  private static int maximumPoolSize(DataSource dataSource) {
+    try {
+      if (dataSource.isWrapperFor(HikariDataSource.class)) {
+        return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+      }
+    } catch (SQLException e) {
+      log.debug("Hikari DataSource 를 찾지 못했습니다", e);
+    }
+    return 10;
+  }
+}
@@ -0,0 +1,101 @@
+package com.global.config;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/*
+  virtual thread (JDK 21) 를 만드는 helper
+    ㄴ compile 은 JDK 21 보다 낮은 version 으로도 할 수 있도록 Thread.ofVirtual() 등을 MethodHandle 로 호출함
+    ㄴ JDK 21 보다 낮으면 isSupported() 가 false 이고, 나머지 메소드는 IllegalStateException 을 발생시킴
+*/
+public final class VirtualThreads {
+
+  // Thread.ofVirtual()
+  private static final MethodHandle OF_VIRTUAL;
+  // Thread.Builder.name(String prefix, long start)
+  private static final MethodHandle NAME;
+  // Thread.Builder.factory()
+  private static final MethodHandle FACTORY;
+  // Executors.newThreadPerTaskExecutor(ThreadFactory)
+  private static final MethodHandle NEW_THREAD_PER_TASK_EXECUTOR;
+  // Thread.isVirtual()
+  private static final MethodHandle IS_VIRTUAL;
+
+  static {
+    MethodHandle ofVirtual = null;
+    MethodHandle name = null;
+    MethodHandle factory = null;
+    MethodHandle newThreadPerTaskExecutor = null;
+    MethodHandle isVirtual = null;
+    try {
+      MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+      Class<?> builder = Class.forName("java.lang.Thread$Builder");
+      Class<?> ofVirtualBuilder = Class.forName("java.lang.Thread$Builder$OfVirtual");
+      ofVirtual = lookup.findStatic(Thread.class, "ofVirtual", MethodType.methodType(ofVirtualBuilder));
+      name = lookup.findVirtual(builder, "name", MethodType.methodType(builder, String.class, long.class));
+      factory = lookup.findVirtual(builder, "factory", MethodType.methodType(ThreadFactory.class));
+      newThreadPerTaskExecutor = lookup.findStatic(Executors.class, "newThreadPerTaskExecutor",
+                                                   MethodType.methodType(ExecutorService.class, ThreadFactory.class));
+      isVirtual = lookup.findVirtual(Thread.class, "isVirtual", MethodType.methodType(boolean.class));
+    } catch (ReflectiveOperationException e) {
+      // JDK 21 보다 낮은 version : virtual thread 를 사용할 수 없음
+      ofVirtual = null;
+    }
+    OF_VIRTUAL = ofVirtual;
+    NAME = name;
+    FACTORY = factory;
+    NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+    IS_VIRTUAL = isVirtual;
+  }
+
+  private VirtualThreads() {
+  }
+
+  public static boolean isSupported() {
+    return OF_VIRTUAL != null;
+  }
+
+  // prefix0, prefix1 ... 이름으로 virtual thread 를 만드는 ThreadFactory
+  public static ThreadFactory threadFactory(String prefix) {
+    requireSupported();
+    try {
+      Object builder = OF_VIRTUAL.invoke();
+      builder = NAME.invoke(builder, prefix, 0L);
+      return (ThreadFactory) FACTORY.invoke(builder);
+    } catch (Throwable e) {
+      throw new IllegalStateException("virtual thread factory 를 만들지 못했습니다", e);
+    }
+  }
+
+  // 작업(task)마다 새 virtual thread 에서 실행하는 ExecutorService (pool 이 아님)
+  public static ExecutorService newThreadPerTaskExecutor(String prefix) {
+    ThreadFactory threadFactory = threadFactory(prefix);
+    try {
+      return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(threadFactory);
+    } catch (Throwable e) {
+      throw new IllegalStateException("virtual thread executor 를 만들지 못했습니다", e);
+    }
+  }
+
+  public static boolean isVirtual(Thread thread) {
+    if (!isSupported()) {
+      return false;
+    }
+    try {
+      return (boolean) IS_VIRTUAL.invoke(thread);
+    } catch (Throwable e) {
+      return false;
+    }
+  }
+
+  private static void requireSupported() {
+    if (!isSupported()) {
+      throw new IllegalStateException("virtual thread 는 JDK 21 이상에서만 사용할 수 있습니다 (현재 : "
+                                      + System.getProperty("java.version") + ")");
+    }
+  }
+}
@@ -0,0 +1,49 @@
+package com.global.domain;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/*
+  이메일 인증 / 이메일 로그인 link 에 넣어서 보내는 token
+    ㄴ token 원문은 메일에만 들어가고 DB 에는 SHA-256 hash(hex 64 자)만 저장함
+    ㄴ token hash 로 바로 조회함 (unique index) : Account table 을 조회하지 않음
+    ㄴ 한 번 사용하면 삭제함 (single-use), expiresAt 이 지나면 사용할 수 없고 주기적으로 삭제함
+*/
+@Entity
+@Table(indexes = {
+  @Index(name = "uk_email_token_hash", columnList = "tokenHash", unique = true),
+  @Index(name = "idx_email_token_account_purpose", columnList = "accountId, purpose"),
+  @Index(name = "idx_email_token_expires_at", columnList = "expiresAt")
+})
+@Getter @Setter @EqualsAndHashCode(of = "id")
+@Builder @AllArgsConstructor @NoArgsConstructor
+public class EmailToken {
+
+  @Id @GeneratedValue
+  private Long id;
+
+  @Column(nullable = false, length = 64)
+  private String tokenHash;
+
+  @Column(nullable = false)
+  private Long accountId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 16)
+  private Purpose purpose;
+
+  @Column(nullable = false)
+  private LocalDateTime createdAt;
+
+  @Column(nullable = false)
+  private LocalDateTime expiresAt;
+
+  public enum Purpose {
+    // 회원 가입 이메일 인증 (/check-email-token)
+    SIGN_UP,
+    // 이메일 로그인 (/login-by-email)
+    LOGIN
+  }
+}
@@ -0,0 +1,25 @@
+package com.global.domain;
+
+import lombok.*;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/*
+  Account 의 알림 설정 6 개(studyCreatedByEmail ...)를 하나의 int 에 bit 로 모아서 저장하는 table
+    ㄴ bit 의 순서는 NotificationChannel 의 순서와 같음
+    ㄴ 알림 설정은 이 table 에만 저장함 : settings 화면과 알림을 보낼 때 모두 이 table 을 읽음
+       ㄴ Account 의 study* column 은 예전 설정을 이 table 로 옮길 때만 읽음 (NotificationRecipientService)
+*/
+@Entity
+@Getter @Setter @EqualsAndHashCode(of = "accountId")
+@Builder @AllArgsConstructor @NoArgsConstructor
+public class NotificationPreference {
+
+  @Id
+  private Long accountId;
+
+  @Column(nullable = false)
+  private int channels;
+}
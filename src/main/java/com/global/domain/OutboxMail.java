@@ -0,0 +1,55 @@
+package com.global.domain;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/*
+  보내야 할 이메일을 저장하는 outbox table
+    ㄴ 회원 가입, 이메일 로그인 요청을 처리하는 Transaction 안에서 같이 저장함
+    ㄴ MailDispatcher 가 background 에서 읽어서 모아서(batch) 전송함
+*/
+@Entity
+@Table(indexes = @Index(name = "idx_outbox_mail_status_next_attempt", columnList = "status, nextAttemptAt"))
+@Getter @Setter @EqualsAndHashCode(of = "id")
+@Builder @AllArgsConstructor @NoArgsConstructor
+public class OutboxMail {
+
+  @Id @GeneratedValue
+  private Long id;
+
+  @Column(nullable = false)
+  private String recipient;
+
+  private String subject;
+
+  // 전송할 때까지만 저장함 (token 원문이 들어 있으므로 SENT, FAILED 가 되면 null 로 지움)
+  //  ㄴ @Lob 을 사용하지 않음 : PostgreSQL 에서는 large object(oid)로 저장되어
+  //     column 을 null 로 바꿔도 본문이 pg_largeobject 에 남음
+  @Column(columnDefinition = "text")
+  private String text;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 16)
+  private Status status;
+
+  // 전송을 시도한 횟수
+  private int attempts;
+
+  // 이 시간 이후에 전송을 시도함 (실패하면 점점 늦춰짐)
+  @Column(nullable = false)
+  private LocalDateTime nextAttemptAt;
+
+  @Column(nullable = false)
+  private LocalDateTime createdAt;
+
+  private LocalDateTime sentAt;
+
+  @Column(length = 1000)
+  private String lastError;
+
+  public enum Status {
+    PENDING, SENT, FAILED
+  }
+}
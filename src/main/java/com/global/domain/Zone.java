@@ -6,8 +6,12 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
 
+// (city, province) 로 찾는 query 가 있으므로 unique index 를 만듦
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_zone_city_province", columnNames = {"city", "province"}))
 @Getter @Setter @EqualsAndHashCode(of = "id")
 @Builder @AllArgsConstructor @NoArgsConstructor
 public class Zone {
@@ -22,7 +26,8 @@ public class Zone {
   @Column(nullable = false)
   private String localNameOfCity;
 
-  @Column(nullable = true)
+  // province 가 없으면 "" 를 저장함 (null 이면 (city, province) unique index 가 중복을 막지 못함)
+  @Column(nullable = false)
   private String province;
 
   @Override
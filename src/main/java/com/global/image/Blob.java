@@ -0,0 +1,20 @@
+package com.global.image;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.Optional;
+
+// BlobStore 에 저장된 data 하나
+public interface Blob {
+
+  long size();
+
+  // data 를 target 으로 그대로 전송함 (가능하면 memory 로 복사하지 않고 전송함)
+  void transferTo(WritableByteChannel target) throws IOException;
+
+  // file 로 저장된 경우 file 의 경로 (Tomcat sendfile 로 전송할 때 사용함)
+  default Optional<Path> path() {
+    return Optional.empty();
+  }
+}
@@ -0,0 +1,20 @@
+package com.global.image;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/*
+  내용(content)의 hash 를 key 로 사용하는 저장소
+    ㄴ 같은 내용은 같은 key 로 한 번만 저장됨
+    ㄴ 한 번 저장된 내용은 바뀌지 않으므로 오래 cache 해도 됨
+  기본 구현은 FileSystemBlobStore (local file system, BlobStoreConfig) 이고
+  다른 저장소를 사용하려면 이 interface 를 구현한 Bean 을 등록함
+*/
+public interface BlobStore {
+
+  boolean exists(String key);
+
+  void put(String key, byte[] content) throws IOException;
+
+  Optional<Blob> get(String key) throws IOException;
+}
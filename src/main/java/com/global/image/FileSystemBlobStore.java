@@ -0,0 +1,90 @@
+package com.global.image;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+// BlobStore 의 local file system 구현
+//  ㄴ key 의 앞 두 글자로 directory 를 나눠서 저장함  (ab/abcdef...-128.png)
+//  ㄴ 임시 file 에 먼저 쓰고 이름을 바꿔서 저장하므로 쓰는 도중의 file 이 읽히지 않음
+//  ㄴ BlobStoreConfig 에서 다른 BlobStore Bean 이 없을 때만 Bean 으로 등록함
+public class FileSystemBlobStore implements BlobStore {
+
+  private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-zA-Z._-]+");
+
+  private final Path root;
+
+  public FileSystemBlobStore(String root) {
+    this.root = Paths.get(root).toAbsolutePath();
+  }
+
+  @Override
+  public boolean exists(String key) {
+    return Files.exists(resolve(key));
+  }
+
+  @Override
+  public void put(String key, byte[] content) throws IOException {
+    Path target = resolve(key);
+    if (Files.exists(target)) {
+      // 내용이 같으면 key 도 같으므로 다시 쓸 필요가 없음
+      return;
+    }
+    Files.createDirectories(target.getParent());
+    Path temp = Files.createTempFile(target.getParent(), key, ".tmp");
+    try {
+      Files.write(temp, content);
+      Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  @Override
+  public Optional<Blob> get(String key) throws IOException {
+    Path path = resolve(key);
+    if (!Files.isRegularFile(path)) {
+      return Optional.empty();
+    }
+    long size = Files.size(path);
+    return Optional.of(new Blob() {
+      @Override
+      public long size() {
+        return size;
+      }
+
+      // FileChannel.transferTo : 가능하면 kernel 에서 바로 전송함 (zero-copy)
+      @Override
+      public void transferTo(WritableByteChannel target) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+          long position = 0;
+          long remaining = channel.size();
+          while (remaining > 0) {
+            long transferred = channel.transferTo(position, remaining, target);
+            position += transferred;
+            remaining -= transferred;
+          }
+        }
+      }
+
+      @Override
+      public Optional<Path> path() {
+        return Optional.of(path);
+      }
+    });
+  }
+
+  private Path resolve(String key) {
+    if (!KEY_PATTERN.matcher(key).matches() || key.length() < 2) {
+      throw new IllegalArgumentException("잘못된 key 입니다 : " + key);
+    }
+    return root.resolve(key.substring(0, 2)).resolve(key);
+  }
+}
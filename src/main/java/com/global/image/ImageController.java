@@ -0,0 +1,75 @@
+package com.global.image;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/*
+  프로필 이미지 제공
+    ㄴ /images/{hash}?size=128
+    ㄴ 내용이 바뀌지 않으므로 1 년 동안 cache 하도록 하고 (immutable)
+       ETag 가 같으면 304 (Not Modified) 로 응답함
+    ㄴ Tomcat 이 sendfile 을 지원하면 sendfile 로, 아니면 FileChannel.transferTo 로 전송함
+  static/images/logo.png 와 겹치지 않도록 hash 형식(64 자리 16 진수)만 처리함
+*/
+@Controller
+@RequiredArgsConstructor
+public class ImageController {
+
+  private static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+  private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+  private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+  private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+  private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+  private final BlobStore blobStore;
+
+  @GetMapping("/images/{hash:[0-9a-f]{64}}")
+  public void image(@PathVariable String hash,
+                    @RequestParam(defaultValue = "" + ProfileImageService.DEFAULT_SIZE) int size,
+                    HttpServletRequest request, HttpServletResponse response) throws IOException {
+    int actualSize = ProfileImageService.nearestSize(size);
+    String etag = "\"" + hash + "-" + actualSize + "\"";
+
+    if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+      response.setStatus(HttpStatus.NOT_MODIFIED.value());
+      response.setHeader(HttpHeaders.ETAG, etag);
+      response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+      return;
+    }
+
+    Optional<Blob> found = blobStore.get(ProfileImageService.key(hash, actualSize));
+    if (found.isEmpty()) {
+      response.sendError(HttpStatus.NOT_FOUND.value());
+      return;
+    }
+
+    Blob blob = found.get();
+    response.setContentType(MediaType.IMAGE_PNG_VALUE);
+    response.setContentLengthLong(blob.size());
+    response.setHeader(HttpHeaders.ETAG, etag);
+    response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+
+    Optional<Path> path = blob.path();
+    if (path.isPresent() && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+      // Tomcat 이 응답을 마친 후 file 을 직접 socket 으로 전송함
+      request.setAttribute(SENDFILE_FILENAME, path.get().toString());
+      request.setAttribute(SENDFILE_START, 0L);
+      request.setAttribute(SENDFILE_END, blob.size());
+      return;
+    }
+    blob.transferTo(Channels.newChannel(response.getOutputStream()));
+  }
+}
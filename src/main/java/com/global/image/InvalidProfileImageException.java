@@ -0,0 +1,10 @@
+package com.global.image;
+
+// 프로필 이미지로 사용할 수 없는 값이 넘어온 경우 발생하는 예외 (잘못된 base64, 지원하지 않는 형식, 너무 큰 이미지)
+//  ㄴ SettingsController 에서 profileImage field 의 form error 로 바꿈
+public class InvalidProfileImageException extends RuntimeException {
+
+  public InvalidProfileImageException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,195 @@
+package com.global.image;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.regex.Pattern;
+
+/*
+  프로필 이미지 처리
+    ㄴ settings/profile.html 에서 cropper.js 로 잘라낸 이미지(Data URL)를 한 번만 decoding 해서
+       정해진 크기(SIZES)의 thumbnail 로 줄인 후 BlobStore 에 저장함
+    ㄴ Account 에는 원본 이미지의 hash 만 저장함 (Data URL 문자열을 저장하지 않음)
+    ㄴ 이미지는 ImageController 의 /images/{hash}?size=... 로 제공함
+    ㄴ decoding 하기 전에 ImageReader 로 header 의 가로 / 세로 크기만 먼저 읽어서
+       maxDimension 보다 크면 거절함 (작은 file 이 아주 큰 이미지로 풀리는 경우 memory 를 다 쓰지 않도록 함)
+    ㄴ 잘못된 값이면 InvalidProfileImageException : SettingsController 에서 form error 로 바꿈
+    ㄴ file 을 쓰는 작업이므로 Transaction 밖에서 호출함 (SettingsController -> AccountService.updateProfile())
+  template 에서는 ${@profileImageService.url(account.profileImage, 48)} 처럼 사용함
+*/
+@Service
+public class ProfileImageService {
+
+  // 제공하는 thumbnail 크기 (정사각형, px)
+  static final int[] SIZES = {48, 128, 256};
+  static final int DEFAULT_SIZE = 128;
+
+  private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+  private static final String DATA_URL_PREFIX = "data:";
+
+  private final BlobStore blobStore;
+  private final int maxBytes;
+  private final int maxDimension;
+
+  public ProfileImageService(BlobStore blobStore,
+                             @Value("${app.image.max-bytes:5242880}") int maxBytes,
+                             @Value("${app.image.max-dimension:4096}") int maxDimension) {
+    this.blobStore = blobStore;
+    this.maxBytes = maxBytes;
+    this.maxDimension = maxDimension;
+  }
+
+  // Profile form 에서 넘어온 값을 Account 에 저장할 값(hash)으로 바꿈
+  //  ㄴ 비어 있으면 이미지를 삭제한 것 -> null
+  //  ㄴ 이미 hash 이면 (이미지를 바꾸지 않은 경우) 그대로 사용함
+  //     ㄴ 현재 이미지의 hash 이거나 thumbnail 이 모두 저장되어 있는 hash 만 받음
+  //        (저장되지 않은 hash 를 넣으면 깨진 이미지 주소가 Account 에 저장됨)
+  //  ㄴ Data URL 이면 decoding / resize 해서 저장한 후 hash 를 반환함
+  public String store(String profileImage, String currentImage) {
+    if (profileImage == null || profileImage.isBlank()) {
+      return null;
+    }
+    if (isHash(profileImage)) {
+      if (!profileImage.equals(currentImage) && !isStored(profileImage)) {
+        throw new InvalidProfileImageException("저장되지 않은 프로필 이미지입니다");
+      }
+      return profileImage;
+    }
+    if (!profileImage.startsWith(DATA_URL_PREFIX) || profileImage.indexOf(',') < 0) {
+      throw new InvalidProfileImageException("지원하지 않는 프로필 이미지 형식입니다");
+    }
+
+    String base64 = profileImage.substring(profileImage.indexOf(',') + 1);
+    // base64 4 글자 = 3 byte : decoding 하기 전에 크기를 확인함
+    if (base64.length() / 4L * 3 > maxBytes) {
+      throw new InvalidProfileImageException("프로필 이미지가 너무 큽니다");
+    }
+    byte[] decoded;
+    try {
+      decoded = Base64.getDecoder().decode(base64);
+    } catch (IllegalArgumentException e) {
+      throw new InvalidProfileImageException("이미지를 읽을 수 없습니다");
+    }
+    String hash = sha256(decoded);
+    // 같은 이미지가 이미 저장되어 있으면 다시 resize 하지 않음
+    if (isStored(hash)) {
+      return hash;
+    }
+
+    try {
+      BufferedImage image = read(decoded);
+      for (int size : SIZES) {
+        blobStore.put(key(hash, size), toPng(resize(image, size)));
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("프로필 이미지를 저장하지 못했습니다", e);
+    }
+    return hash;
+  }
+
+  private boolean isStored(String hash) {
+    return Arrays.stream(SIZES).allMatch(size -> blobStore.exists(key(hash, size)));
+  }
+
+  // header 의 가로 / 세로 크기를 먼저 확인한 후 decoding 함
+  private BufferedImage read(byte[] content) throws IOException {
+    try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(content))) {
+      Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+      if (readers == null || !readers.hasNext()) {
+        throw new InvalidProfileImageException("이미지를 읽을 수 없습니다");
+      }
+      ImageReader reader = readers.next();
+      try {
+        reader.setInput(input, true, true);
+        int width = reader.getWidth(0);
+        int height = reader.getHeight(0);
+        if (width > maxDimension || height > maxDimension) {
+          throw new InvalidProfileImageException("프로필 이미지는 " + maxDimension + " x " + maxDimension + " 이하만 사용할 수 있습니다");
+        }
+        return reader.read(0);
+      } catch (IOException e) {
+        // header 나 내용이 깨진 이미지
+        throw new InvalidProfileImageException("이미지를 읽을 수 없습니다");
+      } finally {
+        reader.dispose();
+      }
+    }
+  }
+
+  // template 에서 사용하는 이미지 주소
+  //  ㄴ 예전 방식으로 저장된 Data URL 은 그대로 반환함
+  public String url(String profileImage, int size) {
+    if (profileImage == null || profileImage.isBlank()) {
+      return null;
+    }
+    if (!isHash(profileImage)) {
+      return profileImage;
+    }
+    return "/images/" + profileImage + "?size=" + nearestSize(size);
+  }
+
+  public boolean isHash(String value) {
+    return value != null && HASH_PATTERN.matcher(value).matches();
+  }
+
+  // 요청한 크기보다 크거나 같은 thumbnail 중 가장 작은 것 (없으면 가장 큰 것)
+  static int nearestSize(int requested) {
+    for (int size : SIZES) {
+      if (size >= requested) {
+        return size;
+      }
+    }
+    return SIZES[SIZES.length - 1];
+  }
+
+  static String key(String hash, int size) {
+    return hash + "-" + size + ".png";
+  }
+
+  private static BufferedImage resize(BufferedImage source, int size) {
+    BufferedImage resized = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+    Graphics2D graphics = resized.createGraphics();
+    try {
+      graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+      graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+      graphics.drawImage(source, 0, 0, size, size, null);
+    } finally {
+      graphics.dispose();
+    }
+    return resized;
+  }
+
+  private static byte[] toPng(BufferedImage image) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ImageIO.write(image, "png", out);
+    return out.toByteArray();
+  }
+
+  private static String sha256(byte[] content) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+      StringBuilder sb = new StringBuilder(digest.length * 2);
+      for (byte b : digest) {
+        sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+      }
+      return sb.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -53,8 +53,11 @@ public class ConsoleMailSender implements JavaMailSender {
 
   }
 
+  // MailDispatcher 는 여러 개의 메일을 한 번에 전송함
   @Override
   public void send(SimpleMailMessage... simpleMailMessages) throws MailException {
-
+    for (SimpleMailMessage simpleMailMessage : simpleMailMessages) {
+      send(simpleMailMessage);
+    }
   }
 }
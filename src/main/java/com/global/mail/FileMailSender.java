@@ -0,0 +1,70 @@
+package com.global.mail;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.concurrent.locks.ReentrantLock;
+
+// 메일을 실제로 보내지 않고 file 에 기록함 (test 용)
+//  ㄴ mail-file profile 을 활성화하면 ConsoleMailSender 대신 사용됨
+//  ㄴ MailDispatcher 가 batch 로 보내는 메일을 한 번에 file 에 추가함
+@Profile("mail-file")
+@Primary
+@Component
+@Slf4j
+public class FileMailSender extends ConsoleMailSender {
+
+  private final Path path;
+  // 여러 thread 가 동시에 file 에 쓰지 않도록 함
+  private final ReentrantLock lock = new ReentrantLock();
+
+  public FileMailSender(@Value("${app.mail.file-path:mail/outbox.log}") String path) {
+    this.path = Paths.get(path);
+  }
+
+  @Override
+  public void send(SimpleMailMessage simpleMailMessage) throws MailException {
+    send(new SimpleMailMessage[]{simpleMailMessage});
+  }
+
+  @Override
+  public void send(SimpleMailMessage... simpleMailMessages) throws MailException {
+    lock.lock();
+    try {
+      write(simpleMailMessages);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void write(SimpleMailMessage... simpleMailMessages) throws MailException {
+    try {
+      if (path.getParent() != null) {
+        Files.createDirectories(path.getParent());
+      }
+      try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                                                   StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+        for (SimpleMailMessage simpleMailMessage : simpleMailMessages) {
+          writer.write("[" + LocalDateTime.now() + "] " + simpleMailMessage + System.lineSeparator());
+        }
+      }
+    } catch (IOException e) {
+      throw new MailSendException("메일을 file 에 기록하지 못했습니다 : " + path, e);
+    }
+    log.info("{} 개의 메일을 {} 에 기록했습니다", simpleMailMessages.length, path);
+  }
+}
@@ -0,0 +1,192 @@
+package com.global.mail;
+
+import com.global.domain.OutboxMail;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+  outbox table 에 저장된 메일을 background 에서 모아서 전송하는 객체
+    1. PENDING 상태이면서 전송할 시간이 된 메일을 batchSize 개씩 읽어와서 가져감(claim)  (Transaction 1)
+       ㄴ SELECT ... FOR UPDATE SKIP LOCKED 로 읽고, nextAttemptAt 을 claimLease 뒤로 미룬 후 commit 함
+          -> 여러 node 에서 실행해도 같은 메일을 함께 보내지 않음
+       ㄴ 전송 결과를 저장하기 전에 node 가 종료되면 claimLease 가 지난 후 다른 node 가 다시 보냄
+    2. JavaMailSender.send(SimpleMailMessage...) 로 한 번에 전송함      (Transaction 밖 : DB connection 을 잡고 있지 않음)
+    3. 성공한 메일은 SENT, 실패한 메일은 재시도 시간을 늦춰서 다시 PENDING (Transaction 2)
+       ㄴ maxAttempts 번 실패하면 FAILED 로 변경하고 더 이상 보내지 않음
+       ㄴ SENT, FAILED 가 된 메일은 본문(text)을 지움 : 인증 / 로그인 link 의 token 원문이 DB 에 남지 않도록 함
+    4. 저장한 지 retention 이 지난 SENT, FAILED 메일은 purge() 에서 삭제함
+  metric
+    ㄴ app.mail.send (timer) : 한 번의 batch 전송에 걸린 시간, outcome(success / partial / error)
+    ㄴ app.mail.messages (counter) : 메일 별 결과, outcome(sent / retry / failed)
+*/
+@Slf4j
+@Component
+public class MailDispatcher {
+
+  private final OutboxMailRepository outboxMailRepository;
+  private final JavaMailSender javaMailSender;
+  private final TransactionTemplate transactionTemplate;
+  private final MeterRegistry meterRegistry;
+
+  private final int batchSize;
+  private final int maxAttempts;
+  private final Duration initialBackoff;
+  private final Duration maxBackoff;
+  private final Duration claimLease;
+  private final Duration retention;
+
+  public MailDispatcher(OutboxMailRepository outboxMailRepository,
+                        JavaMailSender javaMailSender,
+                        PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry,
+                        @Value("${app.mail.batch-size:50}") int batchSize,
+                        @Value("${app.mail.max-attempts:5}") int maxAttempts,
+                        @Value("${app.mail.initial-backoff-seconds:10}") long initialBackoffSeconds,
+                        @Value("${app.mail.max-backoff-seconds:3600}") long maxBackoffSeconds,
+                        @Value("${app.mail.claim-lease-seconds:300}") long claimLeaseSeconds,
+                        @Value("${app.mail.retention-days:7}") long retentionDays) {
+    this.outboxMailRepository = outboxMailRepository;
+    this.javaMailSender = javaMailSender;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.meterRegistry = meterRegistry;
+    this.batchSize = batchSize;
+    this.maxAttempts = maxAttempts;
+    this.initialBackoff = Duration.ofSeconds(initialBackoffSeconds);
+    this.maxBackoff = Duration.ofSeconds(maxBackoffSeconds);
+    this.claimLease = Duration.ofSeconds(claimLeaseSeconds);
+    this.retention = Duration.ofDays(retentionDays);
+  }
+
+  // 이전 실행이 끝나고 나서 interval 만큼 기다린 후 다시 실행함
+  @Scheduled(fixedDelayString = "${app.mail.dispatch-interval-ms:1000}")
+  public void dispatch() {
+    List<OutboxMail> batch;
+    // 한 번에 batchSize 개씩, 보낼 메일이 없을 때까지 반복함
+    do {
+      batch = transactionTemplate.execute(status -> claim());
+      if (batch == null || batch.isEmpty()) {
+        return;
+      }
+      send(batch);
+    } while (batch.size() == batchSize);
+  }
+
+  // 읽어온 메일의 nextAttemptAt 을 claimLease 뒤로 미룸 : commit 된 후에는 다른 node 가 읽지 않음
+  private List<OutboxMail> claim() {
+    LocalDateTime now = LocalDateTime.now();
+    List<OutboxMail> claimed = outboxMailRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(
+      OutboxMail.Status.PENDING, now, PageRequest.of(0, batchSize));
+    claimed.forEach(outboxMail -> outboxMail.setNextAttemptAt(now.plus(claimLease)));
+    return claimed;
+  }
+
+  // 저장한 지 retention 이 지난 SENT, FAILED 메일을 삭제함 (기본값 : 1 시간마다)
+  @Scheduled(fixedDelayString = "${app.mail.purge-interval-ms:3600000}")
+  public void purge() {
+    Integer deleted = transactionTemplate.execute(status ->
+      outboxMailRepository.deleteByStatusInAndCreatedAtBefore(
+        EnumSet.of(OutboxMail.Status.SENT, OutboxMail.Status.FAILED), LocalDateTime.now().minus(retention)));
+    if (deleted != null && deleted > 0) {
+      log.info("전송이 끝난 메일 {} 건을 outbox 에서 삭제했습니다", deleted);
+    }
+  }
+
+  private void send(List<OutboxMail> batch) {
+    // SimpleMailMessage 객체 -> OutboxMail 객체
+    //  ㄴ 실패한 메일을 MailSendException 에서 SimpleMailMessage 객체로 알려주므로 identity 로 찾음
+    Map<SimpleMailMessage, OutboxMail> messages = new IdentityHashMap<>();
+    for (OutboxMail outboxMail : batch) {
+      messages.put(toMessage(outboxMail), outboxMail);
+    }
+
+    Map<Object, Exception> failed = Collections.emptyMap();
+    Exception batchError = null;
+    long start = System.nanoTime();
+    try {
+      javaMailSender.send(messages.keySet().toArray(new SimpleMailMessage[0]));
+    } catch (MailSendException e) {
+      // 메일 별로 실패 정보가 있으면 실패한 메일만 재시도하고
+      // 없으면 전체를 재시도함
+      failed = e.getFailedMessages();
+      if (failed.isEmpty()) {
+        batchError = e;
+      }
+    } catch (MailException e) {
+      batchError = e;
+    }
+    Timer.builder("app.mail.send")
+         .tag("outcome", batchError != null ? "error" : failed.isEmpty() ? "success" : "partial")
+         .register(meterRegistry)
+         .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+    LocalDateTime now = LocalDateTime.now();
+    for (Map.Entry<SimpleMailMessage, OutboxMail> entry : messages.entrySet()) {
+      OutboxMail outboxMail = entry.getValue();
+      Exception error = batchError != null ? batchError : failed.get(entry.getKey());
+      if (error == null) {
+        outboxMail.setStatus(OutboxMail.Status.SENT);
+        outboxMail.setSentAt(now);
+        outboxMail.setLastError(null);
+        outboxMail.setText(null);
+        meterRegistry.counter("app.mail.messages", "outcome", "sent").increment();
+      } else {
+        markFailedAttempt(outboxMail, error, now);
+      }
+    }
+    transactionTemplate.executeWithoutResult(status -> outboxMailRepository.saveAll(batch));
+  }
+
+  private void markFailedAttempt(OutboxMail outboxMail, Exception error, LocalDateTime now) {
+    int attempts = outboxMail.getAttempts() + 1;
+    outboxMail.setAttempts(attempts);
+    outboxMail.setLastError(abbreviate(String.valueOf(error.getMessage())));
+    if (attempts >= maxAttempts) {
+      outboxMail.setStatus(OutboxMail.Status.FAILED);
+      outboxMail.setText(null);
+      meterRegistry.counter("app.mail.messages", "outcome", "failed").increment();
+      log.error("메일 전송 실패 (더 이상 재시도하지 않음) id={}, to={}", outboxMail.getId(), outboxMail.getRecipient(), error);
+      return;
+    }
+    outboxMail.setNextAttemptAt(now.plus(backoff(attempts)));
+    meterRegistry.counter("app.mail.messages", "outcome", "retry").increment();
+    log.warn("메일 전송 실패 ({}번째) id={}, to={} : {}", attempts, outboxMail.getId(), outboxMail.getRecipient(), error.getMessage());
+  }
+
+  // 실패할 때마다 대기 시간을 두 배로 늘림 (최대 maxBackoff)
+  Duration backoff(int attempts) {
+    Duration delay = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+    return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+  }
+
+  private SimpleMailMessage toMessage(OutboxMail outboxMail) {
+    SimpleMailMessage simpleMailMessage = new SimpleMailMessage();
+    simpleMailMessage.setTo(outboxMail.getRecipient().split(","));
+    simpleMailMessage.setSubject(outboxMail.getSubject());
+    simpleMailMessage.setText(outboxMail.getText());
+    return simpleMailMessage;
+  }
+
+  private static String abbreviate(String message) {
+    return message.length() <= 1000 ? message : message.substring(0, 1000);
+  }
+}
@@ -0,0 +1,38 @@
+package com.global.mail;
+
+import com.global.domain.OutboxMail;
+import lombok.RequiredArgsConstructor;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+// AccountService 에서 JavaMailSender 로 바로 보내지 않고
+// 이 Service 를 통해서 outbox table 에 저장만 함
+//  ㄴ 호출한 쪽의 Transaction 에 참여하므로, 회원 가입이 rollback 되면 메일도 저장되지 않음
+//  ㄴ 실제 전송은 MailDispatcher 가 background 에서 진행함
+@Service
+@Transactional
+@RequiredArgsConstructor
+public class MailOutboxService {
+
+  private final OutboxMailRepository outboxMailRepository;
+
+  public OutboxMail enqueue(SimpleMailMessage simpleMailMessage) {
+    String[] to = simpleMailMessage.getTo();
+    if (to == null || to.length == 0) {
+      throw new IllegalArgumentException("받는 사람이 없는 메일은 보낼 수 없습니다");
+    }
+    LocalDateTime now = LocalDateTime.now();
+    OutboxMail outboxMail = OutboxMail.builder()
+      .recipient(String.join(",", to))
+      .subject(simpleMailMessage.getSubject())
+      .text(simpleMailMessage.getText())
+      .status(OutboxMail.Status.PENDING)
+      .nextAttemptAt(now)
+      .createdAt(now)
+      .build();
+    return outboxMailRepository.save(outboxMail);
+  }
+}
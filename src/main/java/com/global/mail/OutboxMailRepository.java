@@ -0,0 +1,34 @@
+package com.global.mail;
+
+import com.global.domain.OutboxMail;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxMailRepository extends JpaRepository<OutboxMail, Long> {
+
+  // 전송할 시간이 된 메일을 오래된 순서대로 가져옴
+  //  ㄴ SELECT ... FOR UPDATE SKIP LOCKED : 다른 node 가 가져가고 있는 row 는 건너뜀
+  //     (lock.timeout = -2 : Hibernate 의 SKIP_LOCKED, 지원하지 않는 DB 는 FOR UPDATE 로 대기함)
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "-2"))
+  List<OutboxMail> findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(OutboxMail.Status status,
+                                                                        LocalDateTime now,
+                                                                        Pageable pageable);
+
+  // 전송이 끝난(SENT, FAILED) 오래된 메일을 삭제함
+  @Modifying
+  @Query("delete from OutboxMail m where m.status in :statuses and m.createdAt < :before")
+  int deleteByStatusInAndCreatedAtBefore(@Param("statuses") Collection<OutboxMail.Status> statuses,
+                                         @Param("before") LocalDateTime before);
+}
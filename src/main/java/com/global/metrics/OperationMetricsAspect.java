@@ -0,0 +1,78 @@
+package com.global.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/*
+  service / repository / validator 호출 시간을 Micrometer Timer 로 기록하는 aspect
+    ㄴ app.service    : AccountService 의 public 메소드, ZoneService.initZoneData()
+    ㄴ app.repository : Spring Data repository 메소드 (AccountRepository, TagRepository ...)
+    ㄴ app.validator  : Validator.validate() (SignUpFormValidator, NickNameValidator ...)
+  tag : class, method, outcome(success / error), exception(예외 클래스 이름, 없으면 none)
+  Controller 는 Spring Boot 가 기록하는 http.server.requests 로 확인함
+*/
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class OperationMetricsAspect {
+
+  private final MeterRegistry meterRegistry;
+
+  // repository proxy class -> repository interface 이름
+  private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+  @Around("execution(public * com.global.account.AccountService.*(..))"
+          + " || execution(* com.global.zone.ZoneService.initZoneData(..))")
+  public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+    return time("app.service", joinPoint.getSignature().getDeclaringType().getSimpleName(), joinPoint);
+  }
+
+  @Around("this(org.springframework.data.repository.Repository)")
+  public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+    return time("app.repository", repositoryName(joinPoint.getThis().getClass()), joinPoint);
+  }
+
+  @Around("execution(* org.springframework.validation.Validator+.validate(..)) && within(com.global..*)")
+  public Object timeValidator(ProceedingJoinPoint joinPoint) throws Throwable {
+    return time("app.validator", ClassUtils.getUserClass(joinPoint.getTarget()).getSimpleName(), joinPoint);
+  }
+
+  private Object time(String name, String className, ProceedingJoinPoint joinPoint) throws Throwable {
+    long start = System.nanoTime();
+    String exception = "none";
+    try {
+      return joinPoint.proceed();
+    } catch (Throwable e) {
+      exception = e.getClass().getSimpleName();
+      throw e;
+    } finally {
+      Timer.builder(name)
+           .tag("class", className)
+           .tag("method", joinPoint.getSignature().getName())
+           .tag("outcome", "none".equals(exception) ? "success" : "error")
+           .tag("exception", exception)
+           .register(meterRegistry)
+           .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  // 상속받은 메소드(findById, save ...)도 우리가 만든 repository interface 이름으로 기록함
+  private String repositoryName(Class<?> proxyClass) {
+    return repositoryNames.computeIfAbsent(proxyClass, type ->
+      ClassUtils.getAllInterfacesForClassAsSet(type).stream()
+                .filter(candidate -> candidate.getName().startsWith("com.global."))
+                .map(Class::getSimpleName)
+                .findFirst()
+                .orElse(type.getSimpleName()));
+  }
+}
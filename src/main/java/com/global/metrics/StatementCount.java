@@ -0,0 +1,24 @@
+package com.global.metrics;
+
+/*
+  한 번의 요청에서 Hibernate 가 실행한 SQL 개수
+    ㄴ request attribute (StatementCountFilter.ATTRIBUTE) 로 저장되므로
+       Controller 나 view 에서 ${hibernateStatementCount.count} 로 확인할 수 있음
+*/
+public class StatementCount {
+
+  private int count;
+
+  void increment() {
+    count++;
+  }
+
+  public int getCount() {
+    return count;
+  }
+
+  @Override
+  public String toString() {
+    return String.valueOf(count);
+  }
+}
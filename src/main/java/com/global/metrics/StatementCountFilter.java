@@ -0,0 +1,51 @@
+package com.global.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/*
+  요청마다 Hibernate 가 실행한 SQL 개수를 세는 filter
+    ㄴ 요청을 시작할 때 StatementCount 를 request attribute 로 저장하고
+       요청이 끝나면 app.hibernate.statements (요청당 SQL 개수 분포) 에 기록함
+    ㄴ 가장 먼저 실행되므로 Spring Security filter, view rendering(open-in-view) 에서 실행한 SQL 도 포함함
+*/
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class StatementCountFilter extends OncePerRequestFilter {
+
+  public static final String ATTRIBUTE = "hibernateStatementCount";
+
+  private final MeterRegistry meterRegistry;
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                  FilterChain filterChain) throws ServletException, IOException {
+    StatementCount count = StatementCountInspector.begin();
+    request.setAttribute(ATTRIBUTE, count);
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      StatementCountInspector.end();
+      DistributionSummary.builder("app.hibernate.statements")
+                         .description("요청당 Hibernate 가 실행한 SQL 개수")
+                         .tag("method", request.getMethod())
+                         .register(meterRegistry)
+                         .record(count.getCount());
+      log.debug("{} {} : SQL {} 개", request.getMethod(), request.getRequestURI(), count.getCount());
+    }
+  }
+}
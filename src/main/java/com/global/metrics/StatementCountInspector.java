@@ -0,0 +1,34 @@
+package com.global.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/*
+  Hibernate 가 SQL 을 실행하기 전에 호출하는 StatementInspector
+    ㄴ SQL 은 바꾸지 않고, 현재 thread 에서 진행 중인 요청의 StatementCount 만 1 증가시킴
+    ㄴ StatementCountFilter 가 요청을 시작할 때 begin(), 끝날 때 end() 를 호출함
+       ㄴ test 에서 service 호출 하나의 SQL 개수를 셀 때도 사용함 (다른 thread 의 SQL 은 세지 않음)
+  MetricsConfig 에서 hibernate.session_factory.statement_inspector 로 등록함
+*/
+public class StatementCountInspector implements StatementInspector {
+
+  private static final ThreadLocal<StatementCount> CURRENT = new ThreadLocal<>();
+
+  @Override
+  public String inspect(String sql) {
+    StatementCount count = CURRENT.get();
+    if (count != null) {
+      count.increment();
+    }
+    return sql;
+  }
+
+  public static StatementCount begin() {
+    StatementCount count = new StatementCount();
+    CURRENT.set(count);
+    return count;
+  }
+
+  public static void end() {
+    CURRENT.remove();
+  }
+}
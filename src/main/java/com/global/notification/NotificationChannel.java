@@ -0,0 +1,70 @@
+package com.global.notification;
+
+import com.global.settings.form.Notifications;
+
+/*
+  알림 종류 + 받는 방법(email / web)
+    ㄴ NotificationPreference.channels 에서 ordinal 번째 bit 를 사용함 : 순서를 바꾸면 안 됨
+    ㄴ column 은 예전에 같은 설정을 저장하던 account table 의 column 이름
+       (notification_preference table 이 없던 때 가입한 Account 의 설정을 옮길 때만 읽음)
+*/
+public enum NotificationChannel {
+
+  STUDY_CREATED_BY_EMAIL("study_created_by_email"),
+  STUDY_CREATED_BY_WEB("study_created_by_web"),
+  STUDY_ENROLLMENT_RESULT_BY_EMAIL("study_enrollment_result_by_email"),
+  STUDY_ENROLLMENT_RESULT_BY_WEB("study_enrollment_result_by_web"),
+  STUDY_UPDATED_BY_EMAIL("study_updated_by_email"),
+  STUDY_UPDATED_BY_WEB("study_updated_by_web");
+
+  // 새로 가입한 Account 의 기본 설정 : web 알림만 받음
+  public static final int DEFAULT_CHANNELS =
+    STUDY_CREATED_BY_WEB.mask() | STUDY_ENROLLMENT_RESULT_BY_WEB.mask() | STUDY_UPDATED_BY_WEB.mask();
+
+  private final String column;
+
+  NotificationChannel(String column) {
+    this.column = column;
+  }
+
+  // web 알림 (Server-Sent Events 로 보냄)
+  public boolean isWeb() {
+    return name().endsWith("_BY_WEB");
+  }
+
+  public int mask() {
+    return 1 << ordinal();
+  }
+
+  public boolean isSet(int channels) {
+    return (channels & mask()) != 0;
+  }
+
+  String getColumn() {
+    return column;
+  }
+
+  // Notifications (settings 화면의 form) -> bit mask
+  public static int pack(Notifications notifications) {
+    int channels = 0;
+    channels |= notifications.isStudyCreatedByEmail() ? STUDY_CREATED_BY_EMAIL.mask() : 0;
+    channels |= notifications.isStudyCreatedByWeb() ? STUDY_CREATED_BY_WEB.mask() : 0;
+    channels |= notifications.isStudyEnrollmentResultByEmail() ? STUDY_ENROLLMENT_RESULT_BY_EMAIL.mask() : 0;
+    channels |= notifications.isStudyEnrollmentResultByWeb() ? STUDY_ENROLLMENT_RESULT_BY_WEB.mask() : 0;
+    channels |= notifications.isStudyUpdatedByEmail() ? STUDY_UPDATED_BY_EMAIL.mask() : 0;
+    channels |= notifications.isStudyUpdatedByWeb() ? STUDY_UPDATED_BY_WEB.mask() : 0;
+    return channels;
+  }
+
+  // bit mask -> Notifications (settings 화면의 form)
+  public static Notifications unpack(int channels) {
+    Notifications notifications = new Notifications();
+    notifications.setStudyCreatedByEmail(STUDY_CREATED_BY_EMAIL.isSet(channels));
+    notifications.setStudyCreatedByWeb(STUDY_CREATED_BY_WEB.isSet(channels));
+    notifications.setStudyEnrollmentResultByEmail(STUDY_ENROLLMENT_RESULT_BY_EMAIL.isSet(channels));
+    notifications.setStudyEnrollmentResultByWeb(STUDY_ENROLLMENT_RESULT_BY_WEB.isSet(channels));
+    notifications.setStudyUpdatedByEmail(STUDY_UPDATED_BY_EMAIL.isSet(channels));
+    notifications.setStudyUpdatedByWeb(STUDY_UPDATED_BY_WEB.isSet(channels));
+    return notifications;
+  }
+}
@@ -0,0 +1,39 @@
+package com.global.notification;
+
+import com.global.account.CurrentUser;
+import com.global.domain.Account;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+@Controller
+@RequiredArgsConstructor
+public class NotificationController {
+
+  private final WebNotificationBroker webNotificationBroker;
+
+  // fragments.html 의 EventSource 가 연결하는 주소
+  //  ㄴ 연결이 끊기면 browser 가 자동으로 다시 연결하면서 마지막으로 받은 id 를 Last-Event-ID header 로 보냄
+  //  ㄴ 응답을 기다리는 동안 thread 를 잡고 있지 않음 (servlet 비동기 처리)
+  @GetMapping(value = "/notifications/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  @ResponseBody
+  public SseEmitter stream(@CurrentUser Account account,
+                           @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                           HttpServletResponse response) throws IOException {
+    if (account == null) {
+      response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+      return null;
+    }
+    // proxy(nginx 등)가 응답을 모아서 보내지 않도록 함
+    response.setHeader("X-Accel-Buffering", "no");
+    response.setHeader("Cache-Control", "no-store");
+    return webNotificationBroker.subscribe(account.getId(), lastEventId);
+  }
+}
@@ -0,0 +1,9 @@
+package com.global.notification;
+
+import com.global.domain.NotificationPreference;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Transactional(readOnly = true)
+public interface NotificationPreferenceRepository extends JpaRepository<NotificationPreference, Long> {
+}
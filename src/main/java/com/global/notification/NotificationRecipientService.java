@@ -0,0 +1,286 @@
+package com.global.notification;
+
+import com.global.domain.NotificationPreference;
+import com.global.settings.form.Notifications;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+/*
+  알림을 받을 Account 를 찾는 service
+    ㄴ findRecipients(tagId, zoneId, channel) : DB 를 조회하지 않고 메모리의 RecipientIndex 에서 BitSet 의 AND 로 구함
+    ㄴ 알림 설정은 notification_preference table 에 bit mask 로 저장함 (settings 화면도 여기서 읽음)
+  index 는 AccountService 의 관심 주제 / 활동 지역 / 알림 설정 변경 메소드에서 갱신함
+    ㄴ Transaction 이 commit 된 후에 반영함 (rollback 되면 반영하지 않음)
+  application 이 시작되면 background 에서 DB 의 data 로 index 를 만듦
+    ㄴ index 를 만드는 동안 들어온 변경은 모아 두었다가 새 index 에 다시 반영함
+*/
+@Slf4j
+@Service
+@Transactional
+public class NotificationRecipientService implements MeterBinder {
+
+  private static final String SELECT_PREFERENCES_SQL = "select account_id, channels from notification_preference";
+  private static final String SELECT_ACCOUNT_TAGS_SQL = "select account_id, tags_id from account_tags";
+  private static final String SELECT_ACCOUNT_ZONES_SQL = "select account_id, zones_id from account_zones";
+  // notification_preference 가 없는 Account 는 account table 의 설정 column 으로 만들어 넣음
+  private static final String BACKFILL_PREFERENCES_SQL =
+    "insert into notification_preference (account_id, channels) select a.id, "
+    + Arrays.stream(NotificationChannel.values())
+            .map(channel -> "case when a." + channel.getColumn() + " then " + channel.mask() + " else 0 end")
+            .collect(Collectors.joining(" + "))
+    + " from account a where not exists (select 1 from notification_preference p where p.account_id = a.id)";
+  private static final String BACKFILL_PREFERENCE_SQL = BACKFILL_PREFERENCES_SQL + " and a.id = ?";
+
+  private final NotificationPreferenceRepository notificationPreferenceRepository;
+  private final JdbcTemplate jdbcTemplate;
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  // rebuild() 를 동시에 실행하지 않도록 함
+  private final ReentrantLock rebuildLock = new ReentrantLock();
+  private RecipientIndex index = new RecipientIndex();
+  // index 를 만드는 동안 들어온 변경 (만들고 있지 않으면 null)
+  private List<Consumer<RecipientIndex>> pendingChanges;
+  private volatile boolean ready;
+
+  public NotificationRecipientService(NotificationPreferenceRepository notificationPreferenceRepository,
+                                      JdbcTemplate jdbcTemplate) {
+    this.notificationPreferenceRepository = notificationPreferenceRepository;
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  // AccountService 의 saveNewAccount() 에서 호출함
+  public void saveDefaultPreferences(Long accountId) {
+    saveChannels(accountId, NotificationChannel.DEFAULT_CHANNELS);
+  }
+
+  // AccountService 의 updateNotifications() 에서 호출함
+  public void savePreferences(Long accountId, Notifications notifications) {
+    saveChannels(accountId, NotificationChannel.pack(notifications));
+  }
+
+  // SettingsController 의 알림 설정 화면에서 호출함
+  //   ㄴ 아직 옮기지 않은 Account 는 account table 의 column 에서 옮긴 후에 읽음
+  //      (application 시작 후 rebuild() 가 끝나기 전에 들어온 요청)
+  public Notifications findPreferences(Long accountId) {
+    Optional<NotificationPreference> preference = notificationPreferenceRepository.findById(accountId);
+    if (preference.isEmpty() && jdbcTemplate.update(BACKFILL_PREFERENCE_SQL, accountId) > 0) {
+      preference = notificationPreferenceRepository.findById(accountId);
+    }
+    return NotificationChannel.unpack(preference.map(NotificationPreference::getChannels).orElse(0));
+  }
+
+  private void saveChannels(Long accountId, int channels) {
+    notificationPreferenceRepository.save(new NotificationPreference(accountId, channels));
+    afterCommit(index -> index.setChannels(accountId, channels));
+  }
+
+  // AccountService 의 addTag(), updateTags(), removeTag() 에서 호출함
+  public void tagsAdded(Long accountId, Collection<Long> tagIds) {
+    List<Long> copy = List.copyOf(tagIds);
+    afterCommit(index -> copy.forEach(tagId -> index.addTag(accountId, tagId)));
+  }
+
+  public void tagsRemoved(Long accountId, Collection<Long> tagIds) {
+    List<Long> copy = List.copyOf(tagIds);
+    afterCommit(index -> copy.forEach(tagId -> index.removeTag(accountId, tagId)));
+  }
+
+  // AccountService 의 addZone(), removeZone() 에서 호출함
+  public void zoneAdded(Long accountId, Long zoneId) {
+    afterCommit(index -> index.addZone(accountId, zoneId));
+  }
+
+  public void zoneRemoved(Long accountId, Long zoneId) {
+    afterCommit(index -> index.removeZone(accountId, zoneId));
+  }
+
+  // tag, zone 에 모두 관심이 있고 channel 로 알림을 받겠다고 설정한 account id 목록 (오름차순)
+  //  ㄴ tagId, zoneId 가 null 이면 그 조건은 확인하지 않음
+  @Transactional(propagation = Propagation.SUPPORTS)
+  public long[] findRecipients(Long tagId, Long zoneId, NotificationChannel channel) {
+    awaitReady();
+    lock.readLock().lock();
+    try {
+      return index.accountIds(index.find(tagId, zoneId, channel));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Transactional(propagation = Propagation.SUPPORTS)
+  public int countRecipients(Long tagId, Long zoneId, NotificationChannel channel) {
+    awaitReady();
+    lock.readLock().lock();
+    try {
+      return index.find(tagId, zoneId, channel).cardinality();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  // account 가 channel 로 알림을 받겠다고 설정했는지 확인함 (WebNotificationBroker 에서 사용함)
+  @Transactional(propagation = Propagation.SUPPORTS)
+  public boolean acceptsChannel(Long accountId, NotificationChannel channel) {
+    awaitReady();
+    lock.readLock().lock();
+    try {
+      return index.hasChannel(accountId, channel);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public boolean isReady() {
+    return ready;
+  }
+
+  @Async
+  @EventListener(ApplicationReadyEvent.class)
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public void onApplicationReady() {
+    rebuild();
+  }
+
+  // index 가 아직 없으면 만듦
+  //  ㄴ 다른 thread 가 만들고 있으면 끝날 때까지 기다렸다가 그 index 를 사용함 (lock 을 잡은 후 다시 확인함)
+  private void awaitReady() {
+    if (ready) {
+      return;
+    }
+    rebuildLock.lock();
+    try {
+      if (!ready) {
+        doRebuild();
+      }
+    } finally {
+      rebuildLock.unlock();
+    }
+  }
+
+  // DB 의 data 로 index 를 새로 만든 후 교체함
+  //  ㄴ DB 를 읽는 동안에는 lock 을 잡지 않음 : 그 동안의 변경은 pendingChanges 에 모아 둠
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public void rebuild() {
+    rebuildLock.lock();
+    try {
+      doRebuild();
+    } finally {
+      rebuildLock.unlock();
+    }
+  }
+
+  private void doRebuild() {
+    long started = System.currentTimeMillis();
+    lock.writeLock().lock();
+    try {
+      pendingChanges = new ArrayList<>();
+    } finally {
+      lock.writeLock().unlock();
+    }
+
+    RecipientIndex loaded = new RecipientIndex();
+    try {
+      int backfilled = jdbcTemplate.update(BACKFILL_PREFERENCES_SQL);
+      if (backfilled > 0) {
+        log.info("notification_preference 가 없는 Account {} 건의 알림 설정을 옮겼습니다", backfilled);
+      }
+      jdbcTemplate.query(SELECT_PREFERENCES_SQL, rs -> {
+        loaded.setChannels(rs.getLong(1), rs.getInt(2));
+      });
+      jdbcTemplate.query(SELECT_ACCOUNT_TAGS_SQL, rs -> {
+        loaded.addTag(rs.getLong(1), rs.getLong(2));
+      });
+      jdbcTemplate.query(SELECT_ACCOUNT_ZONES_SQL, rs -> {
+        loaded.addZone(rs.getLong(1), rs.getLong(2));
+      });
+    } catch (RuntimeException e) {
+      lock.writeLock().lock();
+      try {
+        pendingChanges = null;
+      } finally {
+        lock.writeLock().unlock();
+      }
+      throw e;
+    }
+
+    lock.writeLock().lock();
+    try {
+      // DB 를 읽는 동안 commit 된 변경을 다시 반영함 (같은 변경을 두 번 반영해도 결과는 같음)
+      pendingChanges.forEach(change -> change.accept(loaded));
+      pendingChanges = null;
+      index = loaded;
+      ready = true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+    log.info("알림 대상 index (Account {} 건, tag {} 개, zone {} 개)를 {} ms 동안 만들었습니다",
+             loaded.accountCount(), loaded.tagCount(), loaded.zoneCount(), System.currentTimeMillis() - started);
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder("app.notification.index.accounts", this, service -> service.read(RecipientIndex::accountCount))
+         .register(registry);
+    Gauge.builder("app.notification.index.tags", this, service -> service.read(RecipientIndex::tagCount))
+         .register(registry);
+    Gauge.builder("app.notification.index.zones", this, service -> service.read(RecipientIndex::zoneCount))
+         .register(registry);
+  }
+
+  private int read(ToIntFunction<RecipientIndex> reader) {
+    lock.readLock().lock();
+    try {
+      return reader.applyAsInt(index);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  // Transaction 안이면 commit 된 후에 index 에 반영함
+  private void afterCommit(Consumer<RecipientIndex> change) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          apply(change);
+        }
+      });
+    } else {
+      apply(change);
+    }
+  }
+
+  private void apply(Consumer<RecipientIndex> change) {
+    lock.writeLock().lock();
+    try {
+      change.accept(index);
+      if (pendingChanges != null) {
+        pendingChanges.add(change);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+}
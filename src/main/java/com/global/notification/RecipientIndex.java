@@ -0,0 +1,130 @@
+package com.global.notification;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+  알림을 받을 Account 를 찾기 위한 역색인(inverted index)
+    ㄴ tag id  -> 그 tag 를 관심 주제로 등록한 account 의 BitSet
+    ㄴ zone id -> 그 zone 을 활동 지역으로 등록한 account 의 BitSet
+    ㄴ channel -> 그 알림을 받겠다고 설정한 account 의 BitSet
+  "tag X, zone Y 에 관심이 있고 channel Z 로 받는 Account" 는 세 BitSet 의 AND 로 구함
+    ㄴ BitSet 의 위치는 account id 가 아니라 index 에 처음 들어온 순서대로 붙인 번호(ordinal, 0, 1, 2 ...)
+       ㄴ account id 는 모든 table 이 같이 쓰는 hibernate_sequence 에서 받으므로 듬성듬성함
+          id 를 그대로 쓰면 BitSet 이 가장 큰 id 만큼 커짐 (Account 수와 상관 없이)
+       ㄴ 탈퇴 등으로 쓰지 않게 된 번호는 index 를 다시 만들 때 정리됨
+  thread-safe 하지 않음 : NotificationRecipientService 에서 lock 을 잡고 사용함
+*/
+final class RecipientIndex {
+
+  private final Map<Long, BitSet> byTag = new HashMap<>();
+  private final Map<Long, BitSet> byZone = new HashMap<>();
+  private final BitSet[] byChannel = new BitSet[NotificationChannel.values().length];
+  // 알림 설정이 등록된 account
+  private final BitSet accounts = new BitSet();
+  // account id -> ordinal,  ordinal -> account id
+  private final Map<Long, Integer> ordinals = new HashMap<>();
+  private long[] accountIds = new long[1024];
+
+  RecipientIndex() {
+    for (int i = 0; i < byChannel.length; i++) {
+      byChannel[i] = new BitSet();
+    }
+  }
+
+  void setChannels(long accountId, int channels) {
+    int bit = ordinal(accountId);
+    accounts.set(bit);
+    for (NotificationChannel channel : NotificationChannel.values()) {
+      byChannel[channel.ordinal()].set(bit, channel.isSet(channels));
+    }
+  }
+
+  void addTag(long accountId, long tagId) {
+    byTag.computeIfAbsent(tagId, id -> new BitSet()).set(ordinal(accountId));
+  }
+
+  void removeTag(long accountId, long tagId) {
+    clear(byTag, tagId, accountId);
+  }
+
+  void addZone(long accountId, long zoneId) {
+    byZone.computeIfAbsent(zoneId, id -> new BitSet()).set(ordinal(accountId));
+  }
+
+  void removeZone(long accountId, long zoneId) {
+    clear(byZone, zoneId, accountId);
+  }
+
+  // tagId, zoneId 가 null 이면 그 조건은 확인하지 않음
+  //  ㄴ 반환하는 BitSet 은 ordinal 의 BitSet 이고 새로 만든 객체임 : account id 는 accountIds() 로 바꿈
+  BitSet find(Long tagId, Long zoneId, NotificationChannel channel) {
+    BitSet result = (BitSet) byChannel[channel.ordinal()].clone();
+    if (tagId != null) {
+      and(result, byTag.get(tagId));
+    }
+    if (zoneId != null && !result.isEmpty()) {
+      and(result, byZone.get(zoneId));
+    }
+    return result;
+  }
+
+  // find() 의 결과를 account id 목록(오름차순)으로 바꿈
+  long[] accountIds(BitSet found) {
+    long[] ids = found.stream().mapToLong(bit -> accountIds[bit]).toArray();
+    Arrays.sort(ids);
+    return ids;
+  }
+
+  boolean hasChannel(long accountId, NotificationChannel channel) {
+    Integer bit = ordinals.get(accountId);
+    return bit != null && byChannel[channel.ordinal()].get(bit);
+  }
+
+  int accountCount() {
+    return accounts.cardinality();
+  }
+
+  int tagCount() {
+    return byTag.size();
+  }
+
+  int zoneCount() {
+    return byZone.size();
+  }
+
+  private static void and(BitSet result, BitSet other) {
+    if (other == null) {
+      result.clear();
+    } else {
+      result.and(other);
+    }
+  }
+
+  private void clear(Map<Long, BitSet> index, long key, long accountId) {
+    BitSet bits = index.get(key);
+    Integer bit = ordinals.get(accountId);
+    if (bits == null || bit == null) {
+      return;
+    }
+    bits.clear(bit);
+    // 아무도 등록하지 않은 tag / zone 은 index 에서 제거함
+    if (bits.isEmpty()) {
+      index.remove(key);
+    }
+  }
+
+  // 처음 보는 account 이면 다음 번호를 붙임
+  private int ordinal(long accountId) {
+    return ordinals.computeIfAbsent(accountId, id -> {
+      int next = ordinals.size();
+      if (next == accountIds.length) {
+        accountIds = Arrays.copyOf(accountIds, next * 2);
+      }
+      accountIds[next] = id;
+      return next;
+    });
+  }
+}
@@ -0,0 +1,20 @@
+package com.global.notification;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/*
+  Server-Sent Events 로 보내는 web 알림 하나
+    ㄴ id 는 account 별 순번 : 연결이 끊겼다가 다시 연결하면 Last-Event-ID 이후의 알림부터 다시 보냄
+    ㄴ 변경되지 않는 객체(immutable) : 여러 연결에 같은 객체를 그대로 보냄
+*/
+@Getter
+@AllArgsConstructor
+public final class WebNotification {
+
+  private final long id;
+  private final NotificationChannel channel;
+  private final String title;
+  private final String link;
+  private final long createdAt;
+}
@@ -0,0 +1,431 @@
+package com.global.notification;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+  web 알림을 Server-Sent Events 로 보내는 객체
+    ㄴ account 별로 Mailbox 를 하나씩 둠
+       ㄴ 연결(SseEmitter) 목록 : 같은 account 가 여러 tab 에서 연결할 수 있음 (최대 maxConnectionsPerUser 개)
+       ㄴ 최근 알림 bufferSize 개를 보관하는 ring buffer : 다시 연결하면 Last-Event-ID 이후의 알림을 보내줌
+    ㄴ 연결은 servlet 비동기 처리(async)로 유지하므로 알림을 기다리는 동안 thread 를 잡고 있지 않음
+    ㄴ socket 에 쓰는 작업은 모두 전용 thread pool(sse-send-, sendThreads 개)에서 함
+       ㄴ publish() 를 호출한 요청 thread, heartbeat() 를 실행하는 @Scheduled thread 는 연결마다 event 를 대기열에 넣기만 함
+       ㄴ 연결 하나의 event 는 한 번에 한 thread 만 순서대로 보냄 : 느린 연결 하나가 thread 를 하나보다 많이 잡지 않음
+       ㄴ 한 event 를 sendTimeout 안에 보내지 못하거나 보내지 못한 event 가 maxPendingPerConnection 개를 넘으면
+          그 연결을 끊음 (client 는 다시 연결하면서 Last-Event-ID 로 빠진 알림을 받음)
+    ㄴ 연결도 없고 mailboxTtl 동안 알림도 없는 Mailbox 는 heartbeat() 에서 제거함
+       (offline 인 account 에게는 알림을 쌓아 두지 않음 : heap 사용량이 연결 수에만 비례함)
+  publish() 는 account 의 web 알림 설정(studyCreatedByWeb ...)을 확인하고 보냄
+    ㄴ Transaction 안에서 호출하면 commit 된 후에 보냄
+*/
+@Slf4j
+@Component
+public class WebNotificationBroker implements MeterBinder {
+
+  static final String EVENT_NAME = "notification";
+
+  private final NotificationRecipientService notificationRecipientService;
+  private final long timeoutMillis;
+  private final int bufferSize;
+  private final int maxConnectionsPerUser;
+  private final long mailboxTtlMillis;
+  private final long sendTimeoutNanos;
+  private final int maxPendingPerConnection;
+  private final ThreadPoolExecutor sender;
+
+  // Last-Event-ID 앞에 붙이는 값 : 서버가 재시작되어 순번이 처음부터 시작되면 buffer 를 처음부터 보냄
+  private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+  private final Map<Long, Mailbox> mailboxes = new ConcurrentHashMap<>();
+  private final AtomicLong delivered = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  private final AtomicLong timedOut = new AtomicLong();
+
+  public WebNotificationBroker(NotificationRecipientService notificationRecipientService,
+                               @Value("${app.notification.sse.timeout-ms:1800000}") long timeoutMillis,
+                               @Value("${app.notification.sse.buffer-size:20}") int bufferSize,
+                               @Value("${app.notification.sse.max-connections-per-user:4}") int maxConnectionsPerUser,
+                               @Value("${app.notification.sse.mailbox-ttl-ms:600000}") long mailboxTtlMillis,
+                               @Value("${app.notification.sse.send-threads:4}") int sendThreads,
+                               @Value("${app.notification.sse.send-queue-capacity:10000}") int sendQueueCapacity,
+                               @Value("${app.notification.sse.send-timeout-ms:5000}") long sendTimeoutMillis,
+                               @Value("${app.notification.sse.max-pending-per-connection:32}") int maxPendingPerConnection) {
+    this.notificationRecipientService = notificationRecipientService;
+    this.timeoutMillis = timeoutMillis;
+    this.bufferSize = bufferSize;
+    this.maxConnectionsPerUser = maxConnectionsPerUser;
+    this.mailboxTtlMillis = mailboxTtlMillis;
+    this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+    this.maxPendingPerConnection = maxPendingPerConnection;
+    AtomicInteger sequence = new AtomicInteger();
+    this.sender = new ThreadPoolExecutor(sendThreads, sendThreads, 0L, TimeUnit.MILLISECONDS,
+                                         new ArrayBlockingQueue<>(sendQueueCapacity),
+                                         runnable -> {
+                                           Thread thread = new Thread(runnable, "sse-send-" + sequence.incrementAndGet());
+                                           thread.setDaemon(true);
+                                           return thread;
+                                         },
+                                         new ThreadPoolExecutor.AbortPolicy());
+  }
+
+  // NotificationController 의 /notifications/stream 에서 호출함
+  //  ㄴ lastEventId 가 있으면 그 이후에 보관된 알림을 먼저 보냄
+  public SseEmitter subscribe(Long accountId, String lastEventId) {
+    SseEmitter emitter = new SseEmitter(timeoutMillis);
+    // heartbeat() 에서 제거하는 것과 겹치지 않도록 key 단위로 atomic 하게 가져옴
+    Mailbox mailbox = mailboxes.compute(accountId, (id, existing) -> {
+      Mailbox found = existing != null ? existing : new Mailbox(bufferSize);
+      found.touch();
+      return found;
+    });
+
+    Connection connection = new Connection(emitter);
+    emitter.onCompletion(() -> connection.finished(mailbox));
+    emitter.onTimeout(() -> {
+      connection.finished(mailbox);
+      emitter.complete();
+    });
+    emitter.onError(e -> connection.finished(mailbox));
+
+    // 연결이 너무 많으면 가장 오래된 연결부터 끊음
+    mailbox.connections.add(connection);
+    while (mailbox.connections.size() > maxConnectionsPerUser) {
+      close(mailbox, mailbox.connections.get(0));
+    }
+
+    // Last-Event-ID 가 없으면 (page 를 새로 연 경우) 이전 알림은 보내지 않음
+    long after = lastEventId == null ? mailbox.lastSequence() : sequenceOf(lastEventId);
+    List<WebNotification> missed = mailbox.since(after);
+    if (missed.isEmpty()) {
+      // 연결되었다는 것을 바로 알 수 있도록 comment 를 하나 보냄 (response header 가 바로 전송됨)
+      enqueue(mailbox, connection, SseEmitter.event().comment("connected"));
+    }
+    for (WebNotification notification : missed) {
+      enqueue(mailbox, connection, toEvent(notification));
+    }
+    return emitter;
+  }
+
+  // account 하나에게 web 알림을 보냄
+  //  ㄴ web 알림을 받지 않도록 설정했으면 보내지 않고 false 를 반환함
+  public boolean publish(Long accountId, NotificationChannel channel, String title, String link) {
+    requireWeb(channel);
+    if (!notificationRecipientService.acceptsChannel(accountId, channel)) {
+      return false;
+    }
+    afterCommit(() -> deliver(accountId, channel, title, link));
+    return true;
+  }
+
+  // tag, zone 에 관심이 있고 web 알림을 받겠다고 설정한 account 모두에게 보냄
+  //  ㄴ 대상은 NotificationRecipientService 의 index 에서 찾고, 지금 연결되어 있거나 최근에 연결했던 account 에게만 보냄
+  //  ㄴ 알림 대상 수를 반환함
+  public int publish(Long tagId, Long zoneId, NotificationChannel channel, String title, String link) {
+    requireWeb(channel);
+    long[] recipients = notificationRecipientService.findRecipients(tagId, zoneId, channel);
+    afterCommit(() -> {
+      for (long accountId : recipients) {
+        deliver(accountId, channel, title, link);
+      }
+    });
+    return recipients.length;
+  }
+
+  // 연결이 끊긴 것을 찾아내고 proxy / load balancer 가 idle 연결을 끊지 않도록 주기적으로 comment 를 보냄
+  //  ㄴ 연결이 없고 오래 사용하지 않은 Mailbox 는 제거함
+  //  ㄴ event 하나를 sendTimeout 동안 보내고 있는 연결은 끊음
+  //  ㄴ 대기열에 넣기만 하므로 @Scheduled thread 가 socket 에 쓰느라 멈추지 않음
+  @Scheduled(fixedDelayString = "${app.notification.sse.heartbeat-interval-ms:20000}")
+  public void heartbeat() {
+    long idleBefore = System.currentTimeMillis() - mailboxTtlMillis;
+    long now = System.nanoTime();
+    for (Long accountId : mailboxes.keySet()) {
+      Mailbox mailbox = mailboxes.computeIfPresent(accountId, (id, existing) ->
+        existing.connections.isEmpty() && existing.lastActiveAt < idleBefore ? null : existing);
+      if (mailbox == null) {
+        continue;
+      }
+      for (Connection connection : mailbox.connections) {
+        long since = connection.sendingSince;
+        if (since != 0 && now - since > sendTimeoutNanos) {
+          timedOut.incrementAndGet();
+          log.debug("SSE event 를 {} ms 동안 보내지 못해서 연결을 끊습니다", TimeUnit.NANOSECONDS.toMillis(now - since));
+          close(mailbox, connection);
+        } else {
+          enqueue(mailbox, connection, SseEmitter.event().comment("heartbeat"));
+        }
+      }
+    }
+  }
+
+  // application 이 종료될 때 연결을 모두 닫음 (client 는 다시 연결하면서 Last-Event-ID 를 보냄)
+  @PreDestroy
+  public void closeAll() {
+    sender.shutdownNow();
+    mailboxes.values().forEach(mailbox -> mailbox.connections.forEach(connection -> connection.emitter.complete()));
+    mailboxes.clear();
+  }
+
+  public int connectionCount() {
+    return mailboxes.values().stream().mapToInt(mailbox -> mailbox.connections.size()).sum();
+  }
+
+  public int mailboxCount() {
+    return mailboxes.size();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder("app.notification.sse.connections", this, WebNotificationBroker::connectionCount)
+         .register(registry);
+    Gauge.builder("app.notification.sse.mailboxes", this, WebNotificationBroker::mailboxCount)
+         .register(registry);
+    FunctionCounter.builder("app.notification.sse.events", delivered, AtomicLong::get)
+                   .tag("result", "delivered")
+                   .register(registry);
+    FunctionCounter.builder("app.notification.sse.events", dropped, AtomicLong::get)
+                   .tag("result", "dropped")
+                   .register(registry);
+    FunctionCounter.builder("app.notification.sse.timeouts", timedOut, AtomicLong::get)
+                   .register(registry);
+    Gauge.builder("app.notification.sse.send.queue", sender, executor -> executor.getQueue().size())
+         .register(registry);
+  }
+
+  private void deliver(long accountId, NotificationChannel channel, String title, String link) {
+    Mailbox mailbox = mailboxes.get(accountId);
+    if (mailbox == null) {
+      return;
+    }
+    WebNotification notification = mailbox.append(channel, title, link);
+    // SseEventBuilder 는 send() 할 때 내용이 바뀌므로 연결마다 새로 만듦
+    for (Connection connection : mailbox.connections) {
+      enqueue(mailbox, connection, toEvent(notification));
+    }
+  }
+
+  // 연결의 대기열에 event 를 넣고, 보내는 작업이 없으면 sender 에 맡김
+  private void enqueue(Mailbox mailbox, Connection connection, SseEmitter.SseEventBuilder event) {
+    if (connection.closed) {
+      return;
+    }
+    if (connection.pendingCount.incrementAndGet() > maxPendingPerConnection) {
+      // client 가 받는 속도보다 보낼 event 가 빨리 쌓임
+      log.debug("SSE 연결에 보내지 못한 event 가 {} 개를 넘어서 연결을 끊습니다", maxPendingPerConnection);
+      close(mailbox, connection);
+      return;
+    }
+    connection.pending.add(event);
+    schedule(mailbox, connection);
+  }
+
+  private void schedule(Mailbox mailbox, Connection connection) {
+    if (!connection.draining.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      sender.execute(() -> drain(mailbox, connection));
+    } catch (RejectedExecutionException e) {
+      // sender 의 대기열이 가득 참 : 이 연결은 끊고 servlet 비동기 timeout 으로 정리되도록 둠
+      connection.draining.set(false);
+      connection.closed = true;
+      mailbox.connections.remove(connection);
+      dropped.addAndGet(connection.clearPending());
+    }
+  }
+
+  // sender thread 에서 연결 하나의 event 를 순서대로 보냄
+  //  ㄴ 끊기로 한 연결은 여기서 complete() 함 (보내는 중인 send() 와 같은 thread 이므로 기다리지 않음)
+  private void drain(Mailbox mailbox, Connection connection) {
+    try {
+      SseEmitter.SseEventBuilder event;
+      while (!connection.closed && (event = connection.pending.poll()) != null) {
+        connection.pendingCount.decrementAndGet();
+        send(mailbox, connection, event);
+      }
+      if (connection.closed && !connection.completed) {
+        connection.completed = true;
+        connection.emitter.complete();
+      }
+    } finally {
+      connection.draining.set(false);
+    }
+    // 보내는 동안 새로 들어온 event 나 끊기로 한 요청이 있으면 다시 맡김
+    if ((!connection.closed && !connection.pending.isEmpty()) || (connection.closed && !connection.completed)) {
+      schedule(mailbox, connection);
+    }
+  }
+
+  // 보내다가 실패하면 (client 가 연결을 끊은 경우) 그 연결을 제거함
+  //  ㄴ 보내지 못한 알림은 buffer 에 남아 있으므로 다시 연결하면 받을 수 있음
+  private void send(Mailbox mailbox, Connection connection, SseEmitter.SseEventBuilder event) {
+    connection.sendingSince = System.nanoTime();
+    try {
+      connection.emitter.send(event);
+      delivered.incrementAndGet();
+    } catch (IOException | IllegalStateException e) {
+      dropped.incrementAndGet();
+      connection.closed = true;
+      connection.completed = true;
+      mailbox.connections.remove(connection);
+      dropped.addAndGet(connection.clearPending());
+      connection.emitter.completeWithError(e);
+      log.debug("SSE 연결이 끊겨서 제거합니다 : {}", e.getMessage());
+    } finally {
+      connection.sendingSince = 0;
+    }
+  }
+
+  // 연결을 더 사용하지 않도록 표시하고, 실제로 닫는 것은 sender thread 에 맡김 (drain)
+  private void close(Mailbox mailbox, Connection connection) {
+    connection.closed = true;
+    mailbox.connections.remove(connection);
+    dropped.addAndGet(connection.clearPending());
+    schedule(mailbox, connection);
+  }
+
+  private SseEmitter.SseEventBuilder toEvent(WebNotification notification) {
+    return SseEmitter.event()
+                     .id(epoch + "-" + notification.getId())
+                     .name(EVENT_NAME)
+                     .data(notification, MediaType.APPLICATION_JSON);
+  }
+
+  // "epoch-순번" -> 순번
+  //  ㄴ 형식이 다르거나, 서버가 재시작되기 전의 id 이면 0 (buffer 에 있는 알림을 모두 보냄)
+  private long sequenceOf(String lastEventId) {
+    if (!lastEventId.startsWith(epoch + "-")) {
+      return 0L;
+    }
+    try {
+      return Long.parseLong(lastEventId.substring(epoch.length() + 1));
+    } catch (NumberFormatException e) {
+      return 0L;
+    }
+  }
+
+  private static void requireWeb(NotificationChannel channel) {
+    if (!channel.isWeb()) {
+      throw new IllegalArgumentException(channel + " 는 web 알림이 아닙니다");
+    }
+  }
+
+  private static void afterCommit(Runnable task) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          task.run();
+        }
+      });
+    } else {
+      task.run();
+    }
+  }
+
+  // SSE 연결 하나와 아직 보내지 못한 event
+  private static final class Connection {
+    private final SseEmitter emitter;
+    private final Queue<SseEmitter.SseEventBuilder> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    // sender 에 맡긴 drain() 이 있으면 true
+    private final AtomicBoolean draining = new AtomicBoolean();
+    // 지금 보내고 있는 event 를 보내기 시작한 시각 (System.nanoTime, 보내고 있지 않으면 0)
+    private volatile long sendingSince;
+    private volatile boolean closed;
+    private volatile boolean completed;
+
+    private Connection(SseEmitter emitter) {
+      this.emitter = emitter;
+    }
+
+    // servlet container 가 연결을 끝낸 경우 (complete, timeout, error)
+    private void finished(Mailbox mailbox) {
+      closed = true;
+      completed = true;
+      mailbox.connections.remove(this);
+      clearPending();
+    }
+
+    // 대기열을 비우고 버린 event 수를 반환함
+    private int clearPending() {
+      int count = 0;
+      while (pending.poll() != null) {
+        pendingCount.decrementAndGet();
+        count++;
+      }
+      return count;
+    }
+  }
+
+  // account 하나의 연결 목록과 최근 알림 buffer
+  private static final class Mailbox {
+    private final List<Connection> connections = new CopyOnWriteArrayList<>();
+    private final WebNotification[] ring;
+    private long lastSequence;
+    private volatile long lastActiveAt;
+
+    private Mailbox(int bufferSize) {
+      this.ring = new WebNotification[bufferSize];
+      this.lastActiveAt = System.currentTimeMillis();
+    }
+
+    private void touch() {
+      lastActiveAt = System.currentTimeMillis();
+    }
+
+    private synchronized long lastSequence() {
+      return lastSequence;
+    }
+
+    private synchronized WebNotification append(NotificationChannel channel, String title, String link) {
+      long now = System.currentTimeMillis();
+      WebNotification notification = new WebNotification(++lastSequence, channel, title, link, now);
+      ring[(int) (notification.getId() % ring.length)] = notification;
+      lastActiveAt = now;
+      return notification;
+    }
+
+    // afterSequence 보다 뒤의 알림 (buffer 에 남아 있는 것만, 오래된 순서)
+    private synchronized List<WebNotification> since(long afterSequence) {
+      long first = Math.max(afterSequence + 1, lastSequence - ring.length + 1);
+      if (first > lastSequence) {
+        return Collections.emptyList();
+      }
+      List<WebNotification> result = new ArrayList<>((int) (lastSequence - first + 1));
+      for (long sequence = first; sequence <= lastSequence; sequence++) {
+        result.add(ring[(int) (sequence % ring.length)]);
+      }
+      return result;
+    }
+  }
+}
@@ -0,0 +1,165 @@
+package com.global.ratelimit;
+
+import com.global.account.UserAccount;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+  메일을 보내는 요청(회원 가입, 이메일 로그인, 인증 메일 재전송)과
+  가입된 email / nickName 을 알아낼 수 있는 요청(/check-availability)의 횟수를 제한하는 filter
+    ㄴ Controller 보다 먼저 실행되므로 거절된 요청은 DB 를 조회하지 않음
+    ㄴ route 에 설정한 기준(IP, email parameter, 로그인한 account id) 중 하나라도 limit 을 넘으면
+       429 (Too Many Requests) 와 Retry-After header 를 응답함
+       ㄴ IP -> email -> account 순서로 확인하고 거절되면 나머지 기준은 확인하지 않음
+          (거절된 요청이 email / account 의 횟수를 쓰거나 새 key 를 만들지 않도록 함)
+    ㄴ 로그인한 account id 는 Spring Security filter 가 session 에서 꺼내 둔 AccountPrincipal 에서 읽음
+  route 별 허용 / 거절 횟수는 app.rate-limit.requests metric 으로 내보냄
+*/
+@Slf4j
+@Component
+public class RateLimitFilter extends OncePerRequestFilter implements MeterBinder {
+
+  private final RateLimitProperties properties;
+  private final SlidingWindowRateLimiter rateLimiter;
+
+  // route 이름 -> 허용 / 거절 횟수
+  private final Map<String, AtomicLong> allowed = new ConcurrentHashMap<>();
+  private final Map<String, AtomicLong> rejected = new ConcurrentHashMap<>();
+
+  public RateLimitFilter(RateLimitProperties properties) {
+    this.properties = properties;
+    this.rateLimiter = new SlidingWindowRateLimiter(properties.getStripes(), properties.getMaxKeys());
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !properties.isEnabled() || findRoute(request) == null;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                  FilterChain filterChain) throws ServletException, IOException {
+    Map.Entry<String, RateLimitProperties.Route> route = findRoute(request);
+    long retryAfterMillis = acquire(route.getKey(), route.getValue(), request);
+    if (retryAfterMillis == 0) {
+      counter(allowed, route.getKey()).incrementAndGet();
+      filterChain.doFilter(request, response);
+      return;
+    }
+
+    counter(rejected, route.getKey()).incrementAndGet();
+    log.debug("요청 횟수 제한 : route={}, ip={}", route.getKey(), request.getRemoteAddr());
+    long retryAfterSeconds = Math.max(1, TimeUnit.MILLISECONDS.toSeconds(retryAfterMillis + 999));
+    response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+    response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "요청이 너무 많습니다. 잠시 후에 다시 시도하세요.");
+  }
+
+  // 기준을 차례로 확인하고 처음 거절된 기준에서 기다려야 하는 시간을 반환함 (허용하면 0)
+  private long acquire(String name, RateLimitProperties.Route route, HttpServletRequest request) {
+    long now = System.currentTimeMillis();
+    long window = route.getWindow().toMillis();
+    long retryAfter = rateLimiter.tryAcquire(name + ":ip:" + request.getRemoteAddr(), route.getPerIp(), window, now);
+    if (retryAfter > 0) {
+      return retryAfter;
+    }
+
+    String email = request.getParameter("email");
+    if (route.getPerEmail() > 0 && email != null && !email.isBlank()) {
+      String key = name + ":email:" + email.trim().toLowerCase(Locale.ROOT);
+      retryAfter = rateLimiter.tryAcquire(key, route.getPerEmail(), window, now);
+      if (retryAfter > 0) {
+        return retryAfter;
+      }
+    }
+
+    Long accountId = currentAccountId();
+    if (route.getPerAccount() > 0 && accountId != null) {
+      String key = name + ":account:" + accountId;
+      retryAfter = rateLimiter.tryAcquire(key, route.getPerAccount(), window, now);
+    }
+    return retryAfter;
+  }
+
+  // 오래 사용하지 않은 key 를 정리함 (기본값 : 5 분마다)
+  @Scheduled(fixedDelayString = "${app.rate-limit.sweep-interval-ms:300000}")
+  public void sweep() {
+    rateLimiter.sweep(System.currentTimeMillis());
+  }
+
+  public long getAllowedCount(String route) {
+    return counter(allowed, route).get();
+  }
+
+  public long getRejectedCount(String route) {
+    return counter(rejected, route).get();
+  }
+
+  public int getTrackedKeyCount() {
+    return rateLimiter.size();
+  }
+
+  public RateLimitProperties getProperties() {
+    return properties;
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    for (String route : properties.getRoutes().keySet()) {
+      FunctionCounter.builder("app.rate-limit.requests", counter(allowed, route), AtomicLong::get)
+                     .tag("route", route)
+                     .tag("result", "allowed")
+                     .register(registry);
+      FunctionCounter.builder("app.rate-limit.requests", counter(rejected, route), AtomicLong::get)
+                     .tag("route", route)
+                     .tag("result", "rejected")
+                     .register(registry);
+    }
+    Gauge.builder("app.rate-limit.keys", this, RateLimitFilter::getTrackedKeyCount)
+         .register(registry);
+    FunctionCounter.builder("app.rate-limit.evictions", rateLimiter, SlidingWindowRateLimiter::evictions)
+                   .register(registry);
+  }
+
+  private Map.Entry<String, RateLimitProperties.Route> findRoute(HttpServletRequest request) {
+    String path = request.getRequestURI().substring(request.getContextPath().length());
+    for (Map.Entry<String, RateLimitProperties.Route> entry : properties.getRoutes().entrySet()) {
+      RateLimitProperties.Route route = entry.getValue();
+      if (route.getMethod().equalsIgnoreCase(request.getMethod()) && route.getPath().equals(path)) {
+        return entry;
+      }
+    }
+    return null;
+  }
+
+  private static Long currentAccountId() {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication != null && authentication.getPrincipal() instanceof UserAccount) {
+      return ((UserAccount) authentication.getPrincipal()).getAccountPrincipal().getId();
+    }
+    return null;
+  }
+
+  private static AtomicLong counter(Map<String, AtomicLong> counters, String route) {
+    return counters.computeIfAbsent(route, key -> new AtomicLong());
+  }
+}
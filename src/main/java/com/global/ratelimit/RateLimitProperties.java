@@ -0,0 +1,72 @@
+package com.global.ratelimit;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+  rate limit 설정 (app.rate-limit.*)
+    ㄴ route 별로 IP / email / 로그인한 account 기준의 최대 요청 수를 지정함 (0 이면 제한하지 않음)
+    예) app.rate-limit.routes.email-login.per-email=3
+        app.rate-limit.routes.email-login.window=1h
+*/
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+  private boolean enabled = true;
+
+  // lock 을 나누는 개수 (2 의 거듭제곱으로 맞춤)
+  private int stripes = 64;
+
+  // 기록하는 key(IP, email, account id) 의 최대 개수 : 넘으면 가장 오래 사용하지 않은 key 부터 제거함
+  private int maxKeys = 100_000;
+
+  private Map<String, Route> routes = defaultRoutes();
+
+  @Getter
+  @Setter
+  public static class Route {
+    private String method;
+    private String path;
+    private Duration window = Duration.ofHours(1);
+    private int perIp;
+    private int perEmail;
+    private int perAccount;
+
+    public Route() {
+    }
+
+    Route(String method, String path, int perIp, int perEmail, int perAccount) {
+      this.method = method;
+      this.path = path;
+      this.perIp = perIp;
+      this.perEmail = perEmail;
+      this.perAccount = perAccount;
+    }
+
+    Route(String method, String path, Duration window, int perIp) {
+      this(method, path, perIp, 0, 0);
+      this.window = window;
+    }
+  }
+
+  // 회원 가입, 이메일 로그인, 인증 메일 재전송 : 모두 DB 에 쓰고 메일을 보냄
+  // 가입 화면의 email / nickName 사용 가능 여부 확인 : 로그인 없이 가입된 email 을 알아낼 수 있으므로 IP 별로 제한함
+  //  ㄴ 입력할 때마다 호출되므로 1 분 단위로 제한함
+  private static Map<String, Route> defaultRoutes() {
+    Map<String, Route> routes = new LinkedHashMap<>();
+    routes.put("sign-up", new Route("POST", "/sign-up", 10, 3, 0));
+    routes.put("email-login", new Route("POST", "/email-login", 20, 5, 0));
+    routes.put("resend-confirm-email", new Route("GET", "/resend-confirm-email", 20, 0, 3));
+    routes.put("check-availability", new Route("GET", "/check-availability", Duration.ofMinutes(1), 30));
+    return routes;
+  }
+}
@@ -0,0 +1,148 @@
+package com.global.ratelimit;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+  key 별로 최근 window 동안의 요청 시각을 기록해서 limit 개를 넘으면 거절하는 rate limiter (sliding window log)
+    ㄴ key 마다 limit 크기의 원형 배열(ring buffer)에 요청 시각을 저장하므로 key 당 메모리가 고정됨
+    ㄴ key 의 hash 로 stripe 를 나누고 stripe 마다 lock 을 따로 둠 (lock striping)
+       ㄴ 서로 다른 stripe 의 key 는 동시에 처리할 수 있음
+    ㄴ 오래 사용하지 않은 key 는 sweep() 으로 제거함
+    ㄴ 기록하는 key 개수는 maxKeys 까지만 : stripe 마다 maxKeys / stripe 개수를 넘으면
+       그 stripe 에서 가장 오래 사용하지 않은 key 를 제거함 (sweep 전에 key 가 한없이 늘어나지 않도록 함)
+*/
+public class SlidingWindowRateLimiter {
+
+  private final ReentrantLock[] locks;
+  private final Map<String, Window>[] stripes;
+  private final int mask;
+  private final int maxKeysPerStripe;
+  // maxKeys 를 넘어서 제거한 key 개수
+  private final AtomicLong evictions = new AtomicLong();
+
+  @SuppressWarnings("unchecked")
+  public SlidingWindowRateLimiter(int stripeCount, int maxKeys) {
+    // stripe 개수는 2 의 거듭제곱으로 맞춤 : hash & mask 로 stripe 를 찾음
+    int size = Integer.highestOneBit(Math.max(1, stripeCount - 1) << 1);
+    this.locks = new ReentrantLock[size];
+    this.stripes = new Map[size];
+    for (int i = 0; i < size; i++) {
+      locks[i] = new ReentrantLock();
+      // 접근한 순서로 정렬함 (accessOrder) : 맨 앞이 가장 오래 사용하지 않은 key
+      stripes[i] = new LinkedHashMap<>(16, 0.75f, true);
+    }
+    this.mask = size - 1;
+    this.maxKeysPerStripe = Math.max(1, (maxKeys + size - 1) / size);
+  }
+
+  // 요청을 허용하면 0, 거절하면 다시 요청할 수 있을 때까지 남은 시간(ms)을 반환함
+  public long tryAcquire(String key, int limit, long windowMillis, long now) {
+    if (limit <= 0) {
+      return 0;
+    }
+    int stripe = stripe(key);
+    ReentrantLock lock = locks[stripe];
+    lock.lock();
+    try {
+      Map<String, Window> windows = stripes[stripe];
+      Window window = windows.get(key);
+      if (window == null && windows.size() >= maxKeysPerStripe) {
+        Iterator<Window> eldest = windows.values().iterator();
+        eldest.next();
+        eldest.remove();
+        evictions.incrementAndGet();
+      }
+      // limit 설정이 바뀌었으면 새로 만듦
+      if (window == null || window.timestamps.length != limit || window.windowMillis != windowMillis) {
+        window = new Window(limit, windowMillis);
+        windows.put(key, window);
+      }
+      return window.tryAcquire(now);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  // window 안에 남은 요청이 없는 key 를 제거하고 제거한 개수를 반환함
+  public int sweep(long now) {
+    int removed = 0;
+    for (int i = 0; i < stripes.length; i++) {
+      locks[i].lock();
+      try {
+        Iterator<Window> iterator = stripes[i].values().iterator();
+        while (iterator.hasNext()) {
+          if (iterator.next().isIdle(now)) {
+            iterator.remove();
+            removed++;
+          }
+        }
+      } finally {
+        locks[i].unlock();
+      }
+    }
+    return removed;
+  }
+
+  // 현재 기록 중인 key 개수
+  public int size() {
+    int size = 0;
+    for (int i = 0; i < stripes.length; i++) {
+      locks[i].lock();
+      try {
+        size += stripes[i].size();
+      } finally {
+        locks[i].unlock();
+      }
+    }
+    return size;
+  }
+
+  public long evictions() {
+    return evictions.get();
+  }
+
+  private int stripe(String key) {
+    int h = key.hashCode();
+    return (h ^ (h >>> 16)) & mask;
+  }
+
+  private static final class Window {
+    private final long[] timestamps;
+    private final long windowMillis;
+    // 가장 오래된 요청 시각의 위치와 저장된 요청 수
+    private int head;
+    private int count;
+
+    private Window(int limit, long windowMillis) {
+      this.timestamps = new long[limit];
+      this.windowMillis = windowMillis;
+    }
+
+    private long tryAcquire(long now) {
+      expire(now);
+      if (count < timestamps.length) {
+        timestamps[(head + count) % timestamps.length] = now;
+        count++;
+        return 0;
+      }
+      // 가장 오래된 요청이 window 밖으로 나갈 때까지 기다려야 함
+      return Math.max(1, timestamps[head] + windowMillis - now);
+    }
+
+    private boolean isIdle(long now) {
+      expire(now);
+      return count == 0;
+    }
+
+    private void expire(long now) {
+      while (count > 0 && timestamps[head] <= now - windowMillis) {
+        head = (head + 1) % timestamps.length;
+        count--;
+      }
+    }
+  }
+}
@@ -0,0 +1,156 @@
+package com.global.session;
+
+import org.springframework.session.Session;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/*
+  FileSessionRepository 가 사용하는 Session
+    ㄴ file 에서 읽어온 attribute 는 byte 배열(압축된 직렬화 data) 상태로 두었다가
+       getAttribute() 로 처음 꺼낼 때 역직렬화함 (lazy deserialization)
+    ㄴ 요청 중에 바뀐 내용을 기억해 두었다가(dirty) 저장할 때
+       attribute 가 바뀌었으면 file 전체를, 마지막 접근 시간만 바뀌었으면 header 만 다시 씀
+*/
+public class FileSession implements Session {
+
+  private String id;
+  // file 에 저장되어 있는 id (changeSessionId() 를 호출하면 id 와 달라짐)
+  private String originalId;
+  private final Instant creationTime;
+  private Instant lastAccessedTime;
+  private Duration maxInactiveInterval;
+
+  // attribute 이름 -> 값 (역직렬화한 객체 또는 SessionCodec.Serialized)
+  private final Map<String, Object> attributes;
+
+  private boolean attributesChanged;
+  private boolean lastAccessedTimeChanged;
+
+  // 새로 만드는 session
+  FileSession(Duration maxInactiveInterval) {
+    this(UUID.randomUUID().toString(), Instant.now(), Instant.now(), maxInactiveInterval, new HashMap<>());
+    this.originalId = null;
+    this.attributesChanged = true;
+  }
+
+  // file 에서 읽어온 session
+  FileSession(String id, Instant creationTime, Instant lastAccessedTime,
+              Duration maxInactiveInterval, Map<String, Object> attributes) {
+    this.id = id;
+    this.originalId = id;
+    this.creationTime = creationTime;
+    this.lastAccessedTime = lastAccessedTime;
+    this.maxInactiveInterval = maxInactiveInterval;
+    this.attributes = attributes;
+  }
+
+  @Override
+  public String getId() {
+    return id;
+  }
+
+  @Override
+  public String changeSessionId() {
+    this.id = UUID.randomUUID().toString();
+    this.attributesChanged = true;
+    return id;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T getAttribute(String attributeName) {
+    Object value = attributes.get(attributeName);
+    if (value instanceof SessionCodec.Serialized) {
+      // 처음 꺼낼 때 역직렬화하고 결과를 보관함
+      value = ((SessionCodec.Serialized) value).deserialize();
+      attributes.put(attributeName, value);
+    }
+    return (T) value;
+  }
+
+  @Override
+  public Set<String> getAttributeNames() {
+    return new HashSet<>(attributes.keySet());
+  }
+
+  @Override
+  public void setAttribute(String attributeName, Object attributeValue) {
+    if (attributeValue == null) {
+      removeAttribute(attributeName);
+      return;
+    }
+    attributes.put(attributeName, attributeValue);
+    attributesChanged = true;
+  }
+
+  @Override
+  public void removeAttribute(String attributeName) {
+    if (attributes.remove(attributeName) != null) {
+      attributesChanged = true;
+    }
+  }
+
+  @Override
+  public Instant getCreationTime() {
+    return creationTime;
+  }
+
+  @Override
+  public void setLastAccessedTime(Instant lastAccessedTime) {
+    this.lastAccessedTime = lastAccessedTime;
+    this.lastAccessedTimeChanged = true;
+  }
+
+  @Override
+  public Instant getLastAccessedTime() {
+    return lastAccessedTime;
+  }
+
+  @Override
+  public void setMaxInactiveInterval(Duration interval) {
+    this.maxInactiveInterval = interval;
+    this.attributesChanged = true;
+  }
+
+  @Override
+  public Duration getMaxInactiveInterval() {
+    return maxInactiveInterval;
+  }
+
+  @Override
+  public boolean isExpired() {
+    return SessionCodec.isExpired(lastAccessedTime.toEpochMilli(), maxInactiveInterval, System.currentTimeMillis());
+  }
+
+  String getOriginalId() {
+    return originalId;
+  }
+
+  // SessionCodec 에서 file 에 쓸 때 사용함 : 역직렬화하지 않은 값은 byte 배열 그대로 씀
+  Map<String, Object> rawAttributes() {
+    return attributes;
+  }
+
+  // setAttribute() / removeAttribute() 를 호출한 경우에만 바뀐 것으로 판단함
+  //  ㄴ 꺼낸 객체의 내부만 바꾸면 저장되지 않으므로 다시 setAttribute() 해야 함 (다른 Spring Session 저장소와 동일)
+  //  ㄴ SecurityContext 는 HttpSessionSecurityContextRepository 가 바뀌었을 때 setAttribute() 를 호출함
+  boolean isAttributesChanged() {
+    return attributesChanged;
+  }
+
+  boolean isLastAccessedTimeChanged() {
+    return lastAccessedTimeChanged;
+  }
+
+  void markSaved() {
+    this.originalId = id;
+    this.attributesChanged = false;
+    this.lastAccessedTimeChanged = false;
+  }
+}
@@ -0,0 +1,310 @@
+package com.global.session;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.session.SessionRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/*
+  session 을 directory 안의 file 로 저장하는 SessionRepository (session 하나당 file 하나)
+    ㄴ application 을 재시작해도 로그인이 유지됨 (Tomcat 의 메모리에 저장하지 않음)
+    ㄴ 읽을 때는 file 전체를 byte 배열로 읽어서 SessionCodec 으로 변환함
+       ㄴ memory-mapped 로 읽지 않음 : mapping 은 GC 될 때까지 해제되지 않아서 삭제 / rename 한 file 이 계속 남아 있음
+    ㄴ attribute 가 바뀐 경우에만 file 전체를 다시 쓰고(임시 file 에 쓴 후 rename)
+       마지막 접근 시간만 바뀐 경우는 header 의 8 byte 만 덮어씀
+    ㄴ 만료된 session 은 sweepExpired() 에서 header 만 읽어서 판단하고 sweepBatchSize 개씩 삭제함
+    ㄴ save() 와 만료된 file 삭제는 session id 별 lock 을 잡고 실행함
+       ㄴ 만료로 판단한 뒤에 같은 session 이 저장(갱신)되었을 수 있으므로 삭제 직전에 lock 을 잡고 header 를 다시 확인함
+  한 번의 요청에서 findById() 와 save() 가 한 번씩 호출되므로
+  read / write 에 걸린 시간의 합계와 횟수로 요청당 session 처리 비용을 계산할 수 있음
+    ㄴ app.session.file.access (operation = read / write) metric 으로 내보냄
+*/
+@Slf4j
+public class FileSessionRepository implements SessionRepository<FileSession>, MeterBinder {
+
+  private static final String SUFFIX = ".session";
+  // session id 는 cookie 로 전달되므로 file 이름으로 사용하기 전에 형식을 확인함 (UUID)
+  private static final Pattern SESSION_ID = Pattern.compile("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+  private static final int LOCK_STRIPES = 64;
+
+  private final Path directory;
+  private final Duration defaultMaxInactiveInterval;
+  private final int sweepBatchSize;
+  private final ClassLoader classLoader;
+  // session id 의 hash 로 고르는 lock (session 마다 lock 을 만들지 않음)
+  private final Lock[] locks = new Lock[LOCK_STRIPES];
+
+  private final AtomicLong reads = new AtomicLong();
+  private final AtomicLong readNanos = new AtomicLong();
+  private final AtomicLong writes = new AtomicLong();
+  private final AtomicLong writeNanos = new AtomicLong();
+  private final AtomicLong touches = new AtomicLong();
+  private final AtomicLong expired = new AtomicLong();
+
+  public FileSessionRepository(Path directory, Duration defaultMaxInactiveInterval,
+                               int sweepBatchSize, ClassLoader classLoader) {
+    this.directory = directory;
+    this.defaultMaxInactiveInterval = defaultMaxInactiveInterval;
+    this.sweepBatchSize = sweepBatchSize;
+    this.classLoader = classLoader;
+    for (int i = 0; i < locks.length; i++) {
+      locks[i] = new ReentrantLock();
+    }
+    try {
+      Files.createDirectories(directory);
+    } catch (IOException e) {
+      throw new UncheckedIOException("session directory 를 만들 수 없습니다 : " + directory, e);
+    }
+  }
+
+  @Override
+  public FileSession createSession() {
+    return new FileSession(defaultMaxInactiveInterval);
+  }
+
+  @Override
+  public void save(FileSession session) {
+    long start = System.nanoTime();
+    String originalId = session.getOriginalId();
+    boolean idChanged = originalId != null && !originalId.equals(session.getId());
+    Lock lock = lock(session.getId());
+    lock.lock();
+    try {
+      if (originalId == null || idChanged || session.isAttributesChanged()) {
+        writeFully(session);
+        if (idChanged) {
+          // changeSessionId() : 로그인할 때 session fixation 방지를 위해 호출됨
+          Files.deleteIfExists(path(originalId));
+        }
+      } else if (session.isLastAccessedTimeChanged()) {
+        touch(session);
+      } else {
+        return;
+      }
+      session.markSaved();
+    } catch (IOException e) {
+      throw new UncheckedIOException("session 을 저장할 수 없습니다 : " + session.getId(), e);
+    } finally {
+      lock.unlock();
+      writes.incrementAndGet();
+      writeNanos.addAndGet(System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  public FileSession findById(String id) {
+    if (!isValidId(id)) {
+      return null;
+    }
+    long start = System.nanoTime();
+    try {
+      FileSession session = read(path(id));
+      if (session == null) {
+        return null;
+      }
+      if (session.isExpired()) {
+        deleteIfExpired(path(id), ByteBuffer.allocate(SessionCodec.HEADER_SIZE), System.currentTimeMillis());
+        return null;
+      }
+      return session;
+    } finally {
+      reads.incrementAndGet();
+      readNanos.addAndGet(System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  public void deleteById(String id) {
+    if (!isValidId(id)) {
+      return;
+    }
+    try {
+      Files.deleteIfExists(path(id));
+    } catch (IOException e) {
+      log.warn("session file 을 삭제할 수 없습니다 : {}", id, e);
+    }
+  }
+
+  // 만료된 session file 을 삭제함 (기본값 : 1 분마다)
+  //  ㄴ file 전체를 읽지 않고 header 만 읽어서 만료 여부를 판단함
+  @Scheduled(fixedDelayString = "${app.session.file.sweep-interval-ms:60000}")
+  public void sweepExpired() {
+    long now = System.currentTimeMillis();
+    ByteBuffer header = ByteBuffer.allocate(SessionCodec.HEADER_SIZE);
+    List<Path> batch = new ArrayList<>(sweepBatchSize);
+    int deleted = 0;
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+      for (Path file : files) {
+        if (isExpired(file, header, now)) {
+          batch.add(file);
+        }
+        if (batch.size() >= sweepBatchSize) {
+          deleted += delete(batch, header, now);
+        }
+      }
+    } catch (IOException e) {
+      log.warn("만료된 session 을 정리하지 못했습니다", e);
+    }
+    deleted += delete(batch, header, now);
+    if (deleted > 0) {
+      expired.addAndGet(deleted);
+      log.info("만료된 session {} 개를 삭제했습니다", deleted);
+    }
+  }
+
+  public long getReadCount() {
+    return reads.get();
+  }
+
+  public long getReadTime(TimeUnit unit) {
+    return unit.convert(readNanos.get(), TimeUnit.NANOSECONDS);
+  }
+
+  public long getWriteCount() {
+    return writes.get();
+  }
+
+  public long getWriteTime(TimeUnit unit) {
+    return unit.convert(writeNanos.get(), TimeUnit.NANOSECONDS);
+  }
+
+  // header 만 덮어쓴 횟수 (write 횟수에 포함됨)
+  public long getTouchCount() {
+    return touches.get();
+  }
+
+  public long getExpiredCount() {
+    return expired.get();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionTimer.builder("app.session.file.access", this,
+                          FileSessionRepository::getReadCount,
+                          repository -> repository.getReadTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS)
+                 .tag("operation", "read")
+                 .register(registry);
+    FunctionTimer.builder("app.session.file.access", this,
+                          FileSessionRepository::getWriteCount,
+                          repository -> repository.getWriteTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS)
+                 .tag("operation", "write")
+                 .register(registry);
+    FunctionCounter.builder("app.session.file.touches", this, FileSessionRepository::getTouchCount)
+                   .register(registry);
+    FunctionCounter.builder("app.session.file.expired", this, FileSessionRepository::getExpiredCount)
+                   .register(registry);
+  }
+
+  private FileSession read(Path file) {
+    try {
+      byte[] bytes = Files.readAllBytes(file);
+      if (bytes.length < SessionCodec.HEADER_SIZE) {
+        return null;
+      }
+      return SessionCodec.decode(ByteBuffer.wrap(bytes), classLoader);
+    } catch (NoSuchFileException e) {
+      return null;
+    } catch (IOException | RuntimeException e) {
+      // 읽을 수 없는 session 은 없는 것으로 취급함 (다시 로그인해야 함)
+      log.warn("session file 을 읽을 수 없습니다 : {}", file.getFileName(), e);
+      return null;
+    }
+  }
+
+  private void writeFully(FileSession session) throws IOException {
+    byte[] bytes = SessionCodec.encode(session);
+    Path temp = Files.createTempFile(directory, session.getId(), ".tmp");
+    try {
+      Files.write(temp, bytes);
+      Files.move(temp, path(session.getId()), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  // 마지막 접근 시간만 덮어씀 : file 이 없으면(만료되어 삭제된 경우 등) 전체를 다시 씀
+  private void touch(FileSession session) throws IOException {
+    Path file = path(session.getId());
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+      ByteBuffer lastAccessedTime = ByteBuffer.allocate(Long.BYTES);
+      lastAccessedTime.putLong(0, session.getLastAccessedTime().toEpochMilli());
+      channel.write(lastAccessedTime, SessionCodec.LAST_ACCESSED_OFFSET);
+      touches.incrementAndGet();
+    } catch (NoSuchFileException e) {
+      writeFully(session);
+    }
+  }
+
+  private boolean isExpired(Path file, ByteBuffer header, long now) {
+    header.clear();
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+        // header 를 끝까지 읽음
+      }
+    } catch (IOException e) {
+      return false;
+    }
+    // header 가 온전하지 않은 file 은 (임시 file 에 쓴 후 rename 하므로) 손상된 file 로 보고 함께 삭제함
+    return header.hasRemaining() || SessionCodec.isExpired(header, now);
+  }
+
+  private int delete(List<Path> batch, ByteBuffer header, long now) {
+    int deleted = 0;
+    for (Path file : batch) {
+      if (deleteIfExpired(file, header, now)) {
+        deleted++;
+      }
+    }
+    batch.clear();
+    return deleted;
+  }
+
+  // lock 을 잡은 후에 만료 여부를 다시 확인하고 삭제함 : 그 사이에 save() 로 갱신된 session 은 삭제하지 않음
+  private boolean deleteIfExpired(Path file, ByteBuffer header, long now) {
+    String fileName = file.getFileName().toString();
+    Lock lock = lock(fileName.substring(0, fileName.length() - SUFFIX.length()));
+    lock.lock();
+    try {
+      return isExpired(file, header, now) && Files.deleteIfExists(file);
+    } catch (IOException e) {
+      log.warn("session file 을 삭제할 수 없습니다 : {}", fileName, e);
+      return false;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private Lock lock(String id) {
+    return locks[Math.floorMod(id.hashCode(), locks.length)];
+  }
+
+  private Path path(String id) {
+    return directory.resolve(id + SUFFIX);
+  }
+
+  private static boolean isValidId(String id) {
+    return id != null && SESSION_ID.matcher(id).matches();
+  }
+}
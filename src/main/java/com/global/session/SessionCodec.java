@@ -0,0 +1,155 @@
+package com.global.session;
+
+import org.springframework.core.ConfigurableObjectInputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/*
+  FileSession <-> byte 배열 변환
+    [header : 고정 길이 25 byte]
+      magic(int) version(byte) creationTime(long) lastAccessedTime(long) maxInactiveInterval 초(int)
+    [body]
+      id 길이(short) id(UTF-8)
+      attribute 개수(int)
+      attribute 마다 : 이름 길이(short) 이름(UTF-8) 값 길이(int) 값(Java 직렬화 -> deflate 압축)
+  lastAccessedTime 은 고정 위치(LAST_ACCESSED_OFFSET)에 있으므로
+  마지막 접근 시간만 바뀐 경우 file 전체를 다시 쓰지 않고 8 byte 만 덮어씀
+*/
+final class SessionCodec {
+
+  static final int MAGIC = 0x47534553; // "GSES"
+  static final byte VERSION = 1;
+  static final int HEADER_SIZE = 25;
+  static final int LAST_ACCESSED_OFFSET = 13;
+
+  private SessionCodec() {
+  }
+
+  static byte[] encode(FileSession session) {
+    Map<String, Object> attributes = session.rawAttributes();
+    ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    header.putInt(MAGIC)
+          .put(VERSION)
+          .putLong(session.getCreationTime().toEpochMilli())
+          .putLong(session.getLastAccessedTime().toEpochMilli())
+          .putInt((int) session.getMaxInactiveInterval().getSeconds());
+    out.write(header.array(), 0, HEADER_SIZE);
+
+    writeString(out, session.getId());
+    writeInt(out, attributes.size());
+    for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+      writeString(out, entry.getKey());
+      // 역직렬화하지 않은 값은 압축된 byte 배열을 그대로 씀
+      Object value = entry.getValue();
+      byte[] bytes = value instanceof Serialized ? ((Serialized) value).bytes : serialize(value);
+      writeInt(out, bytes.length);
+      out.write(bytes, 0, bytes.length);
+    }
+    return out.toByteArray();
+  }
+
+  // attribute 값은 압축된 byte 배열(Serialized) 상태로 둠 : 꺼낼 때 역직렬화함
+  static FileSession decode(ByteBuffer buffer, ClassLoader classLoader) {
+    if (buffer.getInt() != MAGIC || buffer.get() != VERSION) {
+      throw new IllegalStateException("session file 형식이 올바르지 않습니다");
+    }
+    Instant creationTime = Instant.ofEpochMilli(buffer.getLong());
+    Instant lastAccessedTime = Instant.ofEpochMilli(buffer.getLong());
+    Duration maxInactiveInterval = Duration.ofSeconds(buffer.getInt());
+
+    String id = readString(buffer);
+    int count = buffer.getInt();
+    Map<String, Object> attributes = new HashMap<>(Math.max(16, count * 2));
+    for (int i = 0; i < count; i++) {
+      String name = readString(buffer);
+      byte[] bytes = new byte[buffer.getInt()];
+      buffer.get(bytes);
+      attributes.put(name, new Serialized(bytes, classLoader));
+    }
+    return new FileSession(id, creationTime, lastAccessedTime, maxInactiveInterval, attributes);
+  }
+
+  // header 만 읽어서 만료 여부를 판단함 (만료된 session 정리할 때 사용함)
+  static boolean isExpired(ByteBuffer header, long now) {
+    if (header.getInt(0) != MAGIC) {
+      return true;
+    }
+    long lastAccessedTime = header.getLong(LAST_ACCESSED_OFFSET);
+    int maxInactiveSeconds = header.getInt(LAST_ACCESSED_OFFSET + 8);
+    return isExpired(lastAccessedTime, Duration.ofSeconds(maxInactiveSeconds), now);
+  }
+
+  // maxInactiveInterval 이 0 보다 작으면 만료되지 않음
+  static boolean isExpired(long lastAccessedTime, Duration maxInactiveInterval, long now) {
+    return !maxInactiveInterval.isNegative()
+           && now - maxInactiveInterval.toMillis() >= lastAccessedTime;
+  }
+
+  private static byte[] serialize(Object value) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+    Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try (ObjectOutputStream out = new ObjectOutputStream(new DeflaterOutputStream(bytes, deflater))) {
+      out.writeObject(value);
+    } catch (IOException e) {
+      throw new UncheckedIOException("session attribute 를 직렬화할 수 없습니다 : " + value.getClass().getName(), e);
+    } finally {
+      deflater.end();
+    }
+    return bytes.toByteArray();
+  }
+
+  private static void writeString(ByteArrayOutputStream out, String value) {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.write(bytes.length >>> 8);
+    out.write(bytes.length);
+    out.write(bytes, 0, bytes.length);
+  }
+
+  private static void writeInt(ByteArrayOutputStream out, int value) {
+    out.write(value >>> 24);
+    out.write(value >>> 16);
+    out.write(value >>> 8);
+    out.write(value);
+  }
+
+  private static String readString(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  // 아직 역직렬화하지 않은 attribute 값
+  static final class Serialized {
+    private final byte[] bytes;
+    private final ClassLoader classLoader;
+
+    private Serialized(byte[] bytes, ClassLoader classLoader) {
+      this.bytes = bytes;
+      this.classLoader = classLoader;
+    }
+
+    Object deserialize() {
+      try (ObjectInputStream in = new ConfigurableObjectInputStream(
+             new InflaterInputStream(new ByteArrayInputStream(bytes)), classLoader)) {
+        return in.readObject();
+      } catch (IOException | ClassNotFoundException e) {
+        throw new IllegalStateException("session attribute 를 역직렬화할 수 없습니다", e);
+      }
+    }
+  }
+}
@@ -1,19 +1,19 @@
 package com.global.settings;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.global.account.AccountService;
 import com.global.account.CurrentUser;
 import com.global.domain.Account;
 import com.global.domain.Tag;
 import com.global.domain.Zone;
+import com.global.image.InvalidProfileImageException;
+import com.global.image.ProfileImageService;
+import com.global.notification.NotificationRecipientService;
 import com.global.settings.form.*;
 import com.global.settings.validator.NickNameValidator;
 import com.global.settings.validator.PasswordFormValidator;
-import com.global.tag.TagRepository;
-import com.global.zone.ZoneRepository;
+import com.global.tag.TagService;
+import com.global.zone.ZoneService;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -24,7 +24,10 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import javax.validation.Valid;
 import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -74,19 +77,22 @@ public class SettingsController {
   // Service type 의 멤버변수 선언
   private final AccountService accountService;
 
-  // SettingsController 에서 ModelMapper 설정하기
+  // Form 객체 <-> Account mapping 은 SettingsFormMapper 에서 처리함
   // @RequiredArgsConstructor 에 의해서 Spring 으로부터 주입 받기
-  private final ModelMapper modelMapper;
+  private final SettingsFormMapper settingsFormMapper;
 
   // SettingsController 에서 ModelMapper 설정하기
   // @RequiredArgsConstructor 에 의해서 Spring 으로부터 주입 받기
   private final NickNameValidator nickNameValidator;
 
-  private final TagRepository tagRepository;
-  private final ZoneRepository zoneRepository;
-
-  // ObjectMapper : Java 객체를 JSON 으로 변환함
-  private final ObjectMapper objectMapper;
+  // Tag 는 DB 를 직접 조회하지 않고 TagService 의 사전(dictionary)에서 찾음
+  private final TagService tagService;
+  // Zone 은 ZoneService 가 메모리에 올려놓은 index 에서 찾음
+  private final ZoneService zoneService;
+  // 프로필 이미지는 Transaction 밖에서 thumbnail 로 저장한 후 hash 만 AccountService 에 넘김
+  private final ProfileImageService profileImageService;
+  // 알림 설정은 Account 가 아니라 notification_preference 에서 읽음
+  private final NotificationRecipientService notificationRecipientService;
 
 
   // PasswordFormValidator 를 Bean 으로 등록하지 않고
@@ -116,9 +122,9 @@ public class SettingsController {
     // attributeName 이 자동으로 "profile" 이라고 지어짐
     // model.addAttribute(new Profile(account));
     //  ㄴ Profile 클래스에 매개변수 있는 생성자가 없으면 오류가 발생함
-    //   ㄴ 아래와 같이 ModelMapper 로 처리함
-    //  ┌ Profile 객체를 자동으로 생성해서 account 클래스의 멤버변수에 있는 정보를 Profile 객체에 mapping 함
-    model.addAttribute(modelMapper.map(account, Profile.class));
+    //   ㄴ 아래와 같이 SettingsFormMapper 로 처리함
+    //  ┌ Profile 객체를 생성해서 account 클래스의 멤버변수에 있는 정보를 Profile 객체에 mapping 함
+    model.addAttribute(settingsFormMapper.toProfile(account));
     return SETTINGS_PROFILE_VIEW;
 
   }
@@ -150,6 +156,17 @@ public class SettingsController {
       return SETTINGS_PROFILE_VIEW;
     }
 
+    // cropper.js 에서 넘어온 Data URL 을 thumbnail 로 저장하고 hash 로 바꿈
+    //  ㄴ decoding / resize / file 쓰기는 DB connection 을 잡지 않도록 Transaction 밖에서 처리함
+    //  ㄴ 잘못된 이미지는 500 이 아니라 form error 로 보여줌
+    try {
+      profile.setProfileImage(profileImageService.store(profile.getProfileImage(), account.getProfileImage()));
+    } catch (InvalidProfileImageException e) {
+      errors.rejectValue("profileImage", "wrong.value", e.getMessage());
+      model.addAttribute(account);
+      return SETTINGS_PROFILE_VIEW;
+    }
+
     // error 가 없는 경우, update(수정작업) 를 진행함
     // data 를 수정하는 경우에는 Service 에 위임해서
     // Transaction 안에서 수정해야  DB 에 반영됨
@@ -198,9 +215,9 @@ public class SettingsController {
     model.addAttribute(account);
     // model.addAttribute(new Notifications(account));
     //  ㄴ Notifications 클래스에 매개변수 있는 생성자가 없으면 오류가 발생함
-    //   ㄴ 아래와 같이 ModelMapper 로 처리함
-    //  ┌ Notifications 객체를 자동으로 생성해서 account 클래스의 멤버변수에 있는 정보를 Notifications 객체에 mapping 함
-    model.addAttribute(modelMapper.map(account, Notifications.class));
+    //   ㄴ 아래와 같이 notification_preference 의 bit mask 로 Notifications 객체를 만듦
+    //  ┌ 알림을 보낼 때 읽는 값과 같은 값을 화면에 보여줌
+    model.addAttribute(notificationRecipientService.findPreferences(account.getId()));
     return SETTING_NOTIFICATIONS_VIEW;
   }
 
@@ -228,14 +245,13 @@ public class SettingsController {
 
     // form 을 입력하는 view 에서 등록한 tag 정보들을 조회하기
     // Account 가 가지고 있는 tag 정보를 가져옴
-    Set<Tag> tags = accountService.getTags(account);
-
     // view 에서 보여줄 때는 Tag Entity type 으로
     // 보여주는 것이 아니고 문자열로 전송함
     // Tag type 의 List 가 아니고, 문자열 type 의 List 로 함
+    //  ㄴ AccountService 에서 title 만 한 번의 query 로 가져옴
     // CurrentUser 가 가지고 있는 tag 목록을 view 에 전달하게 됨
     // view 에서 이 정보를 화면에 (thymeleaf 사용)보여주게 됨  <-- settings/tags.html
-    model.addAttribute("tags", tags.stream().map(Tag::getTitle).collect(Collectors.toList()));
+    model.addAttribute("tags", accountService.getTagTitles(account));
 
     // settings/tags
     return SETTINGS_TAGS_VIEW;
@@ -261,12 +277,8 @@ public class SettingsController {
                                                                 .build()));
     */
 
-    Tag tag = tagRepository.findByTitle(title);
-    /* Optional 을 사용하지 않고 조건문으로 null 값 처리를 하는 경우 */
-    /* tagRepository.findbyTitle(title) 으로 tag 를 가져오지 못하면 찾아서 할당함 */
-    if (tag == null){
-      tag = tagRepository.save(Tag.builder().title(tagForm.getTagTitle()).build());
-    }
+    /* TagService 의 사전(dictionary)에서 찾고, 없으면 새로 저장함 */
+    Tag tag = tagService.findOrCreate(title);
 
     /* tag 를 가져온 경우(tag 가 DB 에 있음) account 에 tag 를 추가함 */
     accountService.addTag(account, tag);
@@ -279,7 +291,7 @@ public class SettingsController {
   public ResponseEntity removeTag(@CurrentUser Account account,
                                   @RequestBody TagForm tagForm){
     String title = tagForm.getTagTitle();
-    Tag tag = tagRepository.findByTitle(title);
+    Tag tag = tagService.findByTitle(title);
     if(tag == null){
       return ResponseEntity.badRequest().build();
     }
@@ -287,12 +299,41 @@ public class SettingsController {
     return ResponseEntity.ok().build();
   }
 
+  // tags.html 에서 모아 둔 tag 추가 / 삭제를 한 번의 요청으로 처리함
+  //  ㄴ {"add": ["java", "spring"], "remove": ["jpa"]}
+  //  ㄴ 추가 / 삭제는 AccountService 에서 하나의 Transaction 으로 처리함
+  @PostMapping(SETTINGS_TAGS_URL + "/batch")
+  @ResponseBody
+  public ResponseEntity updateTagsInBatch(@CurrentUser Account account,
+                                          @RequestBody TagBatchForm tagBatchForm){
+    List<Tag> tagsToAdd = tagBatchForm.getAdd().stream()
+                                      .filter(title -> title != null && !title.isBlank())
+                                      .map(tagService::findOrCreate)
+                                      .collect(Collectors.toList());
+    // 없는 tag 는 삭제할 필요가 없으므로 건너뜀
+    List<Tag> tagsToRemove = tagBatchForm.getRemove().stream()
+                                         .map(tagService::findByTitle)
+                                         .filter(Objects::nonNull)
+                                         .collect(Collectors.toList());
+    accountService.updateTags(account, tagsToAdd, tagsToRemove);
+    return ResponseEntity.ok().build();
+  }
+
+  // tags.html 의 tagify 에서 입력할 때마다 호출하는 메소드
+  //  ㄴ /settings/tags/search?q=ja  <-- q 로 시작하는 tag 목록을 JSON 으로 반환함
+  //  ㄴ DB 를 조회하지 않고 TagService 의 사전(dictionary)에서 찾음
+  @GetMapping(SETTINGS_TAGS_URL + "/search")
+  @ResponseBody
+  public List<String> searchTags(@RequestParam(name = "q", defaultValue = "") String query){
+    return tagService.search(query);
+  }
+
 
   // nickName 수정하기 위해서 @GetMapping, @PostMapping  메소드 작성하기
   @GetMapping(SETTINGS_ACCOUNT_URL)
   public String updateAccountForm(@CurrentUser Account account, Model model){
     model.addAttribute(account);
-    model.addAttribute(modelMapper.map(account, NickNameForm.class));
+    model.addAttribute(settingsFormMapper.toNickNameForm(account));
     return SETTINGS_ACCOUNT_VIEW;
   }
 
@@ -314,18 +355,48 @@ public class SettingsController {
   }
 
   @GetMapping(SETTINGS_ZONES_URL)
-  public String updateZoneForm(@CurrentUser Account account, Model model) throws JsonProcessingException {
+  public String updateZoneForm(@CurrentUser Account account, Model model){
     model.addAttribute(account);
 
-    Set<Zone> zones = accountService.getZones(account);
-    model.addAttribute("zones", zones.stream().map(Zone::toString).collect(Collectors.toList()));
-
-    List<String> allZones = zoneRepository.findAll().stream().map(Zone::toString).collect(Collectors.toList());
-    model.addAttribute("allZones", objectMapper.writeValueAsString(allZones));
+    // 현재 user 가 등록한 Zone 만 view 에 전달함
+    //  ㄴ 전체 Zone 목록(whitelist)은 입력할 때마다 /settings/zones/search 로 조회함
+    //  ㄴ Tagify 의 tag 로 사용할 수 있도록 {"id": .., "value": ..} 형태로 전달함
+    List<Zone> zones = accountService.getZones(account);
+    model.addAttribute("zones", zones.stream().map(SettingsController::toZoneTag).collect(Collectors.toList()));
 
     return SETTINGS_ZONES_VIEW;
   }
 
+  // zones.html 의 tagify 에서 입력할 때마다 호출하는 메소드
+  //  ㄴ /settings/zones/search?q=an  <-- q 로 시작하는 Zone 목록을 JSON 으로 반환함
+  //     [{"id": 1, "value": "Andong(안동시)/North Gyeongsang"}, ...]
+  //  ㄴ DB 를 조회하지 않고 ZoneService 가 메모리에 올려놓은 index 에서 찾음
+  @GetMapping(SETTINGS_ZONES_URL + "/search")
+  @ResponseBody
+  public List<Map<String, Object>> searchZones(@RequestParam(name = "q", defaultValue = "") String query){
+    return zoneService.searchZones(query).stream().map(SettingsController::toZoneTag).collect(Collectors.toList());
+  }
+
+  // Zone -> Tagify 의 tag
+  //  ㄴ add / remove 요청에서 id 를 zoneId 로 돌려받음
+  private static Map<String, Object> toZoneTag(Zone zone){
+    Map<String, Object> tag = new LinkedHashMap<>();
+    tag.put("id", zone.getId());
+    tag.put("value", zone.toString());
+    return tag;
+  }
+
+  // zoneId 로 찾고, zoneId 가 없으면 zoneName 에서 꺼낸 city, province 로 찾음
+  private Zone findZone(ZoneForm zoneForm){
+    if(zoneForm.getZoneId() != null){
+      return zoneService.findById(zoneForm.getZoneId());
+    }
+    if(zoneForm.getZoneName() == null || zoneForm.getZoneName().indexOf('(') < 0){
+      return null;
+    }
+    return zoneService.findByCityAndProvince(zoneForm.getCityName(), zoneForm.getProvinceName());
+  }
+
   // zones.html 의 ajax 에서
   //  method: "POST",
   //  url: "/settings/zones" + url,  <-- 이렇게 지정하면
@@ -340,7 +411,7 @@ public class SettingsController {
   public ResponseEntity addZone(@CurrentUser Account account,
                                 @RequestBody ZoneForm zoneForm){
 
-    Zone zone = zoneRepository.findByCityAndProvince(zoneForm.getCityName(), zoneForm.getProvinceName());
+    Zone zone = findZone(zoneForm);
     if(zone == null){
       return ResponseEntity.badRequest().build();
     }
@@ -362,7 +433,7 @@ public class SettingsController {
   public ResponseEntity removeZone(@CurrentUser Account account,
                                    @RequestBody ZoneForm zoneForm){
 
-    Zone zone = zoneRepository.findByCityAndProvince(zoneForm.getCityName(), zoneForm.getProvinceName());
+    Zone zone = findZone(zoneForm);
     if(zone == null){
       return ResponseEntity.badRequest().build();
     }
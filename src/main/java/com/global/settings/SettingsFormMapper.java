@@ -0,0 +1,45 @@
+package com.global.settings;
+
+import com.global.domain.Account;
+import com.global.settings.form.NickNameForm;
+import com.global.settings.form.Profile;
+import org.springframework.stereotype.Component;
+
+/*
+  Settings 화면의 Form 객체 <-> Account 사이의 mapping 을 담당하는 객체
+    ㄴ ModelMapper 는 mapping 할 때마다 reflection 으로 type map 을 찾아서 처리하지만
+       여기서는 getter / setter 를 직접 호출하므로 요청을 처리할 때 reflection 을 사용하지 않음
+    ㄴ Form 클래스에 field 를 추가하고 mapping 을 빠뜨리면 SettingsFormMapperTest 의 round-trip test 가 실패함
+    ㄴ PasswordForm 은 Account 에 mapping 하지 않고 AccountService.updatePassword() 에서 encoding 해서 저장함
+    ㄴ Notifications 는 Account 가 아니라 notification_preference 의 bit mask 와 mapping 함 (NotificationChannel)
+*/
+@Component
+public class SettingsFormMapper {
+
+  // Account -> Profile  (SettingsController 의 updateProfileForm() 에서 사용함)
+  public Profile toProfile(Account account) {
+    Profile profile = new Profile();
+    profile.setBio(account.getBio());
+    profile.setUrl(account.getUrl());
+    profile.setOccupation(account.getOccupation());
+    profile.setLocation(account.getLocation());
+    profile.setProfileImage(account.getProfileImage());
+    return profile;
+  }
+
+  // Profile -> Account  (AccountService 의 updateProfile() 에서 사용함)
+  public void applyProfile(Profile profile, Account account) {
+    account.setBio(profile.getBio());
+    account.setUrl(profile.getUrl());
+    account.setOccupation(profile.getOccupation());
+    account.setLocation(profile.getLocation());
+    account.setProfileImage(profile.getProfileImage());
+  }
+
+  // Account -> NickNameForm  (SettingsController 의 updateAccountForm() 에서 사용함)
+  public NickNameForm toNickNameForm(Account account) {
+    NickNameForm nickNameForm = new NickNameForm();
+    nickNameForm.setNickName(account.getNickName());
+    return nickNameForm;
+  }
+}
@@ -3,7 +3,6 @@ package com.global.settings.form;
 import com.global.domain.Account;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.modelmapper.ModelMapper;
 
 // Form 에 입력하는 용도
 @Data
@@ -4,7 +4,6 @@ import com.global.domain.Account;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.validator.constraints.Length;
-import org.modelmapper.ModelMapper;
 
 /*
   com.global.domain.Account 클래스에 있는
@@ -0,0 +1,14 @@
+package com.global.settings.form;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// tags.html 에서 여러 개의 tag 추가 / 삭제를 모아서 한 번에 보낼 때 사용하는 Form
+//  ㄴ {"add": ["java", "spring"], "remove": ["jpa"]}
+@Data
+public class TagBatchForm {
+  private List<String> add = new ArrayList<>();
+  private List<String> remove = new ArrayList<>();
+}
@@ -6,6 +6,10 @@ import lombok.Data;
 @Data
 public class ZoneForm {
 
+  // Tagify 에서 보내주는 Zone 의 id (검색 결과 {"id": 1, "value": "Andong(안동시)/North Gyeongsang"} 의 id)
+  //  ㄴ zoneId 가 있으면 zoneName 을 parsing 하지 않음
+  private Long zoneId;
+
   private String zoneName;
 
   public String getCityName(){
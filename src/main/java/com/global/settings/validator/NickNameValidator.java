@@ -1,7 +1,6 @@
 package com.global.settings.validator;
 
-import com.global.account.AccountRepository;
-import com.global.domain.Account;
+import com.global.account.AccountNameFilter;
 import com.global.settings.form.NickNameForm;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
@@ -12,7 +11,7 @@ import org.springframework.validation.Validator;
 @RequiredArgsConstructor
 public class NickNameValidator implements Validator {
 
-  private final AccountRepository accountRepository;
+  private final AccountNameFilter accountNameFilter;
 
   @Override
   public boolean supports(Class<?> clazz) {
@@ -23,10 +22,10 @@ public class NickNameValidator implements Validator {
   public void validate(Object target, Errors errors) {
     // NickNameForm 객체가 먼저 메모리에 loading 되므로 null 값 확인 안 해도 됨
     NickNameForm nickNameForm = (NickNameForm)target;
-    Account byNickName = accountRepository.findByNickName(nickNameForm.getNickName());
     // nickNameForm.getNickName() 으로 가져온 nickName 을 사용하는 user 가 있는지 없는지 중복 확인만 하면 됨
+    //  ㄴ Bloom filter 에 없으면 DB 를 조회하지 않음
     // 중복된 경우에는 아래와 같이 처리함
-    if (byNickName != null){
+    if (accountNameFilter.isNickNameTaken(nickNameForm.getNickName())){
       errors.rejectValue("nickName", "wrong.value", "입력하신 닉네임은 사용할 수 없습니다.");
     }
   }
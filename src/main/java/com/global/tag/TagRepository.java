@@ -9,5 +9,8 @@ import java.util.Optional;
 @Transactional(readOnly = true)
 public interface TagRepository extends JpaRepository<Tag, Long> {
 
-  Tag findByTitle(String title);
+  // TagService 사전의 key 처럼 대소문자를 구분하지 않고 찾음
+  //  ㄴ title 의 unique 제약조건은 대소문자를 구분하므로 "Java", "java" 가 둘 다 있으면 먼저 저장된 Tag 를 사용함
+  //     (사전을 채울 때 putIfAbsent 로 먼저 읽은 Tag 를 남기는 것과 같음)
+  Tag findFirstByTitleIgnoreCaseOrderByIdAsc(String title);
 }
@@ -0,0 +1,116 @@
+package com.global.tag;
+
+import com.global.config.PrimaryReads;
+import com.global.domain.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/*
+  Tag 사전(dictionary) : title -> Tag 를 메모리에 보관함
+    ㄴ title 은 앞뒤 공백을 제거하고 소문자로 바꿔서(normalize) key 로 사용함
+       ("Java", " java " 는 같은 Tag)
+    ㄴ application 이 시작되면 DB 의 Tag 를 모두 읽어옴 (warm up)
+    ㄴ 새 Tag 를 저장하면 바로 사전에 추가함
+    ㄴ 사전에 넣을 Tag 는 primary 에서 읽음 (PrimaryReads) : 복제 지연된 replica 에 없는 Tag 를 다시 저장하지 않도록 함
+    ㄴ key 가 정렬되어 있으므로 접두어(prefix) 검색도 이 사전에서 처리함
+*/
+@Slf4j
+@Service
+public class TagService {
+
+  private final TagRepository tagRepository;
+  private final TransactionTemplate newTransaction;
+  private final int searchLimit;
+
+  private final ConcurrentSkipListMap<String, Tag> dictionary = new ConcurrentSkipListMap<>();
+
+  public TagService(TagRepository tagRepository,
+                    PlatformTransactionManager transactionManager,
+                    @Value("${app.tag.search-limit:10}") int searchLimit) {
+    this.tagRepository = tagRepository;
+    this.newTransaction = new TransactionTemplate(transactionManager);
+    this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.searchLimit = searchLimit;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUp() {
+    PrimaryReads.call(tagRepository::findAll).forEach(tag -> dictionary.putIfAbsent(normalize(tag.getTitle()), tag));
+    log.info("Tag {} 개를 사전에 읽어왔습니다", dictionary.size());
+  }
+
+  // 사전에서 찾고, 없으면 DB 에서 대소문자를 구분하지 않고 찾음 (DB 에도 없으면 null)
+  public Tag findByTitle(String title) {
+    String key = normalize(title);
+    if (key.isEmpty()) {
+      return null;
+    }
+    Tag tag = dictionary.get(key);
+    if (tag == null) {
+      tag = PrimaryReads.call(() -> tagRepository.findFirstByTitleIgnoreCaseOrderByIdAsc(title.trim()));
+      if (tag != null) {
+        dictionary.putIfAbsent(key, tag);
+      }
+    }
+    return tag;
+  }
+
+  // title 에 해당하는 Tag 를 찾고, 없으면 새로 저장함
+  //  ㄴ 별도의 Transaction 에서 저장함 : 다른 요청이 같은 title 을 먼저 저장해서
+  //     unique 제약조건 위반이 발생해도 호출한 쪽의 Transaction 은 rollback 되지 않음
+  //  ㄴ unique 제약조건 위반이 발생하면 먼저 저장된 Tag 를 다시 읽어옴
+  public Tag findOrCreate(String title) {
+    Tag found = findByTitle(title);
+    if (found != null) {
+      return found;
+    }
+    String trimmed = title.trim();
+    Tag saved;
+    try {
+      saved = newTransaction.execute(status -> tagRepository.save(Tag.builder().title(trimmed).build()));
+    } catch (DataIntegrityViolationException e) {
+      saved = PrimaryReads.call(() -> tagRepository.findFirstByTitleIgnoreCaseOrderByIdAsc(trimmed));
+      if (saved == null) {
+        throw e;
+      }
+    }
+    Tag previous = dictionary.putIfAbsent(normalize(trimmed), saved);
+    return previous != null ? previous : saved;
+  }
+
+  // prefix 로 시작하는 Tag 의 title 목록 (DB 를 조회하지 않음)
+  public List<String> search(String prefix) {
+    String key = normalize(prefix);
+    List<String> titles = new ArrayList<>();
+    if (key.isEmpty()) {
+      return titles;
+    }
+    // [prefix, prefix + Character.MAX_VALUE) 범위의 key 가 prefix 로 시작하는 key 들임
+    ConcurrentNavigableMap<String, Tag> range = dictionary.subMap(key, true, key + Character.MAX_VALUE, false);
+    for (Map.Entry<String, Tag> entry : range.entrySet()) {
+      titles.add(entry.getValue().getTitle());
+      if (titles.size() >= searchLimit) {
+        break;
+      }
+    }
+    return titles;
+  }
+
+  static String normalize(String title) {
+    return title == null ? "" : title.trim().toLowerCase(Locale.ROOT);
+  }
+}
@@ -0,0 +1,30 @@
+package com.global.zone;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+// application 이 요청을 받을 준비가 된 후(ApplicationReadyEvent)
+// background thread 에서 Zone data 를 읽어옴
+//  ㄴ Zone data 가 아무리 많아도 application 시작 시간에는 영향을 주지 않음
+//  ㄴ 다 읽어올 때까지는 ZoneService.isReady() 가 false 임
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ZoneDataLoader {
+
+  private final ZoneService zoneService;
+
+  @Async
+  @EventListener(ApplicationReadyEvent.class)
+  public void loadZones() {
+    try {
+      zoneService.initZoneData();
+    } catch (Exception e) {
+      log.error("Zone data 를 읽어오지 못했습니다", e);
+    }
+  }
+}
@@ -0,0 +1,25 @@
+package com.global.zone;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/*
+  /actuator/health 의 zones 항목
+    ㄴ Zone data 를 다 읽어 오기 전(ZoneDataLoader 가 실행 중)에는 OUT_OF_SERVICE
+       ㄴ 그 동안은 활동 지역 검색 결과가 비어 있으므로 load balancer 가 요청을 보내지 않도록 함
+    ㄴ 다 읽어 왔으면 UP, 메모리 index 에 올라간 Zone 개수를 같이 보여줌
+*/
+@Component("zones")
+@RequiredArgsConstructor
+public class ZoneHealthIndicator implements HealthIndicator {
+
+  private final ZoneService zoneService;
+
+  @Override
+  public Health health() {
+    Health.Builder builder = zoneService.isReady() ? Health.up() : Health.outOfService();
+    return builder.withDetail("indexedZones", zoneService.indexedZoneCount()).build();
+  }
+}
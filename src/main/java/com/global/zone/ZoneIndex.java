@@ -0,0 +1,164 @@
+package com.global.zone;
+
+import com.global.domain.Zone;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/*
+  Zone 목록을 메모리에 올려놓고 접두어(prefix)로 검색하는 index
+    ㄴ city, localNameOfCity, localNameOfCity 의 초성, province 를 key 로 사용함
+       예) "an" -> Andong(안동시), Ansan(안산시) ...
+           "안산" -> Ansan(안산시)
+           "ㅇㅅ" -> Ansan(안산시), Anseong(안성시) ...
+  id -> Zone, (city, province) -> Zone 으로도 바로 찾을 수 있음
+    ㄴ settings/zones 의 add / remove 요청은 DB 를 조회하지 않고 여기서 Zone 을 찾음
+  한 번 만들어지면 변경되지 않는 객체(immutable)임
+    ㄴ Zone 목록이 바뀌면 ZoneService 에서 새로 만들어서 통째로 교체함
+*/
+public final class ZoneIndex {
+
+  // 한글 초성 19 자 (가 ~ 힣 의 초성 순서)
+  private static final char[] CHOSUNG = {
+    'ㄱ', 'ㄲ', 'ㄴ', 'ㄷ', 'ㄸ', 'ㄹ', 'ㅁ', 'ㅂ', 'ㅃ', 'ㅅ',
+    'ㅆ', 'ㅇ', 'ㅈ', 'ㅉ', 'ㅊ', 'ㅋ', 'ㅌ', 'ㅍ', 'ㅎ'
+  };
+  private static final char HANGUL_BEGIN = '가';
+  private static final char HANGUL_END = '힣';
+  // 초성 하나에 해당하는 글자 수 (중성 21 * 종성 28)
+  private static final int CHOSUNG_STRIDE = 21 * 28;
+
+  public static final ZoneIndex EMPTY = new ZoneIndex(Collections.emptyList());
+
+  // key 기준으로 정렬된 배열 <-- 이분 탐색(binary search)으로 접두어 범위를 찾음
+  private final String[] keys;
+  private final Zone[] zones;
+  private final int size;
+
+  private final Map<Long, Zone> byId;
+  private final Map<String, Zone> byCityAndProvince;
+
+  private ZoneIndex(Collection<Zone> source) {
+    List<Entry> entries = new ArrayList<>(source.size() * 4);
+    Map<Long, Zone> byId = new HashMap<>(source.size() * 2);
+    Map<String, Zone> byCityAndProvince = new HashMap<>(source.size() * 2);
+    for (Zone zone : source) {
+      byId.put(zone.getId(), zone);
+      byCityAndProvince.put(key(zone.getCity(), zone.getProvince()), zone);
+      addEntry(entries, zone.getCity(), zone);
+      addEntry(entries, zone.getLocalNameOfCity(), zone);
+      addEntry(entries, toChosung(zone.getLocalNameOfCity()), zone);
+      addEntry(entries, zone.getProvince(), zone);
+    }
+    entries.sort(Comparator.comparing((Entry e) -> e.key));
+
+    this.keys = new String[entries.size()];
+    this.zones = new Zone[entries.size()];
+    for (int i = 0; i < entries.size(); i++) {
+      keys[i] = entries.get(i).key;
+      zones[i] = entries.get(i).zone;
+    }
+    this.size = source.size();
+    this.byId = byId;
+    this.byCityAndProvince = byCityAndProvince;
+  }
+
+  public static ZoneIndex of(Collection<Zone> zones) {
+    return zones.isEmpty() ? EMPTY : new ZoneIndex(zones);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  // 없으면 null
+  public Zone findById(Long id) {
+    return id == null ? null : byId.get(id);
+  }
+
+  // 없으면 null
+  public Zone findByCityAndProvince(String city, String province) {
+    return byCityAndProvince.get(key(city, province));
+  }
+
+  // query 로 시작하는 Zone 을 최대 limit 개까지 반환함
+  //  ㄴ 같은 Zone 이 여러 key 에 걸리더라도 한 번만 반환함
+  public List<Zone> search(String query, int limit) {
+    String prefix = normalize(query);
+    if (prefix.isEmpty() || limit <= 0) {
+      return Collections.emptyList();
+    }
+
+    Set<Zone> result = new LinkedHashSet<>();
+    for (int i = lowerBound(prefix); i < keys.length && keys[i].startsWith(prefix); i++) {
+      result.add(zones[i]);
+      if (result.size() >= limit) {
+        break;
+      }
+    }
+    return new ArrayList<>(result);
+  }
+
+  // prefix 보다 크거나 같은 첫 번째 key 의 위치
+  private int lowerBound(String prefix) {
+    int found = Arrays.binarySearch(keys, prefix);
+    if (found < 0) {
+      return -found - 1;
+    }
+    // 같은 key 가 여러 개일 수 있으므로 가장 앞의 위치로 이동함
+    while (found > 0 && keys[found - 1].equals(prefix)) {
+      found--;
+    }
+    return found;
+  }
+
+  private static void addEntry(List<Entry> entries, String key, Zone zone) {
+    String normalized = normalize(key);
+    if (!normalized.isEmpty()) {
+      entries.add(new Entry(normalized, zone));
+    }
+  }
+
+  private static String key(String city, String province) {
+    return city + "\u0000" + province;
+  }
+
+  private static String normalize(String value) {
+    return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+  }
+
+  // "안동시" -> "ㅇㄷㅅ" : 한글이 아닌 글자는 그대로 둠
+  static String toChosung(String value) {
+    if (value == null) {
+      return "";
+    }
+    StringBuilder sb = new StringBuilder(value.length());
+    for (char c : value.toCharArray()) {
+      if (c >= HANGUL_BEGIN && c <= HANGUL_END) {
+        sb.append(CHOSUNG[(c - HANGUL_BEGIN) / CHOSUNG_STRIDE]);
+      } else {
+        sb.append(c);
+      }
+    }
+    return sb.toString();
+  }
+
+  private static final class Entry {
+    private final String key;
+    private final Zone zone;
+
+    private Entry(String key, Zone zone) {
+      this.key = key;
+      this.zone = zone;
+    }
+  }
+}
@@ -3,6 +3,12 @@ package com.global.zone;
 import com.global.domain.Zone;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
+import java.util.List;
+
 public interface ZoneRepository extends JpaRepository<Zone, Long> {
   Zone findByCityAndProvince(String cityName, String provinceName);
+
+  // ZoneService 에서 csv data 를 반영할 때 이미 있는 Zone 을 한 번에 조회함
+  List<Zone> findByCityIn(Collection<String> cities);
 }
@@ -1,41 +1,288 @@
 package com.global.zone;
 
+import com.global.config.PrimaryReads;
 import com.global.domain.Zone;
-import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.ClassPathResource;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 
+@Slf4j
 @Service
 @Transactional
-@RequiredArgsConstructor
 public class ZoneService {
+  // id 는 Zone 의 entity mapping(@GeneratedValue)에 설정된 generator 로 만들어서 넣음 (nextZoneId())
+  private static final String INSERT_ZONE_SQL =
+    "insert into zone (id, city, local_name_of_city, province) values (?, ?, ?, ?)";
+  private static final String UPDATE_ZONE_SQL =
+    "update zone set local_name_of_city = ? where id = ?";
+
+  /*
+    province 가 null 일 수 있던 때의 zone table 을 province not null 로 바꾸는 SQL
+      ㄴ unique index (city, province) 는 null 끼리 겹치는 것을 막지 못하므로
+         province 가 없는 같은 city 의 Zone 이 여러 개 저장되었을 수 있음
+         ㄴ (city, province) 별로 id 가 가장 작은 Zone 만 남기고, 나머지 Zone 을 사용하는 Account 는 남는 Zone 으로 옮김
+      ㄴ province 가 없으면 null 대신 "" 를 저장함
+    ddl-auto=update 는 이미 있는 column 을 not null 로 바꾸지 않으므로 application 이 시작될 때 한 번 실행함
+  */
+  private static final String PROVINCE_NULLABLE_SQL =
+    "select count(*) from information_schema.columns "
+    + "where lower(table_name) = 'zone' and lower(column_name) = 'province' and is_nullable = 'YES'";
+  private static final String LOCK_ZONE_SQL = "lock table zone in exclusive mode";
+  private static final String KEEPERS =
+    "(select city, coalesce(province, '') as province, min(id) as id from zone group by city, coalesce(province, ''))";
+  private static final String MOVE_ACCOUNT_ZONES_SQL =
+    "insert into account_zones (account_id, zones_id) select distinct az.account_id, k.id "
+    + "from account_zones az join zone z on z.id = az.zones_id "
+    + "join " + KEEPERS + " k on k.city = z.city and k.province = coalesce(z.province, '') "
+    + "where k.id <> z.id and not exists "
+    + "(select 1 from account_zones x where x.account_id = az.account_id and x.zones_id = k.id)";
+  private static final String DELETE_DUPLICATE_ACCOUNT_ZONES_SQL =
+    "delete from account_zones az using zone z, " + KEEPERS + " k "
+    + "where az.zones_id = z.id and k.city = z.city and k.province = coalesce(z.province, '') and k.id <> z.id";
+  private static final String DELETE_DUPLICATE_ZONES_SQL =
+    "delete from zone z using " + KEEPERS + " k "
+    + "where k.city = z.city and k.province = coalesce(z.province, '') and k.id <> z.id";
+  private static final String FILL_PROVINCE_SQL = "update zone set province = '' where province is null";
+  private static final String PROVINCE_NOT_NULL_SQL = "alter table zone alter column province set not null";
+
   private final ZoneRepository zoneRepository;
+  private final ResourceLoader resourceLoader;
+  private final JdbcTemplate jdbcTemplate;
+  private final EntityManager entityManager;
+  private final TransactionTemplate transactionTemplate;
+
+  // 검색 결과로 보여줄 최대 Zone 개수
+  private final int searchLimit;
+
+  // Zone data 를 읽어올 file 목록 (classpath: 또는 file: 로 지정함)
+  private final String[] dataLocations;
+
+  // 한 번의 Transaction, 한 번의 JDBC batch 로 처리할 Zone 개수
+  private final int batchSize;
+
+  // 메모리에 올려놓은 Zone 접두어 index
+  //  ㄴ 검색할 때는 DB 를 조회하지 않고 이 index 만 사용함
+  private volatile ZoneIndex zoneIndex = ZoneIndex.EMPTY;
 
-  // @PostConstruct : 생성자가 호출된 직후에 자동으로 호출되는 메소드
-  @PostConstruct
+  // Zone data 를 다 읽어왔는지 여부
+  private volatile boolean ready;
+
+  public ZoneService(ZoneRepository zoneRepository,
+                     ResourceLoader resourceLoader,
+                     JdbcTemplate jdbcTemplate,
+                     EntityManager entityManager,
+                     PlatformTransactionManager transactionManager,
+                     @Value("${app.zone.search-limit:10}") int searchLimit,
+                     @Value("${app.zone.data-locations:classpath:zone_kr.csv}") String[] dataLocations,
+                     @Value("${app.zone.batch-size:500}") int batchSize) {
+    this.zoneRepository = zoneRepository;
+    this.resourceLoader = resourceLoader;
+    this.jdbcTemplate = jdbcTemplate;
+    this.entityManager = entityManager;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.searchLimit = searchLimit;
+    this.dataLocations = dataLocations;
+    this.batchSize = batchSize;
+  }
+
+  // ZoneDataLoader 가 application 이 시작된 후 background 에서 호출함
+  //  ㄴ csv 파일을 한 줄씩 읽어서(streaming) batchSize 개씩 DB 에 반영함
+  //     (파일 전체를 메모리에 올리지 않음)
+  //  ㄴ (city, province) 가 같은 Zone 이 이미 있으면 localNameOfCity 만 수정하고, 없으면 추가함
+  //     여러 번 실행해도 결과가 같음
+  //  ㄴ jar 로 packaging 된 경우에도 읽을 수 있도록 File 이 아니라 InputStream 으로 읽음
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
   public void initZoneData() throws IOException {
-    // data 가 하나도 없다면....
-    // zone_ke.csv 파일에서 data 를 가져옴
-    if (zoneRepository.count() == 0){
-      Resource resource = new ClassPathResource("zone_kr.csv");
-      List<Zone> zoneList = Files.readAllLines(resource.getFile().toPath(), StandardCharsets.UTF_8)
-                                 .stream()
-                                 .map(line -> {
-                                      String[] split = line.split(",");
-                                      return Zone.builder().city(split[0]).localNameOfCity(split[1]).province(split[2]).build();
-                                     }).collect(Collectors.toList());
-      zoneRepository.saveAll(zoneList);
+    long started = System.currentTimeMillis();
+    migrateNullProvinces();
+    int total = 0;
+    for (String location : dataLocations) {
+      total += loadZones(resourceLoader.getResource(location.trim()));
+    }
+    refreshIndex();
+    this.ready = true;
+    log.info("Zone data {} 건을 {} ms 동안 읽어왔습니다", total, System.currentTimeMillis() - started);
+  }
+
+  private void migrateNullProvinces() {
+    Integer nullable = jdbcTemplate.queryForObject(PROVINCE_NULLABLE_SQL, Integer.class);
+    if (nullable == null || nullable == 0) {
+      return;
+    }
+    transactionTemplate.executeWithoutResult(status -> {
+      // 여러 서버가 동시에 시작해도 한 곳에서만 옮기도록 함 (먼저 끝난 곳이 옮겼으면 다시 옮길 것이 없음)
+      jdbcTemplate.execute(LOCK_ZONE_SQL);
+      jdbcTemplate.update(MOVE_ACCOUNT_ZONES_SQL);
+      jdbcTemplate.update(DELETE_DUPLICATE_ACCOUNT_ZONES_SQL);
+      int removed = jdbcTemplate.update(DELETE_DUPLICATE_ZONES_SQL);
+      int filled = jdbcTemplate.update(FILL_PROVINCE_SQL);
+      jdbcTemplate.execute(PROVINCE_NOT_NULL_SQL);
+      log.info("zone.province 를 not null 로 바꿨습니다 (중복 Zone {} 건 삭제, province 가 없는 Zone {} 건)", removed, filled);
+    });
+  }
+
+  private int loadZones(Resource resource) throws IOException {
+    int count = 0;
+    try (BufferedReader reader = new BufferedReader(
+           new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+      List<Zone> chunk = new ArrayList<>(batchSize);
+      String line;
+      while ((line = reader.readLine()) != null) {
+        Zone zone = parseLine(line);
+        if (zone == null) {
+          continue;
+        }
+        chunk.add(zone);
+        if (chunk.size() >= batchSize) {
+          count += upsert(chunk);
+          chunk.clear();
+        }
+      }
+      if (!chunk.isEmpty()) {
+        count += upsert(chunk);
+      }
+    }
+    return count;
+  }
+
+  // Andong,안동시,North Gyeongsang  -->  Zone
+  //  ㄴ package-private : 같은 package 의 ZoneCsvBenchmark 에서도 호출함
+  static Zone parseLine(String line) {
+    // UTF-8 BOM 이 있으면 제거함
+    if (!line.isEmpty() && line.charAt(0) == '\uFEFF') {
+      line = line.substring(1);
+    }
+    if (line.isBlank()) {
+      return null;
+    }
+    String[] split = line.split(",", -1);
+    if (split.length < 2) {
+      log.warn("잘못된 Zone data 를 건너뜁니다 : {}", line);
+      return null;
+    }
+    // province 가 없으면 "" : null 이면 (city, province) unique index 가 중복을 막지 못함
+    String province = split.length > 2 ? split[2].trim() : "";
+    return Zone.builder().city(split[0].trim()).localNameOfCity(split[1].trim()).province(province).build();
+  }
+
+  // chunk 하나를 하나의 Transaction 안에서 처리함
+  //  ㄴ 이미 있는 Zone 은 한 번의 query 로 조회하고
+  //     추가/수정할 Zone 은 JDBC batch 로 한 번에 보냄
+  private int upsert(List<Zone> chunk) {
+    Integer written = transactionTemplate.execute(status -> {
+      // 같은 chunk 안에서 (city, province) 가 중복되면 마지막 것만 사용함
+      Map<String, Zone> incoming = new LinkedHashMap<>();
+      chunk.forEach(zone -> incoming.put(key(zone.getCity(), zone.getProvince()), zone));
+
+      Set<String> cities = incoming.values().stream().map(Zone::getCity).collect(Collectors.toSet());
+      Map<String, Zone> existing = new HashMap<>();
+      zoneRepository.findByCityIn(cities)
+                    .forEach(zone -> existing.put(key(zone.getCity(), zone.getProvince()), zone));
+
+      List<Object[]> inserts = new ArrayList<>();
+      List<Object[]> updates = new ArrayList<>();
+      incoming.forEach((key, zone) -> {
+        Zone found = existing.get(key);
+        if (found == null) {
+          inserts.add(new Object[]{nextZoneId(zone), zone.getCity(), zone.getLocalNameOfCity(), zone.getProvince()});
+        } else if (!Objects.equals(found.getLocalNameOfCity(), zone.getLocalNameOfCity())) {
+          updates.add(new Object[]{zone.getLocalNameOfCity(), found.getId()});
+        }
+      });
+
+      if (!inserts.isEmpty()) {
+        jdbcTemplate.batchUpdate(INSERT_ZONE_SQL, inserts);
+      }
+      if (!updates.isEmpty()) {
+        jdbcTemplate.batchUpdate(UPDATE_ZONE_SQL, updates);
+      }
+      return inserts.size() + updates.size();
+    });
+    return written == null ? 0 : written;
+  }
+
+  private static String key(String city, String province) {
+    return city + "\u0000" + province;
+  }
+
+  // Hibernate 가 Zone 을 저장할 때와 같은 generator 로 id 를 만듦
+  //  ㄴ sequence 이름이나 allocationSize 를 SQL 에 적지 않으므로 mapping 을 바꿔도 Hibernate 가 만든 id 와 겹치지 않음
+  //  ㄴ 현재 Transaction 의 Session (connection) 에서 실행함
+  private Long nextZoneId(Zone zone) {
+    SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+    IdentifierGenerator generator = session.getFactory().getMetamodel()
+                                           .entityPersister(Zone.class)
+                                           .getIdentifierGenerator();
+    return ((Number) generator.generate(session, zone)).longValue();
+  }
+
+  // ZoneHealthIndicator 에서 사용함
+  public boolean isReady() {
+    return ready;
+  }
+
+  // 메모리 index 에 올라간 Zone 개수
+  public int indexedZoneCount() {
+    return zoneIndex.size();
+  }
+
+  // DB 에 있는 Zone 전체를 읽어서 index 를 새로 만든 후 교체함
+  // Zone data 가 바뀌었을 때 호출함
+  //  ㄴ 방금 저장한 Zone 이 빠지지 않도록 primary 에서 읽음 (PrimaryReads)
+  @Transactional(readOnly = true)
+  public void refreshIndex() {
+    this.zoneIndex = ZoneIndex.of(PrimaryReads.call(zoneRepository::findAll));
+  }
+
+  // SettingsController 의 public List<String> searchZones() 메소드에서 호출함
+  //  ㄴ DB 를 조회하지 않고 메모리에 있는 index 에서 찾음
+  @Transactional(propagation = Propagation.SUPPORTS)
+  public List<Zone> searchZones(String query) {
+    return zoneIndex.search(query, searchLimit);
+  }
+
+  // SettingsController 의 addZone(), removeZone() 에서 호출함
+  //  ㄴ Tagify 가 보내준 zoneId 로 index 에서 찾음 (DB 를 조회하지 않음)
+  //  ㄴ index 를 만들기 전이거나 index 에 없으면 DB 에서 찾음
+  @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+  public Zone findById(Long id) {
+    if (id == null) {
+      return null;
     }
+    Zone zone = zoneIndex.findById(id);
+    return zone != null ? zone : zoneRepository.findById(id).orElse(null);
+  }
+
+  // zoneId 가 없는 요청(예전 화면)은 "Andong(안동시)/North Gyeongsang" 에서 꺼낸 city, province 로 찾음
+  //  ㄴ index 에 없으면 (city, province) unique index 로 DB 에서 찾음
+  @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+  public Zone findByCityAndProvince(String city, String province) {
+    Zone zone = zoneIndex.findByCityAndProvince(city, province);
+    return zone != null ? zone : zoneRepository.findByCityAndProvince(city, province);
   }
 
 }
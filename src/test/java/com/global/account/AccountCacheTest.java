@@ -0,0 +1,122 @@
+package com.global.account;
+
+import com.global.domain.Account;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class AccountCacheTest {
+
+  @Autowired AccountService accountService;
+  @Autowired AccountRepository accountRepository;
+  @Autowired AccountCache accountCache;
+  @Autowired EntityManager entityManager;
+  @Autowired PlatformTransactionManager transactionManager;
+
+  Account account;
+
+  @BeforeEach
+  void beforeEach(){
+    SignUpForm signUpForm = new SignUpForm();
+    signUpForm.setNickName("cachetest");
+    signUpForm.setEmail("cachetest@email.com");
+    signUpForm.setPassword("12345678");
+    account = accountService.processNewAccount(signUpForm);
+    accountCache.clear();
+  }
+
+  @AfterEach
+  void afterEach(){
+    SecurityContextHolder.clearContext();
+    accountRepository.deleteById(account.getId());
+    accountCache.clear();
+  }
+
+  @DisplayName("처음 조회는 DB 에서 읽고, 다음 조회는 id / email / nickName 모두 cache 에서 읽음")
+  @Test
+  void hit_and_miss(){
+    long hits = accountCache.getHitCount();
+    long misses = accountCache.getMissCount();
+
+    Account first = accountCache.findById(account.getId()).orElseThrow();
+    assertEquals(misses + 1, accountCache.getMissCount());
+
+    assertSame(first, accountCache.findById(account.getId()).orElseThrow());
+    assertSame(first, accountCache.findByEmail("cachetest@email.com"));
+    assertSame(first, accountCache.findByNickName("cachetest"));
+    assertEquals(hits + 3, accountCache.getHitCount());
+    assertEquals(misses + 1, accountCache.getMissCount());
+  }
+
+  @DisplayName("ttl 이 지난 Account 는 다시 DB 에서 읽음")
+  @Test
+  void expire_after_ttl(){
+    AccountCache expiring = new AccountCache(accountRepository, entityManager, 10, 0);
+
+    expiring.findById(account.getId());
+    expiring.findById(account.getId());
+    assertEquals(0, expiring.getHitCount());
+    assertEquals(2, expiring.getMissCount());
+    assertEquals(1, expiring.getEvictionCount());
+  }
+
+  @DisplayName("commit 전에 다른 요청이 cache 에 넣은 변경 전 Account 는 commit 직후에 제거됨")
+  @Test
+  void evict_again_after_commit(){
+    new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+      accountCache.evict(account);
+      // 다른 요청(thread)이 commit 전의 data 를 읽어서 cache 에 넣음
+      CompletableFuture.runAsync(() -> accountCache.findById(account.getId())).join();
+      long hits = accountCache.getHitCount();
+      CompletableFuture.runAsync(() -> accountCache.findById(account.getId())).join();
+      assertEquals(hits + 1, accountCache.getHitCount());
+    });
+
+    long misses = accountCache.getMissCount();
+    accountCache.findById(account.getId());
+    assertEquals(misses + 1, accountCache.getMissCount());
+  }
+
+  @DisplayName("DB 를 읽는 동안 evict 되었으면 읽은 Account 를 cache 에 넣지 않음")
+  @Test
+  void skip_put_after_concurrent_evict(){
+    long generation = accountCache.generation();
+    Account loaded = accountRepository.findById(account.getId()).orElseThrow();
+    accountCache.evict(loaded);
+    accountCache.put(loaded, generation);
+
+    long misses = accountCache.getMissCount();
+    accountCache.findById(account.getId());
+    assertEquals(misses + 1, accountCache.getMissCount());
+  }
+
+  @DisplayName("cache 에 있는 Account 는 변경하지 않고, rollback 된 변경은 다른 요청에 보이지 않음")
+  @Test
+  void cached_account_is_not_modified(){
+    Account cached = accountCache.findById(account.getId()).orElseThrow();
+
+    new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+      accountService.updateNickName(cached, "rolledback");
+      status.setRollbackOnly();
+    });
+    assertEquals("cachetest", cached.getNickName());
+    assertEquals("cachetest", accountCache.findById(account.getId()).orElseThrow().getNickName());
+
+    accountService.updateNickName(cached, "cachetest2");
+    assertEquals("cachetest", cached.getNickName());
+    assertEquals("cachetest2", accountCache.findById(account.getId()).orElseThrow().getNickName());
+    assertNull(accountCache.findByNickName("cachetest"));
+  }
+}
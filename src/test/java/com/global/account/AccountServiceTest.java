@@ -0,0 +1,159 @@
+package com.global.account;
+
+import com.global.domain.Account;
+import com.global.domain.Tag;
+import com.global.domain.Zone;
+import com.global.notification.NotificationChannel;
+import com.global.notification.NotificationRecipientService;
+import com.global.settings.form.Notifications;
+import com.global.tag.TagRepository;
+import com.global.zone.ZoneRepository;
+import com.global.metrics.StatementCount;
+import com.global.metrics.StatementCountInspector;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// 실행된 SQL 개수는 StatementCountInspector 로 test thread 의 SQL 만 셈
+//  ㄴ Hibernate 통계(statistics)는 SessionFactory 전체의 개수이므로 background 작업(@Scheduled, @Async)의 SQL 도 섞임
+@SpringBootTest
+class AccountServiceTest {
+
+  @Autowired AccountService accountService;
+  @Autowired AccountRepository accountRepository;
+  @Autowired TagRepository tagRepository;
+  @Autowired ZoneRepository zoneRepository;
+  @Autowired AccountCache accountCache;
+  @Autowired MeterRegistry meterRegistry;
+  @Autowired NotificationRecipientService notificationRecipientService;
+
+  Account account;
+  Tag tag;
+  Zone zone;
+  StatementCount statements;
+
+  @BeforeEach
+  void beforeEach(){
+    SignUpForm signUpForm = new SignUpForm();
+    signUpForm.setNickName("querycount");
+    signUpForm.setEmail("querycount@gmail.com");
+    signUpForm.setPassword("12345678");
+    account = accountService.processNewAccount(signUpForm);
+
+    tag = tagRepository.save(Tag.builder().title("querycount-tag").build());
+    zone = zoneRepository.save(Zone.builder().city("queryCity").localNameOfCity("쿼리시").province("queryProvince").build());
+
+    statements = StatementCountInspector.begin();
+  }
+
+  // 이 test 에서 만든 row 만 삭제함
+  //  ㄴ zone 은 application 이 시작할 때 채워 두고 ZoneIndex, TagService 가 메모리에 가지고 있으므로 모두 지우면 안 됨
+  @AfterEach
+  void afterEach(){
+    StatementCountInspector.end();
+    accountRepository.deleteById(account.getId());
+    accountCache.evict(account);
+    tagRepository.deleteById(tag.getId());
+    zoneRepository.deleteById(zone.getId());
+  }
+
+  @DisplayName("관심 주제 추가 / 조회 / 삭제는 각각 SQL 한 번으로 처리함")
+  @Test
+  void tag_changes_use_single_statement(){
+    accountService.addTag(account, tag);
+    assertEquals(1, statements.getCount());
+
+    statements = StatementCountInspector.begin();
+    List<String> titles = accountService.getTagTitles(account);
+    assertEquals(1, statements.getCount());
+    assertEquals(List.of(tag.getTitle()), titles);
+
+    statements = StatementCountInspector.begin();
+    accountService.removeTag(account, tag);
+    assertEquals(1, statements.getCount());
+    assertTrue(accountService.getTagTitles(account).isEmpty());
+  }
+
+  @DisplayName("활동 지역 추가 / 조회 / 삭제는 각각 SQL 한 번으로 처리함")
+  @Test
+  void zone_changes_use_single_statement(){
+    accountService.addZone(account, zone);
+    // 같은 지역을 한 번 더 추가해도 중복으로 저장되지 않음
+    accountService.addZone(account, zone);
+    assertEquals(2, statements.getCount());
+
+    statements = StatementCountInspector.begin();
+    List<Zone> zones = accountService.getZones(account);
+    assertEquals(1, statements.getCount());
+    assertEquals(List.of(zone.toString()), List.of(zones.get(0).toString()));
+
+    statements = StatementCountInspector.begin();
+    accountService.removeZone(account, zone);
+    assertEquals(1, statements.getCount());
+    assertTrue(accountService.getZones(account).isEmpty());
+  }
+
+  @DisplayName("관심 주제, 활동 지역, 알림 설정으로 알림 대상을 찾음")
+  @Test
+  void find_notification_recipients(){
+    accountService.addTag(account, tag);
+    accountService.addZone(account, zone);
+    // 가입할 때 web 알림은 기본으로 받음
+    assertArrayEquals(new long[]{account.getId()},
+      notificationRecipientService.findRecipients(tag.getId(), zone.getId(), NotificationChannel.STUDY_CREATED_BY_WEB));
+    assertEquals(0, notificationRecipientService.countRecipients(tag.getId(), zone.getId(), NotificationChannel.STUDY_CREATED_BY_EMAIL));
+
+    Notifications notifications = new Notifications();
+    notifications.setStudyCreatedByEmail(true);
+    accountService.updateNotifications(account, notifications);
+    // settings 화면도 알림 대상 조회와 같은 bit mask 를 읽음
+    assertEquals(notifications, notificationRecipientService.findPreferences(account.getId()));
+    assertEquals(1, notificationRecipientService.countRecipients(tag.getId(), zone.getId(), NotificationChannel.STUDY_CREATED_BY_EMAIL));
+    assertEquals(0, notificationRecipientService.countRecipients(tag.getId(), zone.getId(), NotificationChannel.STUDY_CREATED_BY_WEB));
+
+    accountService.removeZone(account, zone);
+    assertEquals(0, notificationRecipientService.countRecipients(tag.getId(), zone.getId(), NotificationChannel.STUDY_CREATED_BY_EMAIL));
+    assertEquals(1, notificationRecipientService.countRecipients(tag.getId(), null, NotificationChannel.STUDY_CREATED_BY_EMAIL));
+  }
+
+  @DisplayName("login() 으로 만든 principal 에는 비밀번호(hash)가 없음 (session 에 저장되므로)")
+  @Test
+  void login_principal_has_no_password(){
+    accountService.login(account);
+    UserAccount principal = (UserAccount) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+    SecurityContextHolder.clearContext();
+
+    assertEquals("", principal.getPassword());
+    assertEquals(account.getId(), principal.getAccountPrincipal().getId());
+  }
+
+  @DisplayName("AccountService 와 repository 호출 시간은 app.service, app.repository timer 로 기록함")
+  @Test
+  void service_and_repository_calls_are_timed(){
+    long before = countOf("app.service", "getTagTitles");
+    accountService.getTagTitles(account);
+    assertEquals(before + 1, countOf("app.service", "getTagTitles"));
+
+    Timer repositoryTimer = meterRegistry.find("app.repository")
+                                         .tag("class", "AccountRepository")
+                                         .tag("method", "findTagTitlesByAccountId")
+                                         .tag("outcome", "success")
+                                         .timer();
+    assertNotNull(repositoryTimer);
+  }
+
+  private long countOf(String name, String method){
+    Timer timer = meterRegistry.find(name).tag("method", method).tag("outcome", "success").timer();
+    return timer == null ? 0 : timer.count();
+  }
+}
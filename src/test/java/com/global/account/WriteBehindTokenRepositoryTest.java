@@ -0,0 +1,128 @@
+package com.global.account;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.rememberme.PersistentRememberMeToken;
+
+import javax.servlet.http.Cookie;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Base64;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class WriteBehindTokenRepositoryTest {
+
+  @Autowired WriteBehindTokenRepository tokenRepository;
+  @Autowired RememberMeRefreshFilter rememberMeRefreshFilter;
+  @Autowired JdbcTemplate jdbcTemplate;
+
+  @AfterEach
+  void afterEach(){
+    SecurityContextHolder.clearContext();
+    tokenRepository.removeUserTokens("remember");
+  }
+
+  @DisplayName("token 교체는 바로 DB 에 쓰고, token 이 그대로인 last_used 갱신은 flush() 할 때 한 번에 씀")
+  @Test
+  void write_behind_last_used(){
+    Date created = minutesAgo(30);
+    tokenRepository.createNewToken(new PersistentRememberMeToken("remember", "series1", "token1", created));
+    assertEquals("token1", tokenRepository.getTokenForSeries("series1").getTokenValue());
+
+    Date touched = minutesAgo(10);
+    tokenRepository.updateToken("series1", "token1", touched);
+    assertEquals(created.getTime(), lastUsed("series1"));
+    // 아직 반영하지 않은 last_used 도 자동 로그인의 만료 확인에 사용됨
+    assertEquals(touched.getTime(), tokenRepository.getTokenForSeries("series1").getDate().getTime());
+
+    tokenRepository.flush();
+    assertEquals(touched.getTime(), lastUsed("series1"));
+
+    Date rotated = minutesAgo(1);
+    tokenRepository.updateToken("series1", "token2", rotated);
+    assertEquals("token2", jdbcTemplate.queryForObject(
+      "select token from persistent_logins where series = ?", String.class, "series1"));
+    assertEquals(rotated.getTime(), lastUsed("series1"));
+  }
+
+  @DisplayName("다른 node 가 교체한 token 은 자동 로그인할 때 DB 에서 다시 읽음")
+  @Test
+  void auto_login_reads_database(){
+    tokenRepository.createNewToken(new PersistentRememberMeToken("remember", "series1", "token1", minutesAgo(30)));
+    jdbcTemplate.update("update persistent_logins set token = ? where series = ?", "rotated", "series1");
+
+    assertEquals("rotated", tokenRepository.getTokenForSeries("series1").getTokenValue());
+  }
+
+  @DisplayName("last_used 가 token-validity-seconds 보다 오래된 series 를 삭제함")
+  @Test
+  void purge_expired(){
+    tokenRepository.createNewToken(new PersistentRememberMeToken("remember", "expired", "token1", minutesAgo(60 * 24 * 15)));
+    tokenRepository.createNewToken(new PersistentRememberMeToken("remember", "alive", "token2", minutesAgo(10)));
+
+    tokenRepository.purgeExpired();
+
+    assertNull(tokenRepository.getTokenForSeries("expired"));
+    assertNotNull(tokenRepository.getTokenForSeries("alive"));
+  }
+
+  @DisplayName("로그인한 요청의 remember-me cookie 는 token 을 바꾸지 않고 last_used 만 갱신함")
+  @Test
+  void refresh_filter() throws Exception{
+    Date created = minutesAgo(30);
+    tokenRepository.createNewToken(new PersistentRememberMeToken("remember", "series1", "token1", created));
+    SecurityContextHolder.getContext().setAuthentication(
+      new UsernamePasswordAuthenticationToken("remember", null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+
+    // token 이 다르면 갱신하지 않음
+    MockHttpServletResponse response = filter(cookie("series1", "wrong"));
+    assertNull(response.getCookie("remember-me"));
+
+    response = filter(cookie("series1", "token1"));
+    assertEquals(1209600, response.getCookie("remember-me").getMaxAge());
+    assertEquals(created.getTime(), lastUsed("series1"));
+    tokenRepository.flush();
+    assertTrue(lastUsed("series1") > created.getTime());
+    assertEquals("token1", tokenRepository.getTokenForSeries("series1").getTokenValue());
+
+    // refresh-interval-ms 안에는 다시 갱신하지 않음
+    assertNull(filter(cookie("series1", "token1")).getCookie("remember-me"));
+  }
+
+  private MockHttpServletResponse filter(Cookie cookie) throws Exception{
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+    request.setCookies(cookie);
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    MockFilterChain filterChain = new MockFilterChain();
+    rememberMeRefreshFilter.doFilter(request, response, filterChain);
+    assertNotNull(filterChain.getRequest());
+    return response;
+  }
+
+  private static Cookie cookie(String series, String token){
+    String value = Base64.getEncoder().encodeToString((series + ":" + token).getBytes(StandardCharsets.UTF_8));
+    return new Cookie("remember-me", value);
+  }
+
+  private long lastUsed(String series){
+    return jdbcTemplate.queryForObject("select last_used from persistent_logins where series = ?",
+                                       Timestamp.class, series).getTime();
+  }
+
+  private static Date minutesAgo(int minutes){
+    return new Date(System.currentTimeMillis() - minutes * 60_000L);
+  }
+}
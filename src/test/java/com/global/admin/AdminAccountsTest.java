@@ -0,0 +1,36 @@
+package com.global.admin;
+
+import com.global.domain.Account;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdminAccountsTest {
+
+  AdminAccounts adminAccounts = new AdminAccounts(new String[]{" Admin@Email.com ", ""});
+
+  @DisplayName("app.admin.emails 의 Account 만 ROLE_ADMIN 을 가짐 (대소문자 구분 없음)")
+  @Test
+  void admin_by_email(){
+    assertEquals(List.of("ROLE_USER", "ROLE_ADMIN"), names(Account.builder().email("admin@email.com").build()));
+    assertEquals(List.of("ROLE_USER"), names(Account.builder().email("global@email.com").build()));
+    assertEquals(List.of("ROLE_USER"), names(Account.builder().build()));
+  }
+
+  @DisplayName("설정하지 않으면 아무도 ROLE_ADMIN 을 가지지 않음")
+  @Test
+  void no_admins(){
+    AdminAccounts none = new AdminAccounts(new String[0]);
+    assertEquals(List.of("ROLE_USER"), none.authorities(Account.builder().email("admin@email.com").build())
+                                           .stream().map(GrantedAuthority::getAuthority).collect(Collectors.toList()));
+  }
+
+  private List<String> names(Account account){
+    return adminAccounts.authorities(account).stream().map(GrantedAuthority::getAuthority).collect(Collectors.toList());
+  }
+}
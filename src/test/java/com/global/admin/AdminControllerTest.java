@@ -0,0 +1,36 @@
+package com.global.admin;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.notNullValue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class AdminControllerTest {
+
+  @Autowired MockMvc mockMvc;
+
+  @DisplayName("/admin/stats - ROLE_ADMIN 이 없으면 403")
+  @Test
+  void stats_forbidden_without_admin_role() throws Exception{
+    mockMvc.perform(get("/admin/stats").param("exact", "true").with(user("global").roles("USER")))
+           .andExpect(status().isForbidden());
+  }
+
+  @DisplayName("/admin/stats - ROLE_ADMIN 이면 가입자 수를 반환함")
+  @Test
+  void stats_for_admin() throws Exception{
+    mockMvc.perform(get("/admin/stats").with(user("admin").roles("ADMIN")))
+           .andExpect(status().isOk())
+           .andExpect(jsonPath("$.accounts", notNullValue()))
+           .andExpect(jsonPath("$.accountsMode").value("approximate"));
+  }
+}
@@ -0,0 +1,40 @@
+package com.global.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class PasswordHashingBusyFilterTest {
+
+  @Autowired MockMvc mockMvc;
+
+  // bcrypt 대기열이 가득 찬 상태를 흉내냄
+  @MockBean(name = "passwordEncoder") BoundedPasswordEncoder passwordEncoder;
+
+  @DisplayName("로그인 중에 password hashing 대기열이 가득 차면 500 이 아닌 503 + Retry-After 로 응답함")
+  @Test
+  void login_when_hashing_busy() throws Exception{
+    when(passwordEncoder.matches(any(), any()))
+      .thenThrow(new PasswordHashingBusyException("password hashing 대기열이 가득 찼습니다", 7));
+
+    mockMvc.perform(post("/login")
+                      .param("username", "busy@email.com")
+                      .param("password", "12345678")
+                      .with(csrf()))
+           .andExpect(status().isServiceUnavailable())
+           .andExpect(header().string("Retry-After", "7"));
+  }
+}
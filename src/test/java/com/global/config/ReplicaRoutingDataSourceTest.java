@@ -0,0 +1,234 @@
+package com.global.config;
+
+import com.global.account.AccountCache;
+import com.global.account.AccountRepository;
+import com.global.account.AccountService;
+import com.global.account.SignUpForm;
+import com.global.domain.Account;
+import com.global.settings.SettingsController;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// primary 와 replica 2 개를 각각 다른 내장 H2 DB 로 띄우고, DATABASE() 로 어느 DB 에서 실행되었는지 확인함
+//  ㄴ replica 는 Hibernate 가 table 을 만들지 않으므로 replica_lag table 만 있음 (복제 지연을 흉내냄)
+//     JPA 를 거치는 test 는 replicate() 로 primary 의 table 과 data 를 replica 에 복사한 후 진행함
+//  ㄴ checkReplicas() 는 test 에서 직접 호출함
+@SpringBootTest(properties = {
+  "spring.datasource.url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1",
+  "spring.jpa.open-in-view=false",
+  "app.datasource.replica.enabled=true",
+  "app.datasource.replica.urls=" + ReplicaRoutingDataSourceTest.REPLICA1_URL + "," + ReplicaRoutingDataSourceTest.REPLICA2_URL,
+  "app.datasource.replica.lag-query=SELECT MAX(lag_ms) FROM replica_lag",
+  "app.datasource.replica.max-lag-ms=1000",
+  "app.datasource.replica.sticky-window-ms=60000",
+  "app.datasource.replica.check-interval-ms=3600000"
+})
+@AutoConfigureMockMvc
+class ReplicaRoutingDataSourceTest {
+
+  static final String REPLICA1_URL =
+    "jdbc:h2:mem:replica1;DB_CLOSE_DELAY=-1;INIT=CREATE TABLE IF NOT EXISTS replica_lag(lag_ms BIGINT)";
+  static final String REPLICA2_URL =
+    "jdbc:h2:mem:replica2;DB_CLOSE_DELAY=-1;INIT=CREATE TABLE IF NOT EXISTS replica_lag(lag_ms BIGINT)";
+
+  @Autowired JdbcTemplate jdbcTemplate;
+  @Autowired PlatformTransactionManager transactionManager;
+  @Autowired ReplicaDataSources replicaDataSources;
+  @Autowired MockMvc mockMvc;
+  @Autowired AccountService accountService;
+  @Autowired AccountRepository accountRepository;
+  @Autowired AccountCache accountCache;
+  @Autowired MeterRegistry meterRegistry;
+
+  @AfterEach
+  void afterEach() throws SQLException {
+    RequestContextHolder.resetRequestAttributes();
+    new TransactionTemplate(transactionManager).executeWithoutResult(status -> accountRepository.deleteAll());
+    setLag(REPLICA1_URL, 0);
+    setLag(REPLICA2_URL, 0);
+    replicaDataSources.checkReplicas();
+  }
+
+  @DisplayName("readOnly transaction 은 replica 를 번갈아 사용하고, 쓰기 transaction 은 primary 를 사용함")
+  @Test
+  void routeByReadOnly() {
+    Set<String> readDatabases = new HashSet<>();
+    for (int i = 0; i < 4; i++) {
+      readDatabases.add(currentDatabase(true));
+    }
+    assertEquals(Set.of("REPLICA1", "REPLICA2"), readDatabases);
+
+    assertEquals("PRIMARY", currentDatabase(false));
+    // transaction 밖
+    assertEquals("PRIMARY", jdbcTemplate.queryForObject("SELECT DATABASE()", String.class));
+  }
+
+  @DisplayName("복제 지연이 max-lag-ms 보다 큰 replica 는 건너뛰고, 모두 지연되면 primary 를 사용함")
+  @Test
+  void skipLaggingReplica() throws SQLException {
+    setLag(REPLICA1_URL, 5_000);
+    replicaDataSources.checkReplicas();
+    assertFalse(replicaDataSources.getReplicas().get("replica1").isUsable());
+    assertEquals("REPLICA2", currentDatabase(true));
+    assertEquals("REPLICA2", currentDatabase(true));
+
+    setLag(REPLICA2_URL, 5_000);
+    replicaDataSources.checkReplicas();
+    assertEquals("PRIMARY", currentDatabase(true));
+
+    setLag(REPLICA1_URL, 0);
+    replicaDataSources.checkReplicas();
+    assertEquals("REPLICA1", currentDatabase(true));
+  }
+
+  @DisplayName("쓰기 transaction 이 commit 된 후에는 같은 사용자(session)의 조회만 primary 를 사용함")
+  @Test
+  void readYourWrites() {
+    MockHttpServletRequest writer = new MockHttpServletRequest();
+    writer.getSession(true);
+    MockHttpServletRequest other = new MockHttpServletRequest();
+    other.getSession(true);
+
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(writer));
+    assertTrue(currentDatabase(true).startsWith("REPLICA"));
+    // rollback 된 transaction 은 기억하지 않음
+    new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+      jdbcTemplate.queryForObject("SELECT DATABASE()", String.class);
+      status.setRollbackOnly();
+    });
+    assertTrue(currentDatabase(true).startsWith("REPLICA"));
+
+    assertEquals("PRIMARY", currentDatabase(false));
+    assertEquals("PRIMARY", currentDatabase(true));
+
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(other));
+    assertTrue(currentDatabase(true).startsWith("REPLICA"));
+  }
+
+  @DisplayName("한 요청에서 readOnly 조회(@CurrentUser) 후 쓰기 transaction 을 실행하면 쓰기는 primary 에서 실행됨")
+  @Test
+  void readThenWriteInOneRequest() throws Exception {
+    SignUpForm signUpForm = new SignUpForm();
+    signUpForm.setNickName("replica");
+    signUpForm.setEmail("replica@email.com");
+    signUpForm.setPassword("12345678");
+    accountService.processNewAccount(signUpForm);
+    replicate();
+    UserDetails principal = accountService.loadUserByUsername("replica");
+    // @CurrentUser 가 DB 에서 Account 를 읽도록 cache 를 비움 (cache 에 넣을 Account 는 primary 에서 읽음)
+    accountCache.clear();
+
+    double primaryReads = primaryReadCount();
+    mockMvc.perform(post(SettingsController.SETTINGS_PROFILE_URL)
+                      .param("bio", "replica 에서 읽고 primary 에 씀")
+                      .with(user(principal))
+                      .with(csrf()))
+           .andExpect(status().is3xxRedirection());
+
+    assertTrue(primaryReadCount() > primaryReads);
+    Account updated = new TransactionTemplate(transactionManager)
+      .execute(status -> accountRepository.findByNickName("replica"));
+    assertEquals("replica 에서 읽고 primary 에 씀", updated.getBio());
+  }
+
+  @DisplayName("PrimaryReads 로 표시한 readOnly 조회는 primary 를 사용함 (cache 에 넣는 Account 포함)")
+  @Test
+  void primaryReads() {
+    assertTrue(currentDatabase(true).startsWith("REPLICA"));
+    assertEquals("PRIMARY", PrimaryReads.call(() -> currentDatabase(true)));
+    assertTrue(currentDatabase(true).startsWith("REPLICA"));
+
+    // replica 에는 아직 복제되지 않은 Account 도 cache 에서 찾을 수 있음
+    SignUpForm signUpForm = new SignUpForm();
+    signUpForm.setNickName("notreplicated");
+    signUpForm.setEmail("notreplicated@email.com");
+    signUpForm.setPassword("12345678");
+    Account account = accountService.processNewAccount(signUpForm);
+    accountCache.evict(account);
+    assertTrue(accountCache.findById(account.getId()).isPresent());
+    assertNotNull(accountCache.findByNickName("notreplicated"));
+  }
+
+  @DisplayName("open-in-view 가 켜져 있으면 application 이 시작되지 않음")
+  @Test
+  void requireOpenInViewDisabled() {
+    new ApplicationContextRunner()
+      .withPropertyValues("app.datasource.replica.enabled=true")
+      .withUserConfiguration(ReplicaRoutingConfig.class)
+      .run(context -> {
+        assertNotNull(context.getStartupFailure());
+        Throwable cause = context.getStartupFailure();
+        while (cause.getCause() != null) {
+          cause = cause.getCause();
+        }
+        assertTrue(cause.getMessage().contains("spring.jpa.open-in-view=false"));
+      });
+  }
+
+  private double primaryReadCount() {
+    return meterRegistry.get("app.datasource.route").tags("target", "primary", "reason", "primary-read").counter().count();
+  }
+
+  // H2 의 SCRIPT / RUNSCRIPT 로 primary 의 table 과 data 를 replica 에 복사함 (복제를 흉내냄)
+  private void replicate() throws IOException, SQLException {
+    Path script = Files.createTempFile("primary", ".sql");
+    try {
+      jdbcTemplate.execute("SCRIPT TO '" + script + "'");
+      for (String url : List.of(REPLICA1_URL, REPLICA2_URL)) {
+        try (Connection connection = DriverManager.getConnection(url, "", "");
+             Statement statement = connection.createStatement()) {
+          statement.execute("DROP ALL OBJECTS");
+          statement.execute("RUNSCRIPT FROM '" + script + "'");
+          statement.execute("CREATE TABLE IF NOT EXISTS replica_lag(lag_ms BIGINT)");
+        }
+      }
+    } finally {
+      Files.deleteIfExists(script);
+    }
+  }
+
+  private String currentDatabase(boolean readOnly) {
+    TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+    transactionTemplate.setReadOnly(readOnly);
+    return transactionTemplate.execute(status -> jdbcTemplate.queryForObject("SELECT DATABASE()", String.class));
+  }
+
+  private static void setLag(String url, long lagMillis) throws SQLException {
+    try (Connection connection = DriverManager.getConnection(url, "", "");
+         Statement statement = connection.createStatement()) {
+      statement.executeUpdate("DELETE FROM replica_lag");
+      statement.executeUpdate("INSERT INTO replica_lag VALUES (" + lagMillis + ")");
+    }
+  }
+}
@@ -0,0 +1,45 @@
+package com.global.notification;
+
+import com.global.settings.form.Notifications;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Notifications -> bit mask -> Notifications 로 바꿨을 때 값이 그대로인지 확인함
+//  ㄴ field 목록은 reflection 으로 읽으므로 Notifications 에 field 를 추가하고 bit 를 빠뜨리면 실패함
+class NotificationChannelTest {
+
+  @DisplayName("Notifications 의 각 field 가 bit mask 를 거쳐서 그대로 돌아옴")
+  @Test
+  void notifications_round_trip() throws Exception{
+    // 하나씩만 true 로 설정해서 다른 bit 로 mapping 된 경우도 찾아냄
+    int fields = 0;
+    for (Field field : Notifications.class.getDeclaredFields()) {
+      if (Modifier.isStatic(field.getModifiers())) {
+        continue;
+      }
+      field.setAccessible(true);
+      assertEquals(boolean.class, field.getType(), "Notifications." + field.getName() + " 의 type 에 맞게 test 를 고쳐야 함");
+      Notifications notifications = new Notifications();
+      field.setBoolean(notifications, true);
+
+      int channels = NotificationChannel.pack(notifications);
+      assertEquals(1, Integer.bitCount(channels), field.getName());
+      assertEquals(notifications, NotificationChannel.unpack(channels), field.getName());
+      fields++;
+    }
+    assertEquals(NotificationChannel.values().length, fields);
+  }
+
+  @DisplayName("새로 가입한 Account 는 web 알림만 받음")
+  @Test
+  void default_channels(){
+    for (NotificationChannel channel : NotificationChannel.values()) {
+      assertEquals(channel.isWeb(), channel.isSet(NotificationChannel.DEFAULT_CHANNELS), channel.name());
+    }
+  }
+}
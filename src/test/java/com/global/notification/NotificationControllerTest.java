@@ -0,0 +1,72 @@
+package com.global.notification;
+
+import com.global.WithAccount;
+import com.global.account.AccountRepository;
+import com.global.domain.Account;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class NotificationControllerTest {
+
+  @Autowired MockMvc mockMvc;
+  @Autowired AccountRepository accountRepository;
+  @Autowired WebNotificationBroker webNotificationBroker;
+
+  @AfterEach
+  void afterEach(){
+    accountRepository.deleteAll();
+  }
+
+  @WithAccount("global")
+  @DisplayName("web 알림 - 연결된 account 에게 보내고, 다시 연결하면 Last-Event-ID 이후의 알림을 보냄")
+  @Test
+  void streamAndResume() throws Exception{
+    Account global = accountRepository.findByNickName("global");
+
+    MvcResult first = mockMvc.perform(get("/notifications/stream"))
+                             .andExpect(request().asyncStarted())
+                             .andReturn();
+    assertTrue(webNotificationBroker.publish(global.getId(), NotificationChannel.STUDY_CREATED_BY_WEB, "first", "/study/1"));
+    // event 는 sse-send thread 에서 보내므로 도착할 때까지 기다림
+    String firstBody = awaitBody(first, "\"title\":\"first\"");
+    assertTrue(firstBody.contains("event:" + WebNotificationBroker.EVENT_NAME));
+    assertTrue(firstBody.contains("\"title\":\"first\""));
+
+    // email 알림은 SSE 로 보내지 않음
+    assertThrows(IllegalArgumentException.class, () ->
+      webNotificationBroker.publish(global.getId(), NotificationChannel.STUDY_CREATED_BY_EMAIL, "email", "/study/1"));
+
+    String lastEventId = firstBody.substring(firstBody.indexOf("id:") + 3, firstBody.indexOf('\n', firstBody.indexOf("id:")));
+    webNotificationBroker.publish(global.getId(), NotificationChannel.STUDY_UPDATED_BY_WEB, "second", "/study/1");
+
+    MvcResult resumed = mockMvc.perform(get("/notifications/stream").header("Last-Event-ID", lastEventId))
+                               .andExpect(request().asyncStarted())
+                               .andReturn();
+    String resumedBody = awaitBody(resumed, "\"title\":\"second\"");
+    assertFalse(resumedBody.contains("\"title\":\"first\""));
+    assertTrue(resumedBody.contains("\"title\":\"second\""));
+  }
+
+  // 응답에 expected 가 들어올 때까지 최대 5 초 기다림
+  private static String awaitBody(MvcResult result, String expected) throws Exception{
+    long deadline = System.currentTimeMillis() + 5000;
+    String body = result.getResponse().getContentAsString();
+    while (!body.contains(expected) && System.currentTimeMillis() < deadline) {
+      Thread.sleep(20);
+      body = result.getResponse().getContentAsString();
+    }
+    return body;
+  }
+}
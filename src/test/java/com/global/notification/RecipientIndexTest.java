@@ -0,0 +1,32 @@
+package com.global.notification;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecipientIndexTest {
+
+  @DisplayName("account id 가 듬성듬성해도 BitSet 은 Account 수만큼만 커지고, 결과는 account id 오름차순")
+  @Test
+  void sparse_account_ids(){
+    RecipientIndex index = new RecipientIndex();
+    int all = NotificationChannel.STUDY_CREATED_BY_WEB.mask() | NotificationChannel.STUDY_CREATED_BY_EMAIL.mask();
+    index.setChannels(3_000_000_000L, all);
+    index.setChannels(5L, all);
+    index.addTag(3_000_000_000L, 1L);
+    index.addTag(5L, 1L);
+
+    BitSet found = index.find(1L, null, NotificationChannel.STUDY_CREATED_BY_WEB);
+    assertTrue(found.length() <= 2);
+    assertArrayEquals(new long[]{5L, 3_000_000_000L}, index.accountIds(found));
+
+    index.removeTag(5L, 1L);
+    assertArrayEquals(new long[]{3_000_000_000L},
+                      index.accountIds(index.find(1L, null, NotificationChannel.STUDY_CREATED_BY_WEB)));
+    assertTrue(index.hasChannel(5L, NotificationChannel.STUDY_CREATED_BY_WEB));
+    assertFalse(index.hasChannel(7L, NotificationChannel.STUDY_CREATED_BY_WEB));
+  }
+}
@@ -0,0 +1,128 @@
+package com.global.ratelimit;
+
+import com.global.account.AccountPrincipal;
+import com.global.account.UserAccount;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class RateLimitFilterTest {
+
+  @Autowired MockMvc mockMvc;
+  @Autowired RateLimitProperties rateLimitProperties;
+
+  @AfterEach
+  void afterEach(){
+    SecurityContextHolder.clearContext();
+  }
+
+  @DisplayName("/check-availability - IP 별 limit 을 넘으면 429 와 Retry-After header 를 응답함")
+  @Test
+  void check_availability_too_many_requests() throws Exception{
+    // 다른 test 의 요청과 섞이지 않도록 IP 를 따로 사용함
+    RequestPostProcessor remoteAddr = request -> {
+      request.setRemoteAddr("10.0.14.1");
+      return request;
+    };
+    int perIp = rateLimitProperties.getRoutes().get("check-availability").getPerIp();
+    for (int i = 0; i < perIp; i++) {
+      mockMvc.perform(get("/check-availability").param("nickName", "ratelimit").with(remoteAddr))
+             .andExpect(status().isOk());
+    }
+
+    String retryAfter = mockMvc.perform(get("/check-availability").param("nickName", "ratelimit").with(remoteAddr))
+                               .andExpect(status().isTooManyRequests())
+                               .andExpect(header().exists("Retry-After"))
+                               .andReturn().getResponse().getHeader("Retry-After");
+    // window 가 1 분이므로 1 ~ 60 초
+    long seconds = Long.parseLong(retryAfter);
+    assertTrue(seconds >= 1 && seconds <= 60, retryAfter);
+  }
+
+  @DisplayName("email 별 limit 은 대소문자 / 앞뒤 공백이 달라도 같은 email 로 셈")
+  @Test
+  void per_email_key() throws Exception{
+    RateLimitFilter filter = filter(new RateLimitProperties.Route("POST", "/email-login", 100, 2, 0));
+
+    assertTrue(allowed(filter, emailLogin("global@email.com")));
+    assertTrue(allowed(filter, emailLogin(" Global@Email.com ")));
+    assertFalse(allowed(filter, emailLogin("GLOBAL@email.com")));
+    assertTrue(allowed(filter, emailLogin("other@email.com")));
+    assertEquals(1, filter.getRejectedCount("route"));
+  }
+
+  @DisplayName("account 별 limit 은 로그인한 account id 로 셈")
+  @Test
+  void per_account_key() throws Exception{
+    RateLimitFilter filter = filter(new RateLimitProperties.Route("GET", "/resend-confirm-email", 100, 0, 2));
+
+    login(1L);
+    assertTrue(allowed(filter, new MockHttpServletRequest("GET", "/resend-confirm-email")));
+    assertTrue(allowed(filter, new MockHttpServletRequest("GET", "/resend-confirm-email")));
+    assertFalse(allowed(filter, new MockHttpServletRequest("GET", "/resend-confirm-email")));
+
+    login(2L);
+    assertTrue(allowed(filter, new MockHttpServletRequest("GET", "/resend-confirm-email")));
+  }
+
+  @DisplayName("IP 기준에서 거절된 요청은 email 기준의 횟수를 쓰지 않음")
+  @Test
+  void rejected_by_ip_does_not_count_email() throws Exception{
+    RateLimitFilter filter = filter(new RateLimitProperties.Route("POST", "/email-login", 1, 1, 0));
+
+    assertTrue(allowed(filter, emailLogin("global@email.com")));
+    assertFalse(allowed(filter, emailLogin("other@email.com")));
+    // ip 1 개 + 처음 요청한 email 1 개만 기록함
+    assertEquals(2, filter.getTrackedKeyCount());
+  }
+
+  private static RateLimitFilter filter(RateLimitProperties.Route route){
+    RateLimitProperties properties = new RateLimitProperties();
+    properties.setRoutes(Map.of("route", route));
+    return new RateLimitFilter(properties);
+  }
+
+  private static MockHttpServletRequest emailLogin(String email){
+    MockHttpServletRequest request = new MockHttpServletRequest("POST", "/email-login");
+    request.setParameter("email", email);
+    return request;
+  }
+
+  private static void login(Long accountId){
+    UserAccount userAccount = new UserAccount(new AccountPrincipal(accountId, "global" + accountId, true, 0L));
+    SecurityContextHolder.getContext().setAuthentication(
+      new UsernamePasswordAuthenticationToken(userAccount, null, userAccount.getAuthorities()));
+  }
+
+  // 다음 filter 까지 전달되었으면 허용된 요청
+  private static boolean allowed(RateLimitFilter filter, MockHttpServletRequest request) throws Exception{
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    MockFilterChain filterChain = new MockFilterChain();
+    filter.doFilter(request, response, filterChain);
+    if (filterChain.getRequest() == null) {
+      assertEquals(429, response.getStatus());
+      assertNotNull(response.getHeader("Retry-After"));
+      return false;
+    }
+    return true;
+  }
+}
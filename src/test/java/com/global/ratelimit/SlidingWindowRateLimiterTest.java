@@ -0,0 +1,91 @@
+package com.global.ratelimit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingWindowRateLimiterTest {
+
+  SlidingWindowRateLimiter rateLimiter = new SlidingWindowRateLimiter(4, 1000);
+
+  @DisplayName("window 안에서 limit 개까지 허용하고, 가장 오래된 요청이 window 밖으로 나가면 다시 허용함")
+  @Test
+  void window_expiry(){
+    assertEquals(0, rateLimiter.tryAcquire("key", 2, 1000, 0));
+    assertEquals(0, rateLimiter.tryAcquire("key", 2, 1000, 300));
+    assertTrue(rateLimiter.tryAcquire("key", 2, 1000, 999) > 0);
+
+    // 0 에 받은 요청만 window 밖으로 나감
+    assertEquals(0, rateLimiter.tryAcquire("key", 2, 1000, 1000));
+    assertTrue(rateLimiter.tryAcquire("key", 2, 1000, 1000) > 0);
+  }
+
+  @DisplayName("거절하면 가장 오래된 요청이 window 밖으로 나갈 때까지 남은 시간을 반환함")
+  @Test
+  void retry_after(){
+    rateLimiter.tryAcquire("key", 2, 1000, 100);
+    rateLimiter.tryAcquire("key", 2, 1000, 400);
+
+    assertEquals(600, rateLimiter.tryAcquire("key", 2, 1000, 500));
+    assertEquals(1, rateLimiter.tryAcquire("key", 2, 1000, 1099));
+    // 거절된 요청은 기록하지 않음 : 400 에 받은 요청이 나가면 다시 허용함
+    assertEquals(0, rateLimiter.tryAcquire("key", 2, 1000, 1100));
+    assertEquals(300, rateLimiter.tryAcquire("key", 2, 1000, 1100));
+  }
+
+  @DisplayName("key 마다 따로 세고, 같은 stripe 에 있는 key 도 서로 영향을 주지 않음")
+  @Test
+  void separate_keys(){
+    SlidingWindowRateLimiter singleStripe = new SlidingWindowRateLimiter(1, 1000);
+    assertEquals(0, singleStripe.tryAcquire("a", 1, 1000, 0));
+    assertEquals(0, singleStripe.tryAcquire("b", 1, 1000, 0));
+    assertTrue(singleStripe.tryAcquire("a", 1, 1000, 0) > 0);
+    assertEquals(2, singleStripe.size());
+  }
+
+  @DisplayName("limit 이 0 이하이면 제한하지 않고 기록하지도 않음")
+  @Test
+  void no_limit(){
+    for (int i = 0; i < 10; i++) {
+      assertEquals(0, rateLimiter.tryAcquire("key", 0, 1000, 0));
+    }
+    assertEquals(0, rateLimiter.size());
+  }
+
+  @DisplayName("sweep() 은 window 안에 남은 요청이 없는 key 만 제거함")
+  @Test
+  void sweep(){
+    rateLimiter.tryAcquire("old", 5, 1000, 0);
+    rateLimiter.tryAcquire("recent", 5, 1000, 900);
+
+    assertEquals(1, rateLimiter.sweep(1000));
+    assertEquals(1, rateLimiter.size());
+
+    // 제거되지 않은 key 의 기록은 그대로 남아 있음
+    for (int i = 0; i < 4; i++) {
+      assertEquals(0, rateLimiter.tryAcquire("recent", 5, 1000, 1000));
+    }
+    assertEquals(900, rateLimiter.tryAcquire("recent", 5, 1000, 1000));
+
+    assertEquals(1, rateLimiter.sweep(3000));
+    assertEquals(0, rateLimiter.size());
+  }
+
+  @DisplayName("key 가 maxKeys 를 넘으면 가장 오래 사용하지 않은 key 를 제거함")
+  @Test
+  void max_keys(){
+    SlidingWindowRateLimiter limited = new SlidingWindowRateLimiter(1, 2);
+    assertEquals(0, limited.tryAcquire("a", 1, 1000, 0));
+    assertEquals(0, limited.tryAcquire("b", 1, 1000, 0));
+    // a 를 다시 사용했으므로 b 가 가장 오래 사용하지 않은 key
+    assertTrue(limited.tryAcquire("a", 1, 1000, 0) > 0);
+
+    assertEquals(0, limited.tryAcquire("c", 1, 1000, 0));
+    assertEquals(2, limited.size());
+    assertEquals(1, limited.evictions());
+    // a 의 기록은 남아 있고 b 는 새로 기록함
+    assertTrue(limited.tryAcquire("a", 1, 1000, 0) > 0);
+    assertEquals(0, limited.tryAcquire("b", 1, 1000, 0));
+  }
+}
@@ -0,0 +1,127 @@
+package com.global.session;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileSessionRepositoryTest {
+
+  @TempDir Path directory;
+
+  FileSessionRepository repository;
+
+  @BeforeEach
+  void beforeEach(){
+    repository = new FileSessionRepository(directory, Duration.ofMinutes(30), 2, getClass().getClassLoader());
+  }
+
+  @DisplayName("저장한 session 을 다시 읽음")
+  @Test
+  void save_and_find(){
+    FileSession session = repository.createSession();
+    session.setAttribute("nickName", "global");
+    repository.save(session);
+
+    FileSession found = repository.findById(session.getId());
+    assertEquals(session.getId(), found.getId());
+    assertEquals("global", found.getAttribute("nickName"));
+  }
+
+  @DisplayName("마지막 접근 시간만 바뀌면 header 만 덮어씀")
+  @Test
+  void touch_last_accessed_time(){
+    FileSession session = repository.createSession();
+    session.setAttribute("nickName", "global");
+    repository.save(session);
+
+    FileSession found = repository.findById(session.getId());
+    Instant lastAccessedTime = found.getLastAccessedTime().plusSeconds(10);
+    found.setLastAccessedTime(lastAccessedTime);
+    repository.save(found);
+
+    assertEquals(1, repository.getTouchCount());
+    FileSession touched = repository.findById(session.getId());
+    assertEquals(lastAccessedTime.toEpochMilli(), touched.getLastAccessedTime().toEpochMilli());
+    assertEquals("global", touched.getAttribute("nickName"));
+  }
+
+  @DisplayName("UUID 형식이 아닌 id 는 file 이름으로 사용하지 않음")
+  @Test
+  void reject_invalid_id() throws IOException{
+    Path outside = Files.createFile(directory.resolveSibling(directory.getFileName() + "-outside.session"));
+    try {
+      String traversal = "../" + directory.getFileName() + "-outside";
+      assertNull(repository.findById(traversal));
+      repository.deleteById(traversal);
+      assertTrue(Files.exists(outside));
+
+      assertNull(repository.findById(null));
+      assertNull(repository.findById("not-a-session-id"));
+      assertNull(repository.findById(UUID.randomUUID().toString().toUpperCase()));
+      assertNull(repository.findById(UUID.randomUUID().toString()));
+    } finally {
+      Files.deleteIfExists(outside);
+    }
+  }
+
+  @DisplayName("changeSessionId() 후 저장하면 새 id 로 읽을 수 있고 이전 id 의 file 은 삭제됨")
+  @Test
+  void change_session_id(){
+    FileSession session = repository.createSession();
+    session.setAttribute("nickName", "global");
+    repository.save(session);
+    String originalId = session.getId();
+
+    FileSession found = repository.findById(originalId);
+    String changedId = found.changeSessionId();
+    repository.save(found);
+
+    assertNotEquals(originalId, changedId);
+    assertNull(repository.findById(originalId));
+    assertFalse(Files.exists(directory.resolve(originalId + ".session")));
+    assertEquals("global", repository.findById(changedId).getAttribute("nickName"));
+  }
+
+  @DisplayName("만료된 session 과 손상된 file 만 삭제하고 만료되지 않은 session 은 남김")
+  @Test
+  void sweep_expired() throws IOException{
+    for (int i = 0; i < 3; i++) {
+      FileSession expired = repository.createSession();
+      expired.setLastAccessedTime(Instant.now().minus(Duration.ofHours(1)));
+      repository.save(expired);
+    }
+    FileSession alive = repository.createSession();
+    repository.save(alive);
+    Files.write(directory.resolve(UUID.randomUUID() + ".session"), new byte[]{1, 2, 3});
+
+    repository.sweepExpired();
+
+    assertEquals(4, repository.getExpiredCount());
+    try (Stream<Path> files = Files.list(directory)) {
+      assertEquals(1, files.count());
+    }
+    assertNotNull(repository.findById(alive.getId()));
+  }
+
+  @DisplayName("만료된 session 은 읽지 않고 삭제함")
+  @Test
+  void find_expired(){
+    FileSession session = repository.createSession();
+    session.setLastAccessedTime(Instant.now().minus(Duration.ofHours(1)));
+    repository.save(session);
+
+    assertNull(repository.findById(session.getId()));
+    assertFalse(Files.exists(directory.resolve(session.getId() + ".session")));
+  }
+}
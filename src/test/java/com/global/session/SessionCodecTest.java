@@ -0,0 +1,72 @@
+package com.global.session;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionCodecTest {
+
+  ClassLoader classLoader = getClass().getClassLoader();
+
+  @DisplayName("encode -> decode 하면 id, 시간, attribute 가 그대로 돌아옴")
+  @Test
+  void round_trip(){
+    FileSession session = new FileSession(Duration.ofMinutes(30));
+    session.setLastAccessedTime(Instant.ofEpochMilli(1_700_000_000_123L));
+    session.setAttribute("nickName", "global");
+    session.setAttribute("tags", List.of("spring", "jpa"));
+
+    FileSession decoded = SessionCodec.decode(ByteBuffer.wrap(SessionCodec.encode(session)), classLoader);
+
+    assertEquals(session.getId(), decoded.getId());
+    assertEquals(session.getCreationTime().toEpochMilli(), decoded.getCreationTime().toEpochMilli());
+    assertEquals(Instant.ofEpochMilli(1_700_000_000_123L), decoded.getLastAccessedTime());
+    assertEquals(Duration.ofMinutes(30), decoded.getMaxInactiveInterval());
+    assertEquals(Set.of("nickName", "tags"), decoded.getAttributeNames());
+    assertEquals("global", decoded.getAttribute("nickName"));
+    assertEquals(List.of("spring", "jpa"), decoded.getAttribute("tags"));
+  }
+
+  @DisplayName("꺼내지 않은 attribute 는 역직렬화하지 않고 byte 배열 그대로 다시 씀")
+  @Test
+  void keep_serialized_attribute(){
+    FileSession session = new FileSession(Duration.ofMinutes(30));
+    session.setAttribute("nickName", "global");
+    byte[] encoded = SessionCodec.encode(session);
+
+    FileSession decoded = SessionCodec.decode(ByteBuffer.wrap(encoded), classLoader);
+    assertTrue(decoded.rawAttributes().get("nickName") instanceof SessionCodec.Serialized);
+    assertArrayEquals(encoded, SessionCodec.encode(decoded));
+  }
+
+  @DisplayName("header 의 마지막 접근 시간과 maxInactiveInterval 로 만료 여부를 판단함")
+  @Test
+  void expired_from_header(){
+    FileSession session = new FileSession(Duration.ofSeconds(60));
+    session.setLastAccessedTime(Instant.ofEpochMilli(1_000_000L));
+    ByteBuffer header = ByteBuffer.wrap(SessionCodec.encode(session), 0, SessionCodec.HEADER_SIZE);
+
+    assertFalse(SessionCodec.isExpired(header, 1_000_000L + 59_999));
+    assertTrue(SessionCodec.isExpired(header, 1_000_000L + 60_000));
+
+    // maxInactiveInterval 이 음수이면 만료되지 않음
+    assertFalse(SessionCodec.isExpired(0L, Duration.ofSeconds(-1), Long.MAX_VALUE));
+  }
+
+  @DisplayName("magic 이 다른 data 는 session 으로 읽지 않음")
+  @Test
+  void reject_wrong_magic(){
+    byte[] encoded = SessionCodec.encode(new FileSession(Duration.ofMinutes(30)));
+    encoded[0] = 0;
+
+    assertThrows(IllegalStateException.class, () -> SessionCodec.decode(ByteBuffer.wrap(encoded), classLoader));
+    assertTrue(SessionCodec.isExpired(ByteBuffer.wrap(encoded), 0L));
+  }
+}
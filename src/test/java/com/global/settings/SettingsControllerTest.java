@@ -7,8 +7,10 @@ import com.global.account.AccountService;
 import com.global.account.SignUpForm;
 import com.global.domain.Account;
 import com.global.domain.Zone;
+import com.global.metrics.StatementCountFilter;
 import com.global.settings.form.ZoneForm;
 import com.global.zone.ZoneRepository;
+import com.global.zone.ZoneService;
 import jdk.jshell.spi.ExecutionControlProvider;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -23,8 +25,13 @@ import org.springframework.security.test.context.support.TestExecutionEvent;
 import org.springframework.security.test.context.support.WithUserDetails;
 import org.springframework.test.web.servlet.MockMvc;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
 import java.security.cert.X509Certificate;
+import java.util.Base64;
 
+import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -58,6 +65,9 @@ class SettingsControllerTest {
   @Autowired
   private ZoneRepository zoneRepository;
 
+  @Autowired
+  private ZoneService zoneService;
+
 
   /*
     @BeforeEach
@@ -79,6 +89,8 @@ class SettingsControllerTest {
   @BeforeEach
   void beforeEach(){
     zoneRepository.save(testZone);
+    // 검색 index 에 testZone 이 들어가도록 index 를 새로 만듦
+    zoneService.refreshIndex();
   }
 
   @AfterEach
@@ -97,7 +109,9 @@ class SettingsControllerTest {
     mockMvc.perform(get(SettingsController.SETTINGS_PROFILE_URL))
           .andExpect(status().isOk())
           .andExpect(model().attributeExists("account"))
-          .andExpect(model().attributeExists("profile"));
+          .andExpect(model().attributeExists("profile"))
+          // 요청에서 실행한 SQL 개수가 request attribute 로 저장됨
+          .andExpect(request().attribute(StatementCountFilter.ATTRIBUTE, notNullValue()));
   }
 
   // 요청을 보낼 때, 어떤 user 가 보내는지 설정하기
@@ -165,6 +179,53 @@ class SettingsControllerTest {
     assertNull(global.getBio());
   }
 
+  @WithAccount("global")
+  @DisplayName("프로필 수정 테스트 - 프로필 이미지가 base64 가 아니면 form error")
+  @Test
+  void updateProfile_invalidImage() throws Exception{
+    mockMvc.perform(post(SettingsController.SETTINGS_PROFILE_URL)
+          .param("bio", "소개글")
+          .param("profileImage", "data:image/png;base64,이건base64가아님")
+          .with(csrf()))
+          .andExpect(status().isOk())
+          .andExpect(view().name(SettingsController.SETTINGS_PROFILE_VIEW))
+          .andExpect(model().attributeHasFieldErrors("profile", "profileImage"));
+
+    assertNull(accountRepository.findByNickName("global").getBio());
+  }
+
+  @WithAccount("global")
+  @DisplayName("프로필 수정 테스트 - 저장되지 않은 이미지의 hash 는 form error")
+  @Test
+  void updateProfile_unknownImageHash() throws Exception{
+    mockMvc.perform(post(SettingsController.SETTINGS_PROFILE_URL)
+          .param("profileImage", "0".repeat(64))
+          .with(csrf()))
+          .andExpect(status().isOk())
+          .andExpect(view().name(SettingsController.SETTINGS_PROFILE_VIEW))
+          .andExpect(model().attributeHasFieldErrors("profile", "profileImage"));
+
+    assertNull(accountRepository.findByNickName("global").getProfileImage());
+  }
+
+  @WithAccount("global")
+  @DisplayName("프로필 수정 테스트 - 가로 / 세로가 너무 큰 이미지는 decoding 하지 않고 form error")
+  @Test
+  void updateProfile_oversizedImage() throws Exception{
+    // file 은 작지만 decoding 하면 아주 큰 이미지
+    ByteArrayOutputStream png = new ByteArrayOutputStream();
+    ImageIO.write(new BufferedImage(5000, 1, BufferedImage.TYPE_BYTE_BINARY), "png", png);
+    String dataUrl = "data:image/png;base64," + Base64.getEncoder().encodeToString(png.toByteArray());
+
+    mockMvc.perform(post(SettingsController.SETTINGS_PROFILE_URL)
+          .param("profileImage", dataUrl)
+          .with(csrf()))
+          .andExpect(status().isOk())
+          .andExpect(model().attributeHasFieldErrors("profile", "profileImage"));
+
+    assertNull(accountRepository.findByNickName("global").getProfileImage());
+  }
+
   @WithAccount("global")
   @DisplayName("비밀번호 수정 테스트하기 - 입력값 정상인 경우")
   @Test
@@ -246,10 +307,28 @@ class SettingsControllerTest {
     mockMvc.perform(get(ROOT + SETTINGS + ZONES))
       .andExpect(view().name(SETTINGS + ZONES))
       .andExpect(model().attributeExists("account"))
-      .andExpect(model().attributeExists("allZones"))
+      .andExpect(model().attributeDoesNotExist("allZones"))
       .andExpect(model().attributeExists("zones"));
   }
 
+  @WithAccount("global")
+  @DisplayName("지역 정보 검색 테스트 - 영문, 한글, 초성")
+  @Test
+  void searchZones() throws Exception{
+    mockMvc.perform(get(ROOT + SETTINGS + ZONES + "/search").param("q", "testc"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$[0].id").value(testZone.getId()))
+      .andExpect(jsonPath("$[0].value").value(testZone.toString()));
+
+    mockMvc.perform(get(ROOT + SETTINGS + ZONES + "/search").param("q", "테스트"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$[0].value").value(testZone.toString()));
+
+    mockMvc.perform(get(ROOT + SETTINGS + ZONES + "/search").param("q", "ㅌㅅㅌ"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$[0].value").value(testZone.toString()));
+  }
+
 
   @WithAccount("global")
   @DisplayName("지역 정보 추가 테스트 - add")
@@ -257,6 +336,7 @@ class SettingsControllerTest {
   void addZone() throws Exception{
     // add 할 때, form 으로 입력받은 객체 생성함
     ZoneForm zoneForm = new ZoneForm();
+    zoneForm.setZoneId(testZone.getId());
     zoneForm.setZoneName(testZone.toString());
 
     mockMvc.perform(post(ROOT + SETTINGS + ZONES + "/add")
@@ -0,0 +1,53 @@
+package com.global.settings;
+
+import com.global.domain.Account;
+import com.global.settings.form.NickNameForm;
+import com.global.settings.form.Profile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Form -> Account -> Form 으로 바꿨을 때 값이 그대로인지 확인함
+//  ㄴ field 목록은 reflection 으로 읽으므로 Form 에 field 를 추가하고 mapping 을 빠뜨리면 실패함
+class SettingsFormMapperTest {
+
+  SettingsFormMapper settingsFormMapper = new SettingsFormMapper();
+
+  @DisplayName("Profile 의 모든 field 가 Account 를 거쳐서 그대로 돌아옴")
+  @Test
+  void profile_round_trip() throws Exception{
+    // field 마다 다른 값을 넣어서 서로 바뀌어 mapping 된 경우도 찾아냄
+    Profile profile = new Profile();
+    for (Field field : fieldsOf(Profile.class)) {
+      assertEquals(String.class, field.getType(), "Profile." + field.getName() + " 의 type 에 맞게 test 를 고쳐야 함");
+      field.set(profile, field.getName() + "-value");
+    }
+
+    Account account = Account.builder().build();
+    settingsFormMapper.applyProfile(profile, account);
+    assertEquals(profile, settingsFormMapper.toProfile(account));
+  }
+
+  @DisplayName("NickNameForm 의 모든 field 를 Account 에서 채움")
+  @Test
+  void nickNameForm_from_account(){
+    assertEquals(List.of("nickName"), fieldsOf(NickNameForm.class).stream().map(Field::getName).collect(Collectors.toList()));
+
+    Account account = Account.builder().nickName("global").build();
+    assertEquals("global", settingsFormMapper.toNickNameForm(account).getNickName());
+  }
+
+  private static List<Field> fieldsOf(Class<?> formClass){
+    return Arrays.stream(formClass.getDeclaredFields())
+                 .filter(field -> !Modifier.isStatic(field.getModifiers()))
+                 .peek(field -> field.setAccessible(true))
+                 .collect(Collectors.toList());
+  }
+}